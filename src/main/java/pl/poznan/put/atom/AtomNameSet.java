@@ -0,0 +1,233 @@
+package pl.poznan.put.atom;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of atom names stored as a bitmask over {@link AtomName} ordinals. Set operations
+ * (intersection size, subset, equality) are computed word by word with {@link Long#bitCount(long)},
+ * so they do not create any intermediate collections.
+ */
+public final class AtomNameSet extends AbstractSet<AtomName> {
+  private static final AtomName[] VALUES = AtomName.values();
+  private static final int BITS_PER_WORD = 64;
+  private static final int WORDS =
+      (AtomNameSet.VALUES.length + AtomNameSet.BITS_PER_WORD - 1) / AtomNameSet.BITS_PER_WORD;
+  private static final AtomNameSet EMPTY = new AtomNameSet(new long[AtomNameSet.WORDS]);
+  private static final AtomNameSet HEAVY = AtomNameSet.createHeavy();
+
+  private final long[] words;
+  private final int size;
+  private int hashCode;
+
+  private AtomNameSet(final long[] words) {
+    super();
+    this.words = words;
+    size = Arrays.stream(words).mapToInt(Long::bitCount).sum();
+  }
+
+  /**
+   * @return An empty set.
+   */
+  public static AtomNameSet empty() {
+    return AtomNameSet.EMPTY;
+  }
+
+  /**
+   * @param atomNames Atom names to put in the set.
+   * @return A set with the given atom names.
+   */
+  public static AtomNameSet of(final AtomName... atomNames) {
+    final long[] words = new long[AtomNameSet.WORDS];
+    for (final AtomName atomName : atomNames) {
+      AtomNameSet.setBit(words, atomName);
+    }
+    return new AtomNameSet(words);
+  }
+
+  /**
+   * @param atomNames A collection of atom names.
+   * @return A set with the same atom names. If the collection is already an instance of this class,
+   *     it is returned as is.
+   */
+  public static AtomNameSet copyOf(final Collection<AtomName> atomNames) {
+    if (atomNames instanceof AtomNameSet) {
+      return (AtomNameSet) atomNames;
+    }
+    final long[] words = new long[AtomNameSet.WORDS];
+    for (final AtomName atomName : atomNames) {
+      AtomNameSet.setBit(words, atomName);
+    }
+    return new AtomNameSet(words);
+  }
+
+  private static void setBit(final long[] words, final AtomName atomName) {
+    final int ordinal = atomName.ordinal();
+    words[ordinal / AtomNameSet.BITS_PER_WORD] |= 1L << ordinal;
+  }
+
+  private static AtomNameSet createHeavy() {
+    final long[] words = new long[AtomNameSet.WORDS];
+    for (final AtomName atomName : AtomNameSet.VALUES) {
+      if (atomName.isHeavy()) {
+        AtomNameSet.setBit(words, atomName);
+      }
+    }
+    return new AtomNameSet(words);
+  }
+
+  /**
+   * @return A subset with heavy (non-hydrogen) atoms only.
+   */
+  public AtomNameSet heavyAtoms() {
+    return intersection(AtomNameSet.HEAVY);
+  }
+
+  /**
+   * @return True if there is at least one hydrogen atom in this set.
+   */
+  public boolean hasAnyHydrogen() {
+    for (int i = 0; i < words.length; i++) {
+      if ((words[i] & ~AtomNameSet.HEAVY.words[i]) != 0L) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param other Another set.
+   * @return A set of atom names present in both sets.
+   */
+  public AtomNameSet intersection(final AtomNameSet other) {
+    final long[] result = new long[AtomNameSet.WORDS];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] & other.words[i];
+    }
+    return new AtomNameSet(result);
+  }
+
+  /**
+   * @param other Another set.
+   * @return A set of atom names present in any of the sets.
+   */
+  public AtomNameSet union(final AtomNameSet other) {
+    final long[] result = new long[AtomNameSet.WORDS];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] | other.words[i];
+    }
+    return new AtomNameSet(result);
+  }
+
+  /**
+   * @param other Another set.
+   * @return The number of atom names present in both sets (without creating the intersection).
+   */
+  public int intersectionSize(final AtomNameSet other) {
+    int count = 0;
+    for (int i = 0; i < words.length; i++) {
+      count += Long.bitCount(words[i] & other.words[i]);
+    }
+    return count;
+  }
+
+  /**
+   * @param other Another set.
+   * @return True if all atom names from the other set are present in this one.
+   */
+  public boolean containsAll(final AtomNameSet other) {
+    for (int i = 0; i < words.length; i++) {
+      if ((other.words[i] & ~words[i]) != 0L) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    if (!(o instanceof AtomName)) {
+      return false;
+    }
+    final int ordinal = ((AtomName) o).ordinal();
+    return (words[ordinal / AtomNameSet.BITS_PER_WORD] & (1L << ordinal)) != 0L;
+  }
+
+  @Override
+  public boolean containsAll(final Collection<?> c) {
+    if (c instanceof AtomNameSet) {
+      return containsAll((AtomNameSet) c);
+    }
+    return super.containsAll(c);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<AtomName> iterator() {
+    return new BitIterator();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof AtomNameSet) {
+      return Arrays.equals(words, ((AtomNameSet) o).words);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    // the contract of Set requires the sum of hash codes of elements; it is computed once
+    int result = hashCode;
+    if (result == 0) {
+      result = super.hashCode();
+      hashCode = result;
+    }
+    return result;
+  }
+
+  private final class BitIterator implements Iterator<AtomName> {
+    private int next = nextOrdinal(0);
+
+    @Override
+    public boolean hasNext() {
+      return next < AtomNameSet.VALUES.length;
+    }
+
+    @Override
+    public AtomName next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final AtomName atomName = AtomNameSet.VALUES[next];
+      next = nextOrdinal(next + 1);
+      return atomName;
+    }
+
+    private int nextOrdinal(final int from) {
+      int index = from / AtomNameSet.BITS_PER_WORD;
+      if (index >= words.length) {
+        return AtomNameSet.VALUES.length;
+      }
+      long word = words[index] & (-1L << from);
+      while (word == 0L) {
+        index += 1;
+        if (index == words.length) {
+          return AtomNameSet.VALUES.length;
+        }
+        word = words[index];
+      }
+      return index * AtomNameSet.BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+    }
+  }
+}
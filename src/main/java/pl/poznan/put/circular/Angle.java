@@ -28,9 +28,17 @@ public abstract class Angle implements Comparable<Angle> {
    */
   public static Angle betweenPoints(
       final Vector3D coordA, final Vector3D coordB, final Vector3D coordC) {
-    final Vector3D vectorAB = coordB.subtract(coordA);
-    final Vector3D vectorCB = coordB.subtract(coordC);
-    return ImmutableAngle.of(Vector3D.angle(vectorAB, vectorCB));
+    return ImmutableAngle.of(
+        Geometry.angle(
+            coordA.getX(),
+            coordA.getY(),
+            coordA.getZ(),
+            coordB.getX(),
+            coordB.getY(),
+            coordB.getZ(),
+            coordC.getX(),
+            coordC.getY(),
+            coordC.getZ()));
   }
 
   /**
@@ -67,10 +75,20 @@ public abstract class Angle implements Comparable<Angle> {
    */
   public static Angle torsionAngle(
       final Vector3D coordA, final Vector3D coordB, final Vector3D coordC, final Vector3D coordD) {
-    final Vector3D v1 = coordB.subtract(coordA);
-    final Vector3D v2 = coordC.subtract(coordB);
-    final Vector3D v3 = coordD.subtract(coordC);
-    return Angle.torsionAngle(v1, v2, v3);
+    return ImmutableAngle.of(
+        Geometry.torsionAngle(
+            coordA.getX(),
+            coordA.getY(),
+            coordA.getZ(),
+            coordB.getX(),
+            coordB.getY(),
+            coordB.getZ(),
+            coordC.getX(),
+            coordC.getY(),
+            coordC.getZ(),
+            coordD.getX(),
+            coordD.getY(),
+            coordD.getZ()));
   }
 
   /**
@@ -82,10 +100,17 @@ public abstract class Angle implements Comparable<Angle> {
    * @return A torsion angle (rotation around vector vec2).
    */
   public static Angle torsionAngle(final Vector3D vec1, final Vector3D vec2, final Vector3D vec3) {
-    final Vector3D tmp1 = vec1.crossProduct(vec2);
-    final Vector3D tmp2 = vec2.crossProduct(vec3);
-    final Vector3D tmp3 = vec1.scalarMultiply(vec2.getNorm());
-    return ImmutableAngle.of(FastMath.atan2(tmp3.dotProduct(tmp2), tmp1.dotProduct(tmp2)));
+    return ImmutableAngle.of(
+        Geometry.torsionAngle(
+            vec1.getX(),
+            vec1.getY(),
+            vec1.getZ(),
+            vec2.getX(),
+            vec2.getY(),
+            vec2.getZ(),
+            vec3.getX(),
+            vec3.getY(),
+            vec3.getZ()));
   }
 
   /**
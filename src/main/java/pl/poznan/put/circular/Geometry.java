@@ -0,0 +1,194 @@
+package pl.poznan.put.circular;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.MathArrays;
+
+/**
+ * Geometric routines on raw coordinates. They perform exactly the same arithmetic as their
+ * counterparts built on {@link org.apache.commons.math3.geometry.euclidean.threed.Vector3D}, so the
+ * results are identical, but no intermediate vectors are created.
+ */
+public final class Geometry {
+  private static final double NEARLY_PARALLEL = 0.9999;
+
+  private Geometry() {
+    super();
+  }
+
+  /**
+   * Calculates the euclidean distance between points A and B.
+   *
+   * @param ax The x coordinate of point A.
+   * @param ay The y coordinate of point A.
+   * @param az The z coordinate of point A.
+   * @param bx The x coordinate of point B.
+   * @param by The y coordinate of point B.
+   * @param bz The z coordinate of point B.
+   * @return The distance between A and B.
+   */
+  public static double distance(
+      final double ax,
+      final double ay,
+      final double az,
+      final double bx,
+      final double by,
+      final double bz) {
+    final double dx = bx - ax;
+    final double dy = by - ay;
+    final double dz = bz - az;
+    return FastMath.sqrt(dx * dx + dy * dy + dz * dz);
+  }
+
+  /**
+   * Calculates the dot product of vectors U and V.
+   *
+   * @param ux The x component of vector U.
+   * @param uy The y component of vector U.
+   * @param uz The z component of vector U.
+   * @param vx The x component of vector V.
+   * @param vy The y component of vector V.
+   * @param vz The z component of vector V.
+   * @return The dot product of U and V.
+   */
+  public static double dotProduct(
+      final double ux,
+      final double uy,
+      final double uz,
+      final double vx,
+      final double vy,
+      final double vz) {
+    return MathArrays.linearCombination(ux, vx, uy, vy, uz, vz);
+  }
+
+  /**
+   * Calculates angle ABC in radians, in range [0, pi].
+   *
+   * @param ax The x coordinate of point A.
+   * @param ay The y coordinate of point A.
+   * @param az The z coordinate of point A.
+   * @param bx The x coordinate of point B.
+   * @param by The y coordinate of point B.
+   * @param bz The z coordinate of point B.
+   * @param cx The x coordinate of point C.
+   * @param cy The y coordinate of point C.
+   * @param cz The z coordinate of point C.
+   * @return The angle between vectors BA and BC.
+   * @throws MathArithmeticException If A or C is the same point as B.
+   */
+  public static double angle(
+      final double ax,
+      final double ay,
+      final double az,
+      final double bx,
+      final double by,
+      final double bz,
+      final double cx,
+      final double cy,
+      final double cz) {
+    final double ux = bx - ax;
+    final double uy = by - ay;
+    final double uz = bz - az;
+    final double vx = bx - cx;
+    final double vy = by - cy;
+    final double vz = bz - cz;
+
+    final double normProduct = Geometry.norm(ux, uy, uz) * Geometry.norm(vx, vy, vz);
+    if (normProduct == 0.0) {
+      throw new MathArithmeticException(LocalizedFormats.ZERO_NORM);
+    }
+
+    final double dot = Geometry.dotProduct(ux, uy, uz, vx, vy, vz);
+    final double threshold = normProduct * Geometry.NEARLY_PARALLEL;
+    if ((dot < -threshold) || (dot > threshold)) {
+      // acos is inaccurate for nearly parallel vectors, so the norm of cross product is used
+      final double crossNorm =
+          Geometry.norm(
+              MathArrays.linearCombination(uy, vz, -uz, vy),
+              MathArrays.linearCombination(uz, vx, -ux, vz),
+              MathArrays.linearCombination(ux, vy, -uy, vx));
+      final double asin = FastMath.asin(crossNorm / normProduct);
+      return (dot >= 0.0) ? asin : (FastMath.PI - asin);
+    }
+    return FastMath.acos(dot / normProduct);
+  }
+
+  /**
+   * Calculates torsion angle given four points. Uses atan2 method.
+   *
+   * @param ax The x coordinate of point A.
+   * @param ay The y coordinate of point A.
+   * @param az The z coordinate of point A.
+   * @param bx The x coordinate of point B.
+   * @param by The y coordinate of point B.
+   * @param bz The z coordinate of point B.
+   * @param cx The x coordinate of point C.
+   * @param cy The y coordinate of point C.
+   * @param cz The z coordinate of point C.
+   * @param dx The x coordinate of point D.
+   * @param dy The y coordinate of point D.
+   * @param dz The z coordinate of point D.
+   * @return A torsion angle in radians, in range [-pi, pi] (rotation around vector B-C).
+   */
+  public static double torsionAngle(
+      final double ax,
+      final double ay,
+      final double az,
+      final double bx,
+      final double by,
+      final double bz,
+      final double cx,
+      final double cy,
+      final double cz,
+      final double dx,
+      final double dy,
+      final double dz) {
+    return Geometry.torsionAngle(
+        bx - ax, by - ay, bz - az, cx - bx, cy - by, cz - bz, dx - cx, dy - cy, dz - cz);
+  }
+
+  /**
+   * Calculates torsion angle given three vectors. Uses atan2 method.
+   *
+   * @param x1 The x component of the first vector.
+   * @param y1 The y component of the first vector.
+   * @param z1 The z component of the first vector.
+   * @param x2 The x component of the second vector.
+   * @param y2 The y component of the second vector.
+   * @param z2 The z component of the second vector.
+   * @param x3 The x component of the third vector.
+   * @param y3 The y component of the third vector.
+   * @param z3 The z component of the third vector.
+   * @return A torsion angle in radians, in range [-pi, pi] (rotation around the second vector).
+   */
+  public static double torsionAngle(
+      final double x1,
+      final double y1,
+      final double z1,
+      final double x2,
+      final double y2,
+      final double z2,
+      final double x3,
+      final double y3,
+      final double z3) {
+    // first = v1 x v2
+    final double firstX = MathArrays.linearCombination(y1, z2, -z1, y2);
+    final double firstY = MathArrays.linearCombination(z1, x2, -x1, z2);
+    final double firstZ = MathArrays.linearCombination(x1, y2, -y1, x2);
+    // second = v2 x v3
+    final double secondX = MathArrays.linearCombination(y2, z3, -z2, y3);
+    final double secondY = MathArrays.linearCombination(z2, x3, -x2, z3);
+    final double secondZ = MathArrays.linearCombination(x2, y3, -y2, x3);
+    // v1 scaled by |v2|
+    final double norm2 = Geometry.norm(x2, y2, z2);
+
+    return FastMath.atan2(
+        Geometry.dotProduct(x1 * norm2, y1 * norm2, z1 * norm2, secondX, secondY, secondZ),
+        Geometry.dotProduct(firstX, firstY, firstZ, secondX, secondY, secondZ));
+  }
+
+  private static double norm(final double x, final double y, final double z) {
+    return FastMath.sqrt(x * x + y * y + z * z);
+  }
+}
@@ -0,0 +1,348 @@
+package pl.poznan.put.pdb;
+
+import java.util.Locale;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Decoding and encoding of fixed-width columns in PDB records. All methods work directly on
+ * characters of the line, so parsing a record does not create temporary substrings. Whenever a
+ * column contains anything more unusual than an optionally signed decimal number, the methods fall
+ * back to {@link Integer#parseInt(String)} and {@link Double#parseDouble(String)}, so the results
+ * (and thrown exceptions) are exactly the same as with the standard library. Likewise, encoding
+ * produces exactly the same text as {@link String#format(Locale, String, Object...)}.
+ */
+final class FixedColumns {
+  private static final int ASCII_SIZE = 128;
+  private static final String[] SINGLE_CHARACTERS = new String[FixedColumns.ASCII_SIZE];
+  private static final Optional<String>[] OPTIONAL_SINGLE_CHARACTERS =
+      FixedColumns.createOptionals();
+
+  private static final int TEXT_CACHE_SIZE = 4096;
+  private static final String[] TEXT_CACHE = new String[FixedColumns.TEXT_CACHE_SIZE];
+
+  // 10^15 < 2^53, so mantissas up to 15 digits are exact as double
+  private static final int MAX_DOUBLE_DIGITS = 15;
+  private static final int MAX_INT_DIGITS = 9;
+  private static final double[] POWERS_OF_TEN = {
+    1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8, 1.0e9, 1.0e10, 1.0e11, 1.0e12,
+    1.0e13, 1.0e14, 1.0e15
+  };
+
+  // Formatter rounds half-up the shortest decimal representation of a double, not its exact binary
+  // value, so numbers that close to a tie are left to the Formatter itself
+  private static final double MAX_FAST_SCALED = 1.0e9;
+  private static final double TIE_TOLERANCE = 1.0e-6;
+
+  private FixedColumns() {
+    super();
+  }
+
+  /**
+   * Parses an integer stored in columns [begin, end) of the line. Equivalent to {@code
+   * Integer.parseInt(line.substring(begin, end).trim())}.
+   *
+   * @param line The line of text.
+   * @param begin The first column (inclusive, 0-based).
+   * @param end The last column (exclusive, 0-based).
+   * @return The parsed integer.
+   */
+  static int parseInt(final CharSequence line, final int begin, final int end) {
+    final int trimmedBegin = FixedColumns.trimBegin(line, begin, end);
+    final int trimmedEnd = FixedColumns.trimEnd(line, trimmedBegin, end);
+
+    int i = trimmedBegin;
+    boolean negative = false;
+    if (i < trimmedEnd && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+      negative = line.charAt(i) == '-';
+      i += 1;
+    }
+
+    if (i == trimmedEnd || trimmedEnd - i > FixedColumns.MAX_INT_DIGITS) {
+      return FixedColumns.parseIntFallback(line, begin, end);
+    }
+
+    int value = 0;
+    for (; i < trimmedEnd; i++) {
+      final char c = line.charAt(i);
+      if (c < '0' || c > '9') {
+        return FixedColumns.parseIntFallback(line, begin, end);
+      }
+      value = value * 10 + (c - '0');
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses a real number stored in columns [begin, end) of the line. Equivalent to {@code
+   * Double.parseDouble(line.substring(begin, end).trim())}. A fixed-point number with at most 15
+   * digits is converted by a single division of two exactly representable values, which is
+   * correctly rounded just like the result of {@link Double#parseDouble(String)}.
+   *
+   * @param line The line of text.
+   * @param begin The first column (inclusive, 0-based).
+   * @param end The last column (exclusive, 0-based).
+   * @return The parsed real number.
+   */
+  static double parseDouble(final CharSequence line, final int begin, final int end) {
+    final int trimmedBegin = FixedColumns.trimBegin(line, begin, end);
+    final int trimmedEnd = FixedColumns.trimEnd(line, trimmedBegin, end);
+
+    int i = trimmedBegin;
+    boolean negative = false;
+    if (i < trimmedEnd && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+      negative = line.charAt(i) == '-';
+      i += 1;
+    }
+
+    long mantissa = 0L;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean hasDot = false;
+
+    for (; i < trimmedEnd; i++) {
+      final char c = line.charAt(i);
+      if (c == '.' && !hasDot) {
+        hasDot = true;
+      } else if (c >= '0' && c <= '9' && digits < FixedColumns.MAX_DOUBLE_DIGITS) {
+        mantissa = mantissa * 10L + (c - '0');
+        digits += 1;
+        fractionDigits += hasDot ? 1 : 0;
+      } else {
+        return FixedColumns.parseDoubleFallback(line, begin, end);
+      }
+    }
+
+    if (digits == 0) {
+      return FixedColumns.parseDoubleFallback(line, begin, end);
+    }
+
+    final double value = mantissa / FixedColumns.POWERS_OF_TEN[fractionDigits];
+    return negative ? -value : value;
+  }
+
+  /**
+   * Checks if columns [begin, end) contain only whitespace. Equivalent to {@code
+   * StringUtils.isBlank(line.substring(begin, end))}.
+   *
+   * @param line The line of text.
+   * @param begin The first column (inclusive, 0-based).
+   * @param end The last column (exclusive, 0-based).
+   * @return True if there is only whitespace in the given columns.
+   */
+  static boolean isBlank(final CharSequence line, final int begin, final int end) {
+    for (int i = begin; i < end; i++) {
+      if (!Character.isWhitespace(line.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets a trimmed text from columns [begin, end). Equivalent to {@code line.substring(begin,
+   * end).trim()}, but short strings which repeat often (atom names, residue names, element symbols)
+   * are served from a cache instead of being allocated again and again.
+   *
+   * @param line The line of text.
+   * @param begin The first column (inclusive, 0-based).
+   * @param end The last column (exclusive, 0-based).
+   * @return The trimmed text.
+   */
+  static String text(final CharSequence line, final int begin, final int end) {
+    final int trimmedBegin = FixedColumns.trimBegin(line, begin, end);
+    final int trimmedEnd = FixedColumns.trimEnd(line, trimmedBegin, end);
+
+    if (trimmedBegin == trimmedEnd) {
+      return "";
+    }
+    if (trimmedEnd - trimmedBegin == 1) {
+      return FixedColumns.character(line.charAt(trimmedBegin));
+    }
+
+    int hash = 0;
+    for (int i = trimmedBegin; i < trimmedEnd; i++) {
+      hash = 31 * hash + line.charAt(i);
+    }
+    final int slot = (hash ^ (hash >>> 16)) & (FixedColumns.TEXT_CACHE_SIZE - 1);
+
+    // the cache is racy by design: String is immutable, so the worst case is a cache miss
+    final String cached = FixedColumns.TEXT_CACHE[slot];
+    if (cached != null && FixedColumns.contentEquals(cached, line, trimmedBegin, trimmedEnd)) {
+      return cached;
+    }
+
+    final String text = line.subSequence(trimmedBegin, trimmedEnd).toString();
+    FixedColumns.TEXT_CACHE[slot] = text;
+    return text;
+  }
+
+  /**
+   * @param c A character.
+   * @return A single-character string (shared instance for ASCII characters).
+   */
+  static String character(final char c) {
+    return (c < FixedColumns.ASCII_SIZE)
+        ? FixedColumns.SINGLE_CHARACTERS[c]
+        : Character.toString(c);
+  }
+
+  /**
+   * @param c A character.
+   * @return An empty optional for a space, otherwise an optional with a single-character string.
+   */
+  static Optional<String> optionalCharacter(final char c) {
+    if (c == ' ') {
+      return Optional.empty();
+    }
+    return (c < FixedColumns.ASCII_SIZE)
+        ? FixedColumns.OPTIONAL_SINGLE_CHARACTERS[c]
+        : Optional.of(Character.toString(c));
+  }
+
+  /**
+   * Appends an integer right-aligned to the given width. Equivalent to {@code %<width>d} in {@link
+   * String#format(Locale, String, Object...)}.
+   *
+   * @param builder The output.
+   * @param value The integer.
+   * @param width The minimum number of characters.
+   */
+  static void appendInt(final StringBuilder builder, final int value, final int width) {
+    final int length = FixedColumns.intLength(value);
+    FixedColumns.appendSpaces(builder, width - length);
+    builder.append(value);
+  }
+
+  /**
+   * Appends a text aligned to the given width. Equivalent to {@code %<width>s} (right-aligned) or
+   * {@code %-<width>s} (left-aligned) in {@link String#format(Locale, String, Object...)}.
+   *
+   * @param builder The output.
+   * @param text The text.
+   * @param width The minimum number of characters.
+   * @param leftAligned If true, the padding goes after the text.
+   */
+  static void appendText(
+      final StringBuilder builder, final String text, final int width, final boolean leftAligned) {
+    if (leftAligned) {
+      builder.append(text);
+      FixedColumns.appendSpaces(builder, width - text.length());
+    } else {
+      FixedColumns.appendSpaces(builder, width - text.length());
+      builder.append(text);
+    }
+  }
+
+  /**
+   * Appends a real number right-aligned to the given width with a fixed number of decimal places.
+   * Equivalent to {@code %<width>.<decimalPlaces>f} in {@link String#format(Locale, String,
+   * Object...)} with {@link Locale#US}.
+   *
+   * @param builder The output.
+   * @param value The real number.
+   * @param width The minimum number of characters.
+   * @param decimalPlaces The number of digits after the decimal point (at most 9).
+   */
+  static void appendReal(
+      final StringBuilder builder, final double value, final int width, final int decimalPlaces) {
+    final double scaled = Math.abs(value) * FixedColumns.POWERS_OF_TEN[decimalPlaces];
+    final double floor = Math.floor(scaled);
+    final double fraction = scaled - floor;
+
+    if (!(scaled < FixedColumns.MAX_FAST_SCALED)
+        || Math.abs(fraction - 0.5) < FixedColumns.TIE_TOLERANCE) {
+      final String format = "%" + width + '.' + decimalPlaces + 'f';
+      builder.append(String.format(Locale.US, format, value));
+      return;
+    }
+
+    final long rounded = (long) floor + ((fraction > 0.5) ? 1L : 0L);
+    final long divisor = (long) FixedColumns.POWERS_OF_TEN[decimalPlaces];
+    final long integerPart = rounded / divisor;
+    final long fractionPart = rounded % divisor;
+    // the sign comes from the value, so -0.0 and small negative numbers print as -0.000
+    final boolean negative = Double.doubleToRawLongBits(value) < 0L;
+
+    final int fractionLength = (decimalPlaces > 0) ? (decimalPlaces + 1) : 0;
+    final int length =
+        (negative ? 1 : 0) + FixedColumns.intLength((int) integerPart) + fractionLength;
+    FixedColumns.appendSpaces(builder, width - length);
+    if (negative) {
+      builder.append('-');
+    }
+    builder.append(integerPart);
+    if (decimalPlaces > 0) {
+      builder.append('.');
+      for (int i = FixedColumns.intLength((int) fractionPart); i < decimalPlaces; i++) {
+        builder.append('0');
+      }
+      builder.append(fractionPart);
+    }
+  }
+
+  private static void appendSpaces(final StringBuilder builder, final int count) {
+    for (int i = 0; i < count; i++) {
+      builder.append(' ');
+    }
+  }
+
+  private static int intLength(final int value) {
+    if (value == Integer.MIN_VALUE) {
+      return 11;
+    }
+    int length = (value < 0) ? 2 : 1;
+    for (int remaining = Math.abs(value); remaining >= 10; remaining /= 10) {
+      length += 1;
+    }
+    return length;
+  }
+
+  private static int trimBegin(final CharSequence line, final int begin, final int end) {
+    int i = begin;
+    while (i < end && line.charAt(i) <= ' ') {
+      i += 1;
+    }
+    return i;
+  }
+
+  private static int trimEnd(final CharSequence line, final int begin, final int end) {
+    int i = end;
+    while (i > begin && line.charAt(i - 1) <= ' ') {
+      i -= 1;
+    }
+    return i;
+  }
+
+  private static boolean contentEquals(
+      final String text, final CharSequence line, final int begin, final int end) {
+    if (text.length() != end - begin) {
+      return false;
+    }
+    for (int i = begin; i < end; i++) {
+      if (text.charAt(i - begin) != line.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int parseIntFallback(final CharSequence line, final int begin, final int end) {
+    return Integer.parseInt(StringUtils.trim(line.subSequence(begin, end).toString()));
+  }
+
+  private static double parseDoubleFallback(
+      final CharSequence line, final int begin, final int end) {
+    return Double.parseDouble(StringUtils.trim(line.subSequence(begin, end).toString()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Optional<String>[] createOptionals() {
+    final Optional<String>[] optionals = new Optional[FixedColumns.ASCII_SIZE];
+    for (char c = 0; c < FixedColumns.ASCII_SIZE; c++) {
+      FixedColumns.SINGLE_CHARACTERS[c] = String.valueOf(c);
+      optionals[c] = Optional.of(FixedColumns.SINGLE_CHARACTERS[c]);
+    }
+    return optionals;
+  }
+}
@@ -2,15 +2,14 @@ package pl.poznan.put.pdb;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.circular.Geometry;
 import pl.poznan.put.pdb.analysis.ImmutableDefaultPdbResidue;
 import pl.poznan.put.pdb.analysis.ImmutableDefaultResidueCollection;
 import pl.poznan.put.pdb.analysis.ResidueCollection;
@@ -38,12 +37,9 @@ public abstract class PdbAtomLine implements ChainNumberICode {
      77 - 78        LString(2)    element      Element symbol, right-justified.
      79 - 80        LString(2)    charge       Charge  on the atom.
   */
-  private static final String FORMAT_ATOM_4_CHARACTER =
-      "ATOM  %5d %-4s%c%3s %c%4d%c   %8.3f%8.3f%8.3f%6.2f%6.2f          %2s%2s";
-  private static final String FORMAT =
-      "ATOM  %5d  %-3s%c%3s %c%4d%c   %8.3f%8.3f%8.3f%6.2f%6.2f          %2s%2s";
   // @formatter:on
   private static final String RECORD_NAME = "ATOM";
+  private static final int LINE_LENGTH = 80;
   private static final Logger LOGGER = LoggerFactory.getLogger(PdbAtomLine.class);
 
   /**
@@ -73,43 +69,44 @@ public abstract class PdbAtomLine implements ChainNumberICode {
     }
 
     try {
-      final String recordName = line.substring(0, 6).trim();
+      final String recordName = FixedColumns.text(line, 0, 6);
 
       if (!Objects.equals(PdbAtomLine.RECORD_NAME, recordName)
           && !Objects.equals("HETATM", recordName)) {
         throw new PdbParsingException("PDB line does not start with ATOM or HETATM");
       }
 
-      final int serialNumber = Integer.parseInt(line.substring(6, 11).trim());
-      final String atomName = line.substring(12, 16).trim();
-      final String alternateLocation = Character.toString(line.charAt(16));
-      final String residueName = line.substring(17, 20).trim();
-      final String chainIdentifier = Character.toString(line.charAt(21));
-      final int residueNumber = Integer.parseInt(line.substring(22, 26).trim());
-      final String insertionCode = Character.toString(line.charAt(26));
-      final double x = Double.parseDouble(line.substring(30, 38).trim());
-      final double y = Double.parseDouble(line.substring(38, 46).trim());
-      final double z = Double.parseDouble(line.substring(46, 54).trim());
+      // columns are decoded in place, without creating substrings
+      final int serialNumber = FixedColumns.parseInt(line, 6, 11);
+      final String atomName = FixedColumns.text(line, 12, 16);
+      final Optional<String> alternateLocation = FixedColumns.optionalCharacter(line.charAt(16));
+      final String residueName = FixedColumns.text(line, 17, 20);
+      final String chainIdentifier = FixedColumns.character(line.charAt(21));
+      final int residueNumber = FixedColumns.parseInt(line, 22, 26);
+      final Optional<String> insertionCode = FixedColumns.optionalCharacter(line.charAt(26));
+      final double x = FixedColumns.parseDouble(line, 30, 38);
+      final double y = FixedColumns.parseDouble(line, 38, 46);
+      final double z = FixedColumns.parseDouble(line, 46, 54);
 
       final double occupancy =
-          ((line.length() >= 60) && StringUtils.isNotBlank(line.substring(54, 60)))
-              ? Double.parseDouble(line.substring(54, 60).trim())
+          ((line.length() >= 60) && !FixedColumns.isBlank(line, 54, 60))
+              ? FixedColumns.parseDouble(line, 54, 60)
               : 0;
       final double temperatureFactor =
-          ((line.length() >= 66) && StringUtils.isNotBlank(line.substring(60, 66)))
-              ? Double.parseDouble(line.substring(60, 66).trim())
+          ((line.length() >= 66) && !FixedColumns.isBlank(line, 60, 66))
+              ? FixedColumns.parseDouble(line, 60, 66)
               : 0;
-      final String elementSymbol = (line.length() >= 78) ? line.substring(76, 78).trim() : "";
-      final String charge = (line.length() >= 80) ? line.substring(78, 80).trim() : "";
+      final String elementSymbol = (line.length() >= 78) ? FixedColumns.text(line, 76, 78) : "";
+      final String charge = (line.length() >= 80) ? FixedColumns.text(line, 78, 80) : "";
 
       return ImmutablePdbAtomLine.of(
           serialNumber,
           atomName,
-          " ".equals(alternateLocation) ? Optional.empty() : Optional.of(alternateLocation),
+          alternateLocation,
           residueName,
           chainIdentifier,
           residueNumber,
-          " ".equals(insertionCode) ? Optional.empty() : Optional.of(insertionCode),
+          insertionCode,
           x,
           y,
           z,
@@ -234,7 +231,7 @@ public abstract class PdbAtomLine implements ChainNumberICode {
    * @return Euclidean distance in 3D between two atoms.
    */
   public final double distanceTo(final PdbAtomLine other) {
-    return toVector3D().distance(other.toVector3D());
+    return Geometry.distance(x(), y(), z(), other.x(), other.y(), other.z());
   }
 
   /**
@@ -243,6 +240,17 @@ public abstract class PdbAtomLine implements ChainNumberICode {
    * @return A string representation of the ATOM line in PDB format.
    */
   public final String toPdb() {
+    return appendPdb(new StringBuilder(PdbAtomLine.LINE_LENGTH)).toString();
+  }
+
+  /**
+   * Appends an ATOM line in PDB format (without a trailing newline). The text is the same as in
+   * {@link #toPdb()}, but no intermediate strings are created.
+   *
+   * @param builder The output.
+   * @return The same builder, for chaining.
+   */
+  public final StringBuilder appendPdb(final StringBuilder builder) {
     if (alternateLocation().orElse(" ").length() != 1) {
       PdbAtomLine.LOGGER.error(
           "Field 'alternateLocation' is longer than 1 char. Only first letter will be taken");
@@ -256,25 +264,31 @@ public abstract class PdbAtomLine implements ChainNumberICode {
           "Field 'insertionCode' is longer than 1 char. Only first letter will be taken");
     }
 
-    final String format =
-        (atomName().length() == 4) ? PdbAtomLine.FORMAT_ATOM_4_CHARACTER : PdbAtomLine.FORMAT;
-    return String.format(
-        Locale.US,
-        format,
-        serialNumber(),
-        atomName(),
-        alternateLocation().orElse(" ").charAt(0),
-        residueName(),
-        chainIdentifier().charAt(0),
-        residueNumber(),
-        insertionCode().orElse(" ").charAt(0),
-        x(),
-        y(),
-        z(),
-        occupancy(),
-        temperatureFactor(),
-        elementSymbol(),
-        charge());
+    // columns as in the table above, but 4-character atom names start one column earlier
+    final String atomName = atomName();
+    builder.append("ATOM  ");
+    FixedColumns.appendInt(builder, serialNumber(), 5);
+    if (atomName.length() == 4) {
+      builder.append(' ');
+      FixedColumns.appendText(builder, atomName, 4, true);
+    } else {
+      builder.append("  ");
+      FixedColumns.appendText(builder, atomName, 3, true);
+    }
+    builder.append(alternateLocation().orElse(" ").charAt(0));
+    FixedColumns.appendText(builder, residueName(), 3, false);
+    builder.append(' ').append(chainIdentifier().charAt(0));
+    FixedColumns.appendInt(builder, residueNumber(), 4);
+    builder.append(insertionCode().orElse(" ").charAt(0)).append("   ");
+    FixedColumns.appendReal(builder, x(), 8, 3);
+    FixedColumns.appendReal(builder, y(), 8, 3);
+    FixedColumns.appendReal(builder, z(), 8, 3);
+    FixedColumns.appendReal(builder, occupancy(), 6, 2);
+    FixedColumns.appendReal(builder, temperatureFactor(), 6, 2);
+    builder.append("          ");
+    FixedColumns.appendText(builder, elementSymbol(), 2, false);
+    FixedColumns.appendText(builder, charge(), 2, false);
+    return builder;
   }
 
   /**
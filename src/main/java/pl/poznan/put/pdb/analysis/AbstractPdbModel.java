@@ -6,8 +6,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import pl.poznan.put.pdb.ChainNumberICode;
 import pl.poznan.put.pdb.PdbAtomLine;
 import pl.poznan.put.pdb.PdbRemark465Line;
 import pl.poznan.put.pdb.PdbResidueIdentifier;
@@ -21,53 +21,75 @@ public abstract class AbstractPdbModel implements PdbModel {
    */
   @Override
   public List<PdbChain> chains() {
-    final List<PdbResidue> residues = residues();
-    final List<PdbChain> chains = new ArrayList<>();
+    return groupChains(residues());
+  }
 
-    List<PdbResidue> group = new ArrayList<>();
+  /**
+   * Groups together residues in the same chain (see {@link #chains()}).
+   *
+   * @param residues A list of residues of this structure.
+   * @return A list of chains, which together hold all the residues in the same order.
+   */
+  final List<PdbChain> groupChains(final List<PdbResidue> residues) {
+    final int[] chainBegins = chainBegins(residues);
+    final List<PdbChain> chains = new ArrayList<>(chainBegins.length - 1);
+    for (int i = 0; i < chainBegins.length - 1; i++) {
+      final List<PdbResidue> chainResidues = residues.subList(chainBegins[i], chainBegins[i + 1]);
+      chains.add(ImmutablePdbChain.of(chainResidues.get(0).chainIdentifier(), chainResidues));
+    }
+    return chains;
+  }
 
-    for (int i = 0, size = residues.size(); i < size; i++) {
+  /**
+   * Finds where each chain begins in a list of residues (see {@link #chains()}). Only two adjacent
+   * residues are needed at any time, so the list may create its elements on access.
+   *
+   * @param residues A list of residues of this structure.
+   * @return Indices of the first residue of each chain, followed by the size of the list.
+   */
+  final int[] chainBegins(final List<PdbResidue> residues) {
+    final int size = residues.size();
+    final boolean[] isMissing = new boolean[size];
+    final boolean[] isTerminated = new boolean[size];
+    final List<Integer> groupBegins = new ArrayList<>();
+
+    PdbResidue previous = null;
+    for (int i = 0; i < size; i++) {
       final PdbResidue current = residues.get(i);
+      isMissing[i] = current.isMissing();
+      isTerminated[i] = chainTerminatedAfter().contains(PdbResidueIdentifier.from(current));
 
-      if (group.isEmpty()) {
-        group.add(current);
-        continue;
+      if ((previous == null) || AbstractPdbModel.isNewChain(previous, current)) {
+        groupBegins.add(i);
       }
-
-      final PdbResidue previous = group.get(group.size() - 1);
-
-      // check if two residues are of a different molecule type
-      boolean isNewChain =
-          previous.residueInformationProvider().moleculeType()
-              != current.residueInformationProvider().moleculeType();
-
-      // check if they have a different chain name
-      isNewChain = isNewChain || !previous.chainIdentifier().equals(current.chainIdentifier());
-
-      if (previous.isMissing() || current.isMissing()) {
-        // if either residue is missing, check only their relative residue numbers
-        isNewChain =
-            isNewChain
-                || ((current.residueNumber() - previous.residueNumber() != 1)
-                    && !previous.insertionCode().equals(current.insertionCode()));
-      } else {
-        // otherwise, check the distance between connecting atoms
-        isNewChain = isNewChain || !previous.isConnectedTo(current);
-      }
-
-      if (isNewChain) {
-        chains.addAll(residueGroupToChains(group));
-        group = new ArrayList<>();
-      }
-
-      group.add(current);
+      previous = current;
     }
-
-    if (!group.isEmpty()) {
-      chains.addAll(residueGroupToChains(group));
+    groupBegins.add(size);
+
+    // split groups of residues after each TER line
+    final List<Integer> chainBegins = new ArrayList<>();
+    for (int i = 0; i < groupBegins.size() - 1; i++) {
+      final int groupEnd = groupBegins.get(i + 1);
+      int begin = groupBegins.get(i);
+      chainBegins.add(begin);
+
+      for (int j = begin; j < groupEnd; j++) {
+        if (isTerminated[j]) {
+          // move `end` past all missing residues after TER line
+          int end = j + 1;
+          for (; end < groupEnd && isMissing[end]; end++)
+            ;
+          if (end < groupEnd) {
+            chainBegins.add(end);
+          }
+          begin = end;
+          j = end - 1;
+        }
+      }
     }
+    chainBegins.add(size);
 
-    return chains;
+    return chainBegins.stream().mapToInt(Integer::intValue).toArray();
   }
 
   /**
@@ -124,45 +146,71 @@ public abstract class AbstractPdbModel implements PdbModel {
         .collect(Collectors.toList());
   }
 
-  private PdbResidue atomGroupToResidue(final List<PdbAtomLine> residueAtoms) {
+  @Override
+  public boolean hasResidue(final ChainNumberICode query) {
+    return residueIndex().contains(query);
+  }
+
+  @Override
+  public PdbResidue findResidue(final ChainNumberICode query) {
+    return residueIndex().find(query);
+  }
+
+  @Override
+  public int indexOf(final ChainNumberICode query) {
+    return residueIndex().indexOf(query);
+  }
+
+  /**
+   * Gets an index of residues by their identifiers. It is queried on every residue lookup, so
+   * implementations must build it once and memoize it together with {@link #residues()}.
+   *
+   * @return An index of residues in the structure.
+   */
+  abstract ResidueIndex residueIndex();
+
+  /**
+   * @param residueAtoms Atoms of a single residue.
+   * @return A residue built of the atoms, named according to MODRES records of this structure.
+   */
+  final PdbResidue atomGroupToResidue(final List<PdbAtomLine> residueAtoms) {
     final PdbResidueIdentifier residueIdentifier = PdbResidueIdentifier.from(residueAtoms.get(0));
-    final boolean isModified = isModified(residueIdentifier);
     final String residueName = residueAtoms.get(0).residueName();
-    final String modifiedResidueName =
-        isModified ? modificationDetails(residueIdentifier).standardResidueName() : residueName;
     return ImmutableDefaultPdbResidue.of(
-        residueIdentifier, residueName, modifiedResidueName, residueAtoms);
+        residueIdentifier,
+        residueName,
+        modifiedResidueName(residueIdentifier, residueName),
+        residueAtoms);
   }
 
-  private List<PdbChain> residueGroupToChains(final List<PdbResidue> residueGroup) {
-    final List<PdbChain> chains = new ArrayList<>();
-    final List<Integer> branchingPoints =
-        IntStream.range(0, residueGroup.size())
-            .filter(
-                i ->
-                    chainTerminatedAfter().contains(PdbResidueIdentifier.from(residueGroup.get(i))))
-            .boxed()
-            .collect(Collectors.toList());
+  /**
+   * @param residueIdentifier An identifier of a residue.
+   * @param residueName The name of the residue from its atoms.
+   * @return The standard name according to MODRES records, if the residue is modified, or its name.
+   */
+  final String modifiedResidueName(
+      final PdbResidueIdentifier residueIdentifier, final String residueName) {
+    return isModified(residueIdentifier)
+        ? modificationDetails(residueIdentifier).standardResidueName()
+        : residueName;
+  }
 
-    int begin = 0;
-    for (final int branchingPoint : branchingPoints) {
-      // move `end` past all missing residues after TER line
-      int end = branchingPoint + 1;
-      for (; end < residueGroup.size() && residueGroup.get(end).isMissing(); end++)
-        ;
-      chains.add(
-          ImmutablePdbChain.of(
-              residueGroup.get(0).chainIdentifier(), residueGroup.subList(begin, end)));
-      begin = end;
-    }
+  private static boolean isNewChain(final PdbResidue previous, final PdbResidue current) {
+    // check if two residues are of a different molecule type
+    boolean isNewChain =
+        previous.residueInformationProvider().moleculeType()
+            != current.residueInformationProvider().moleculeType();
 
-    if (begin < residueGroup.size()) {
-      chains.add(
-          ImmutablePdbChain.of(
-              residueGroup.get(0).chainIdentifier(),
-              residueGroup.subList(begin, residueGroup.size())));
-    }
+    // check if they have a different chain name
+    isNewChain = isNewChain || !previous.chainIdentifier().equals(current.chainIdentifier());
 
-    return chains;
+    if (previous.isMissing() || current.isMissing()) {
+      // if either residue is missing, check only their relative residue numbers
+      return isNewChain
+          || ((current.residueNumber() - previous.residueNumber() != 1)
+              && !previous.insertionCode().equals(current.insertionCode()));
+    }
+    // otherwise, check the distance between connecting atoms
+    return isNewChain || !previous.isConnectedTo(current);
   }
 }
@@ -0,0 +1,436 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import pl.poznan.put.pdb.PdbAtomLine;
+
+/**
+ * A spatial index of atoms in a collection of residues, which answers neighbour queries without
+ * comparing all atoms with each other. Atoms are put in a uniform grid of cubic cells and only
+ * cells overlapping a query are visited. Coordinates are kept in primitive arrays, so queries do
+ * not allocate an object per visited atom.
+ *
+ * <p>Atoms are addressed by their indices in this index (from 0 to {@link #size()} - 1), which
+ * follow the order of residues and atoms in the source collection.
+ */
+public final class AtomSpatialIndex {
+  private static final double DEFAULT_CELL_SIZE = 4.0;
+  private static final int[] NO_ATOMS = new int[0];
+
+  private final List<PdbResidue> residues;
+  private final PdbAtomLine[] atoms;
+  private final int[] residueIndices;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] zs;
+  private final double cellSize;
+  private final Map<Long, int[]> cells = new HashMap<>();
+  private final int[] minCell = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+  private final int[] maxCell = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+
+  /**
+   * Creates an index of all atoms in the collection.
+   *
+   * @param residueCollection A collection of residues.
+   */
+  public AtomSpatialIndex(final ResidueCollection residueCollection) {
+    this(residueCollection, atom -> true, AtomSpatialIndex.DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Creates an index of selected atoms in the collection. The cell size should be close to the
+   * typical query radius (e.g. a bond or a hydrogen bond length).
+   *
+   * @param residueCollection A collection of residues.
+   * @param filter A predicate to select atoms to index.
+   * @param cellSize The length of a grid cell edge in Angstroms.
+   */
+  public AtomSpatialIndex(
+      final ResidueCollection residueCollection,
+      final Predicate<? super PdbAtomLine> filter,
+      final double cellSize) {
+    super();
+    if (!(cellSize > 0.0)) {
+      throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+    }
+
+    residues = residueCollection.residues();
+    this.cellSize = cellSize;
+
+    final List<PdbAtomLine> selected = new ArrayList<>();
+    final List<Integer> owners = new ArrayList<>();
+    for (int i = 0; i < residues.size(); i++) {
+      for (final PdbAtomLine atom : residues.get(i).atoms()) {
+        if (filter.test(atom)) {
+          selected.add(atom);
+          owners.add(i);
+        }
+      }
+    }
+
+    final int size = selected.size();
+    atoms = selected.toArray(new PdbAtomLine[0]);
+    residueIndices = owners.stream().mapToInt(Integer::intValue).toArray();
+    xs = new double[size];
+    ys = new double[size];
+    zs = new double[size];
+
+    final Map<Long, List<Integer>> grid = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      xs[i] = atoms[i].x();
+      ys[i] = atoms[i].y();
+      zs[i] = atoms[i].z();
+
+      final int cx = cell(xs[i]);
+      final int cy = cell(ys[i]);
+      final int cz = cell(zs[i]);
+      updateBounds(cx, cy, cz);
+      grid.computeIfAbsent(AtomSpatialIndex.key(cx, cy, cz), k -> new ArrayList<>()).add(i);
+    }
+    grid.forEach(
+        (key, indices) -> cells.put(key, indices.stream().mapToInt(Integer::intValue).toArray()));
+  }
+
+  /**
+   * @return The number of indexed atoms.
+   */
+  public int size() {
+    return atoms.length;
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The atom.
+   */
+  public PdbAtomLine atom(final int index) {
+    return atoms[index];
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The index of the atom's residue in the source collection.
+   */
+  public int residueIndex(final int index) {
+    return residueIndices[index];
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The residue to which the atom belongs.
+   */
+  public PdbResidue residue(final int index) {
+    return residues.get(residueIndices[index]);
+  }
+
+  /**
+   * Finds atoms within a given distance of a point.
+   *
+   * @param x The x coordinate of the point.
+   * @param y The y coordinate of the point.
+   * @param z The z coordinate of the point.
+   * @param radius The maximum distance (inclusive).
+   * @return Indices of atoms in ascending order.
+   */
+  public int[] within(final double x, final double y, final double z, final double radius) {
+    final Scratch scratch = new Scratch();
+    collectWithin(x, y, z, radius, 0, scratch);
+    final int[] result = Arrays.copyOf(scratch.indices, scratch.count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Finds atoms within a given distance of another atom (which is itself included if indexed).
+   *
+   * @param center The atom in the center of the query.
+   * @param radius The maximum distance (inclusive).
+   * @return A list of atoms in index order.
+   */
+  public List<PdbAtomLine> atomsWithin(final PdbAtomLine center, final double radius) {
+    return toAtoms(within(center.x(), center.y(), center.z(), radius));
+  }
+
+  /**
+   * Finds residues having any atom within a given distance of another atom.
+   *
+   * @param center The atom in the center of the query.
+   * @param radius The maximum distance (inclusive).
+   * @return A list of residues in the order of the source collection.
+   */
+  public List<PdbResidue> residuesWithin(final PdbAtomLine center, final double radius) {
+    final int[] found = within(center.x(), center.y(), center.z(), radius);
+    final List<PdbResidue> result = new ArrayList<>();
+    int previous = -1;
+    for (final int i : found) {
+      // atoms are ordered by residues, so duplicates are adjacent
+      if (residueIndices[i] != previous) {
+        previous = residueIndices[i];
+        result.add(residues.get(previous));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds k atoms nearest to a point. Ties are resolved in favour of lower indices.
+   *
+   * @param x The x coordinate of the point.
+   * @param y The y coordinate of the point.
+   * @param z The z coordinate of the point.
+   * @param k The number of atoms to find.
+   * @return Indices of at most k atoms ordered by increasing distance.
+   */
+  public int[] nearest(final double x, final double y, final double z, final int k) {
+    final int limit = Math.min(k, atoms.length);
+    if (limit <= 0) {
+      return AtomSpatialIndex.NO_ATOMS;
+    }
+
+    // a max-heap of the best candidates found so far
+    final int[] heap = new int[limit];
+    final double[] distances = new double[limit];
+    int count = 0;
+
+    final int cx = cell(x);
+    final int cy = cell(y);
+    final int cz = cell(z);
+    final int maxRing = maxRing(cx, cy, cz);
+
+    for (int ring = 0; ring <= maxRing; ring++) {
+      // only cells on the surface of the cube are new in this ring and cells outside the bounding
+      // box of all atoms are empty, so both are skipped
+      final int fromX = Math.max(cx - ring, minCell[0]);
+      final int fromY = Math.max(cy - ring, minCell[1]);
+      final int fromZ = Math.max(cz - ring, minCell[2]);
+      final int toX = Math.min(cx + ring, maxCell[0]);
+      final int toY = Math.min(cy + ring, maxCell[1]);
+      final int toZ = Math.min(cz + ring, maxCell[2]);
+
+      for (int x1 = fromX; x1 <= toX; x1++) {
+        for (int y1 = fromY; y1 <= toY; y1++) {
+          final boolean isOnSurface = (Math.abs(x1 - cx) == ring) || (Math.abs(y1 - cy) == ring);
+          // inside the surface in x and y, only the two faces in z are on the surface
+          final int step = isOnSurface ? 1 : 2 * ring;
+          for (int z1 = isOnSurface ? fromZ : cz - ring; z1 <= toZ; z1 += step) {
+            if (z1 < fromZ) {
+              continue;
+            }
+            for (final int i : cells.getOrDefault(AtomSpatialIndex.key(x1, y1, z1), NO_ATOMS)) {
+              final double distance = squaredDistance(i, x, y, z);
+              if (count < limit) {
+                heap[count] = i;
+                distances[count] = distance;
+                AtomSpatialIndex.siftUp(heap, distances, count);
+                count++;
+              } else if (AtomSpatialIndex.isBefore(distance, i, distances[0], heap[0])) {
+                heap[0] = i;
+                distances[0] = distance;
+                AtomSpatialIndex.siftDown(heap, distances, count);
+              }
+            }
+          }
+        }
+      }
+
+      // atoms in cells outside the searched cube are further than ring * cellSize
+      final double reach = ring * cellSize;
+      if (count == limit && distances[0] <= reach * reach) {
+        break;
+      }
+    }
+
+    final Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+        order,
+        Comparator.<Integer>comparingDouble(i -> distances[i]).thenComparingInt(i -> heap[i]));
+    return Arrays.stream(order).mapToInt(i -> heap[i]).toArray();
+  }
+
+  /**
+   * Finds k atoms nearest to another atom (which is itself included if indexed).
+   *
+   * @param center The atom in the center of the query.
+   * @param k The number of atoms to find.
+   * @return A list of at most k atoms ordered by increasing distance.
+   */
+  public List<PdbAtomLine> nearest(final PdbAtomLine center, final int k) {
+    return toAtoms(nearest(center.x(), center.y(), center.z(), k));
+  }
+
+  /**
+   * Visits every pair of indexed atoms within a given distance of each other. Each pair is visited
+   * once, with the lower index first. Pairs are visited in the order of the first, then the second
+   * index.
+   *
+   * @param cutoff The maximum distance (inclusive).
+   * @param consumer The receiver of pairs.
+   */
+  public void forEachPairWithin(final double cutoff, final PairConsumer consumer) {
+    // one buffer is reused for all atoms and holds only neighbours with higher indices
+    final Scratch scratch = new Scratch();
+    for (int i = 0; i < atoms.length; i++) {
+      scratch.count = 0;
+      collectWithin(xs[i], ys[i], zs[i], cutoff, i + 1, scratch);
+      Arrays.sort(scratch.indices, 0, scratch.count);
+      for (int k = 0; k < scratch.count; k++) {
+        final int j = scratch.indices[k];
+        consumer.accept(i, j, Math.sqrt(squaredDistance(j, xs[i], ys[i], zs[i])));
+      }
+    }
+  }
+
+  // appends (in no particular order) indices not lower than minIndex of atoms within the radius
+  private void collectWithin(
+      final double x,
+      final double y,
+      final double z,
+      final double radius,
+      final int minIndex,
+      final Scratch scratch) {
+    final double squaredRadius = radius * radius;
+
+    // cells outside the bounding box of all atoms are empty, so they are skipped
+    final int fromX = Math.max(cell(x - radius), minCell[0]);
+    final int fromY = Math.max(cell(y - radius), minCell[1]);
+    final int fromZ = Math.max(cell(z - radius), minCell[2]);
+    final int toX = Math.min(cell(x + radius), maxCell[0]);
+    final int toY = Math.min(cell(y + radius), maxCell[1]);
+    final int toZ = Math.min(cell(z + radius), maxCell[2]);
+
+    for (int cx = fromX; cx <= toX; cx++) {
+      for (int cy = fromY; cy <= toY; cy++) {
+        for (int cz = fromZ; cz <= toZ; cz++) {
+          for (final int i : cells.getOrDefault(AtomSpatialIndex.key(cx, cy, cz), NO_ATOMS)) {
+            if ((i >= minIndex) && (squaredDistance(i, x, y, z) <= squaredRadius)) {
+              scratch.add(i);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private List<PdbAtomLine> toAtoms(final int[] indices) {
+    final List<PdbAtomLine> result = new ArrayList<>(indices.length);
+    for (final int i : indices) {
+      result.add(atoms[i]);
+    }
+    return result;
+  }
+
+  private double squaredDistance(final int i, final double x, final double y, final double z) {
+    final double dx = xs[i] - x;
+    final double dy = ys[i] - y;
+    final double dz = zs[i] - z;
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private int cell(final double coordinate) {
+    return (int) Math.floor(coordinate / cellSize);
+  }
+
+  private void updateBounds(final int cx, final int cy, final int cz) {
+    minCell[0] = Math.min(minCell[0], cx);
+    minCell[1] = Math.min(minCell[1], cy);
+    minCell[2] = Math.min(minCell[2], cz);
+    maxCell[0] = Math.max(maxCell[0], cx);
+    maxCell[1] = Math.max(maxCell[1], cy);
+    maxCell[2] = Math.max(maxCell[2], cz);
+  }
+
+  // the ring of cells beyond which there are no atoms at all
+  private int maxRing(final int cx, final int cy, final int cz) {
+    return Math.max(
+        Math.max(Math.abs(cx - minCell[0]), Math.abs(cx - maxCell[0])),
+        Math.max(
+            Math.max(Math.abs(cy - minCell[1]), Math.abs(cy - maxCell[1])),
+            Math.max(Math.abs(cz - minCell[2]), Math.abs(cz - maxCell[2]))));
+  }
+
+  private static long key(final int cx, final int cy, final int cz) {
+    return ((cx & 0x1FFFFFL) << 42) | ((cy & 0x1FFFFFL) << 21) | (cz & 0x1FFFFFL);
+  }
+
+  private static boolean isBefore(
+      final double distance, final int index, final double otherDistance, final int otherIndex) {
+    return (distance < otherDistance) || (distance == otherDistance && index < otherIndex);
+  }
+
+  private static void siftUp(final int[] heap, final double[] distances, final int position) {
+    int child = position;
+    while (child > 0) {
+      final int parent = (child - 1) / 2;
+      if (!AtomSpatialIndex.isBefore(
+          distances[parent], heap[parent], distances[child], heap[child])) {
+        return;
+      }
+      AtomSpatialIndex.swap(heap, distances, parent, child);
+      child = parent;
+    }
+  }
+
+  private static void siftDown(final int[] heap, final double[] distances, final int size) {
+    int parent = 0;
+    while (true) {
+      int largest = parent;
+      final int left = 2 * parent + 1;
+      final int right = left + 1;
+      if (left < size
+          && AtomSpatialIndex.isBefore(
+              distances[largest], heap[largest], distances[left], heap[left])) {
+        largest = left;
+      }
+      if (right < size
+          && AtomSpatialIndex.isBefore(
+              distances[largest], heap[largest], distances[right], heap[right])) {
+        largest = right;
+      }
+      if (largest == parent) {
+        return;
+      }
+      AtomSpatialIndex.swap(heap, distances, parent, largest);
+      parent = largest;
+    }
+  }
+
+  private static void swap(final int[] heap, final double[] distances, final int i, final int j) {
+    final int index = heap[i];
+    heap[i] = heap[j];
+    heap[j] = index;
+    final double distance = distances[i];
+    distances[i] = distances[j];
+    distances[j] = distance;
+  }
+
+  // a growable buffer of atom indices
+  private static final class Scratch {
+    private int[] indices = new int[16];
+    private int count;
+
+    private void add(final int index) {
+      if (count == indices.length) {
+        indices = Arrays.copyOf(indices, count * 2);
+      }
+      indices[count++] = index;
+    }
+  }
+
+  /** A receiver of pairs of atoms found by {@link #forEachPairWithin(double, PairConsumer)}. */
+  @FunctionalInterface
+  public interface PairConsumer {
+    /**
+     * @param first The lower index of an atom.
+     * @param second The higher index of an atom.
+     * @param distance The distance between the atoms.
+     */
+    void accept(int first, int second, double distance);
+  }
+}
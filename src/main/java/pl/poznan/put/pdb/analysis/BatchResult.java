@@ -0,0 +1,42 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.List;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** An outcome of parsing a single file during batch loading (see {@link BatchStructureLoader}). */
+@Value.Immutable
+public abstract class BatchResult {
+  /**
+   * @return The name of the file (a path or an entry name in an archive).
+   */
+  @Value.Parameter(order = 1)
+  public abstract String name();
+
+  /**
+   * @return The list of parsed models (empty if parsing failed).
+   */
+  @Value.Parameter(order = 2)
+  public abstract List<PdbModel> models();
+
+  /**
+   * @return The exception which made parsing fail, if any.
+   */
+  @Value.Parameter(order = 3)
+  @Value.Auxiliary
+  public abstract Optional<Exception> error();
+
+  /**
+   * @return True if the file was parsed without errors.
+   */
+  public final boolean isSuccessful() {
+    return error().isEmpty();
+  }
+
+  /**
+   * @return The total number of atoms in all parsed models.
+   */
+  public final long atomCount() {
+    return models().stream().mapToLong(model -> model.atoms().size()).sum();
+  }
+}
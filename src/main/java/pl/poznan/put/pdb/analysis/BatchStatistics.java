@@ -0,0 +1,76 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.Locale;
+import org.immutables.value.Value;
+
+/** A snapshot of throughput of batch loading (see {@link BatchStructureLoader}). */
+@Value.Immutable
+public abstract class BatchStatistics {
+  private static final double NANOS_PER_SECOND = 1.0e9;
+
+  /**
+   * @return The number of files parsed successfully.
+   */
+  @Value.Parameter(order = 1)
+  public abstract long parsedFiles();
+
+  /**
+   * @return The number of files which failed to parse.
+   */
+  @Value.Parameter(order = 2)
+  public abstract long failedFiles();
+
+  /**
+   * @return The number of failures to list input files (e.g. an unreadable directory or a broken
+   *     archive). They are not counted as files and may hide any number of unprocessed files.
+   */
+  @Value.Parameter(order = 3)
+  public abstract long listingFailures();
+
+  /**
+   * @return The total number of atoms in all parsed models.
+   */
+  @Value.Parameter(order = 4)
+  public abstract long atoms();
+
+  /**
+   * @return The time elapsed since the start of batch loading in nanoseconds.
+   */
+  @Value.Parameter(order = 5)
+  public abstract long elapsedNanos();
+
+  /**
+   * @return The number of processed files (parsed or failed) per second.
+   */
+  public final double filesPerSecond() {
+    return BatchStatistics.perSecond(parsedFiles() + failedFiles(), elapsedNanos());
+  }
+
+  /**
+   * @return The number of parsed atoms per second.
+   */
+  public final double atomsPerSecond() {
+    return BatchStatistics.perSecond(atoms(), elapsedNanos());
+  }
+
+  @Override
+  public final String toString() {
+    final String summary =
+        String.format(
+            Locale.US,
+            "%d files (%d failed), %d atoms in %.3f s: %.1f files/s, %.1f atoms/s",
+            parsedFiles() + failedFiles(),
+            failedFiles(),
+            atoms(),
+            elapsedNanos() / BatchStatistics.NANOS_PER_SECOND,
+            filesPerSecond(),
+            atomsPerSecond());
+    return (listingFailures() == 0L)
+        ? summary
+        : String.format(Locale.US, "%s, %d listing failures", summary, listingFailures());
+  }
+
+  private static double perSecond(final long count, final long nanos) {
+    return (nanos > 0L) ? (count * BatchStatistics.NANOS_PER_SECOND / nanos) : 0.0;
+  }
+}
@@ -0,0 +1,189 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+/**
+ * A loader of many PDB, mmCIF and BinaryCIF files at once. The input may be a directory (searched
+ * recursively), a set of files in a directory matching a glob pattern or a TAR archive (optionally
+ * compressed with gzip). Each file may be compressed with gzip as well. The format is detected from
+ * the content, so file extensions do not need to be accurate. Files are parsed in parallel and
+ * results are streamed back with backpressure (see {@link StructureBatch}).
+ */
+public final class BatchStructureLoader {
+  private static final String[] STRUCTURE_EXTENSIONS = {".pdb", ".ent", ".cif", ".mmcif", ".bcif"};
+
+  private final int parallelism;
+  private final int capacity;
+  private final PdbParser pdbParser;
+  private final CifParser cifParser = new CifParser();
+
+  /**
+   * Creates an instance.
+   *
+   * @param parallelism The number of files parsed simultaneously.
+   * @param capacity The maximum number of files being parsed or waiting for the consumer.
+   * @param strictMode If false, then some of the checks on PDB format conformity are relaxed.
+   */
+  public BatchStructureLoader(final int parallelism, final int capacity, final boolean strictMode) {
+    super();
+    if (parallelism < 1 || capacity < 1) {
+      throw new IllegalArgumentException("Parallelism and capacity must be positive");
+    }
+    this.parallelism = parallelism;
+    this.capacity = capacity;
+    pdbParser = new PdbParser(strictMode);
+  }
+
+  /**
+   * Creates an instance with a given parallelism and strict PDB parsing.
+   *
+   * @param parallelism The number of files parsed simultaneously.
+   */
+  public BatchStructureLoader(final int parallelism) {
+    this(parallelism, 4 * parallelism, true);
+  }
+
+  /** Creates an instance which uses all available processors and strict PDB parsing. */
+  public BatchStructureLoader() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Loads structures from a directory (recursively, only files with PDB, mmCIF or BinaryCIF
+   * extensions), from a TAR archive (all regular entries; .tar, .tar.gz or .tgz) or from a single
+   * file.
+   *
+   * @param path A path to a directory, an archive or a single file.
+   * @return A stream of parsing results.
+   * @throws IOException When the path does not exist.
+   */
+  public StructureBatch load(final Path path) throws IOException {
+    if (Files.isDirectory(path)) {
+      return load(path, BatchStructureLoader::isStructureFile);
+    }
+    if (!Files.isRegularFile(path)) {
+      throw new IOException("Not a file or a directory: " + path);
+    }
+
+    final String name = path.getFileName().toString().toLowerCase(Locale.ENGLISH);
+    if (name.endsWith(".tar") || name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+      return start(sink -> BatchStructureLoader.produceArchive(path, sink));
+    }
+    return start(sink -> sink.accept(path.toString(), () -> Files.readAllBytes(path)));
+  }
+
+  /**
+   * Loads structures from files in a directory (recursively), whose paths relative to that
+   * directory match a glob pattern, e.g. {@code "**.cif.gz"}.
+   *
+   * @param directory A path to a directory.
+   * @param glob A glob pattern (see {@link java.nio.file.FileSystem#getPathMatcher(String)}).
+   * @return A stream of parsing results.
+   * @throws IOException When the path is not a directory.
+   */
+  public StructureBatch load(final Path directory, final String glob) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      throw new IOException("Not a directory: " + directory);
+    }
+    final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    return load(directory, path -> matcher.matches(directory.relativize(path)));
+  }
+
+  private StructureBatch load(final Path directory, final Predicate<? super Path> filter) {
+    return start(
+        sink -> {
+          try (final Stream<Path> paths = Files.walk(directory)) {
+            final Iterator<Path> iterator =
+                paths.filter(Files::isRegularFile).filter(filter).sorted().iterator();
+            while (iterator.hasNext()) {
+              final Path path = iterator.next();
+              sink.accept(path.toString(), () -> Files.readAllBytes(path));
+            }
+          }
+        });
+  }
+
+  private StructureBatch start(final StructureBatch.Producer producer) {
+    return new StructureBatch(
+        Executors.newWorkStealingPool(parallelism), capacity, producer, this::parse);
+  }
+
+  private List<PdbModel> parse(final String name, final byte[] bytes) throws IOException {
+    // compression is detected from the content, the same as in StructureFiles
+    final byte[] decompressed = StructureFiles.decompressed(bytes);
+    if (StructureFiles.isBinaryCif(decompressed)) {
+      return new ArrayList<>(cifParser.parse(decompressed));
+    }
+
+    final String content = new String(decompressed, StandardCharsets.UTF_8);
+
+    if (BatchStructureLoader.isMmCif(content)) {
+      return new ArrayList<>(cifParser.parse(content));
+    }
+    return pdbParser.parse(content);
+  }
+
+  private static void produceArchive(final Path path, final StructureBatch.Sink sink)
+      throws IOException, InterruptedException {
+    try (final InputStream stream =
+            StructureFiles.decompressed(new BufferedInputStream(Files.newInputStream(path)));
+        final TarArchiveInputStream archive = new TarArchiveInputStream(stream)) {
+      TarArchiveEntry entry = archive.getNextEntry();
+      while (entry != null) {
+        if (entry.isFile()) {
+          // entries must be read sequentially, so it is done here and not in the parsing task
+          final byte[] bytes = archive.readAllBytes();
+          sink.accept(entry.getName(), () -> bytes);
+        }
+        entry = archive.getNextEntry();
+      }
+    }
+  }
+
+  private static boolean isStructureFile(final Path path) {
+    String name = path.getFileName().toString().toLowerCase(Locale.ENGLISH);
+    if (name.endsWith(".gz")) {
+      name = name.substring(0, name.length() - 3);
+    }
+    for (final String extension : BatchStructureLoader.STRUCTURE_EXTENSIONS) {
+      if (name.endsWith(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isMmCif(final CharSequence content) {
+    int i = 0;
+    final int length = content.length();
+    while (i < length) {
+      while (i < length && Character.isWhitespace(content.charAt(i))) {
+        i++;
+      }
+      if (i < length && content.charAt(i) == '#') {
+        while (i < length && content.charAt(i) != '\n') {
+          i++;
+        }
+        continue;
+      }
+      return i + 5 <= length && "data_".contentEquals(content.subSequence(i, i + 5));
+    }
+    return false;
+  }
+}
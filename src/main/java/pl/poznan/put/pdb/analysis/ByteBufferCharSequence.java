@@ -0,0 +1,58 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read-only view of UTF-8 encoded text (e.g. a memory-mapped PDB file) as a sequence of
+ * characters. Indices in this sequence are byte offsets in the underlying buffer and {@link
+ * #charAt(int)} returns a single byte, which is enough to find ASCII characters like line breaks or
+ * record names. {@link #toString()} decodes the bytes as UTF-8, the same as {@link
+ * PdbParser#parse(java.io.InputStream)} does. Only absolute reads are used, so the view may be
+ * shared between threads.
+ */
+final class ByteBufferCharSequence implements CharSequence {
+  private final ByteBuffer buffer;
+  private final int offset;
+  private final int length;
+
+  /**
+   * Creates a view of the whole buffer (from position zero up to its limit).
+   *
+   * @param buffer The buffer with text data.
+   */
+  ByteBufferCharSequence(final ByteBuffer buffer) {
+    this(buffer, 0, buffer.limit());
+  }
+
+  private ByteBufferCharSequence(final ByteBuffer buffer, final int offset, final int length) {
+    super();
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(final int index) {
+    return (char) (buffer.get(offset + index) & 0xFF);
+  }
+
+  @Override
+  public CharSequence subSequence(final int start, final int end) {
+    return new ByteBufferCharSequence(buffer, offset + start, end - start);
+  }
+
+  @Override
+  public String toString() {
+    final byte[] bytes = new byte[length];
+    final ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
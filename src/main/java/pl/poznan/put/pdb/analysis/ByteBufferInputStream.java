@@ -0,0 +1,49 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/** A stream of bytes read from a buffer (e.g. a memory-mapped file) without copying it first. */
+final class ByteBufferInputStream extends InputStream {
+  private final ByteBuffer buffer;
+
+  /**
+   * Creates a stream of bytes between the current position and the limit of the buffer.
+   *
+   * @param buffer The buffer with data. Its position is advanced as the stream is read.
+   */
+  ByteBufferInputStream(final ByteBuffer buffer) {
+    super();
+    this.buffer = buffer;
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+  }
+
+  @Override
+  public int read(final byte[] bytes, final int offset, final int length) {
+    if (length == 0) {
+      return 0;
+    }
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+    final int count = Math.min(length, buffer.remaining());
+    buffer.get(bytes, offset, count);
+    return count;
+  }
+
+  @Override
+  public long skip(final long count) {
+    final int skipped = (int) Math.max(0L, Math.min(count, buffer.remaining()));
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+}
@@ -2,21 +2,30 @@ package pl.poznan.put.pdb.analysis;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.collections4.BidiMap;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.bidimap.TreeBidiMap;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pl.poznan.put.pdb.ImmutablePdbAtomLine;
@@ -37,6 +46,7 @@ public final class CifConverter {
 
   private static final int MAX_RESIDUE_NUMBER = 9999;
   private static final int MAX_ATOM_SERIAL_NUMBER = 99999;
+  private static final int BUFFER_SIZE = 8192;
 
   // PRINTABLE_CHARS is a set of chain names that we allow
   private static final List<String> PRINTABLE_CHARS =
@@ -51,15 +61,15 @@ public final class CifConverter {
   }
 
   /**
-   * Parses a file in mmCIF format and convert it into a container of multiple PDB files.
+   * Parses a file in mmCIF format and convert it into a container of multiple PDB files. The file
+   * may be compressed with gzip (see {@link StructureFiles#open(java.nio.file.Path)}).
    *
    * @param cifFile Path to mmCIF file.
    * @return A container of (possibly) multiple PDB files with mapped chain names.
    * @throws IOException When reading of mmCIF file or writing to output files fails.
    */
   public static ModelContainer convert(final File cifFile) throws IOException {
-    final String cifContents = FileUtils.readFileToString(cifFile, Charset.defaultCharset());
-    final List<CifModel> models = new CifParser().parse(cifContents);
+    final List<CifModel> models = new CifParser().parse(cifFile.toPath());
     return CifConverter.convert(cifFile, models);
   }
 
@@ -78,25 +88,83 @@ public final class CifConverter {
       return CifContainer.emptyInstance(cifFile);
     }
 
-    List<Set<String>> chainGroups = CifConverter.groupContactingChains(model);
-    chainGroups = CifConverter.packGroups(chainGroups);
-    final Map<File, BidiMap<String, String>> fileChainMap = new HashMap<>();
-
-    for (final Set<String> chainGroup : chainGroups) {
-      final File pdbFile = File.createTempFile("cif2pdb", ".pdb");
-      final BidiMap<String, String> chainMap = new TreeBidiMap<>();
+    final List<Set<String>> chainGroups =
+        CifConverter.packGroups(CifConverter.groupContactingChains(model));
+    return CifConverter.writeTemporaryFiles(
+        cifFile, model, Collections.singletonList(model), chainGroups);
+  }
 
-      fileChainMap.put(pdbFile, chainMap);
+  /**
+   * Converts a parsed mmCIF model into a set of PDB files with mapped chain names. Each PDB file is
+   * streamed to the output as it is generated, so neither temporary files nor whole PDB files in
+   * memory are needed.
+   *
+   * @param model A parsed mmCIF model.
+   * @param outputs A factory of outputs, called once for every PDB file. Each output is closed
+   *     after the file is written.
+   * @return A list of mappings from mmCIF to PDB chain names, one for each created output in the
+   *     order of creation. The list is empty if the conversion is not possible.
+   * @throws IOException When writing to any output fails.
+   */
+  public static List<BidiMap<String, String>> convert(
+      final CifModel model, final OutputFactory outputs) throws IOException {
+    return CifConverter.convert(model, outputs, CifConverter.PRINTABLE_CHARS.size());
+  }
 
-      final StringBuilder pdbBuilder = new StringBuilder();
-      CifConverter.writeHeader(model, chainMap, pdbBuilder);
-      CifConverter.writeModel(model, chainGroup, chainMap, pdbBuilder);
+  /**
+   * Converts a parsed mmCIF model into a set of PDB files like {@link #convert(CifModel,
+   * OutputFactory)}, but with a custom limit of chains in each file. Chains in contact are always
+   * kept together, so a file may exceed the limit if a single group of contacting chains does.
+   *
+   * @param model A parsed mmCIF model.
+   * @param outputs A factory of outputs, called once for every PDB file. Each output is closed
+   *     after the file is written.
+   * @param maxChainsPerFile The maximum number of chains in a single PDB file (between 1 and 62).
+   * @return A list of mappings from mmCIF to PDB chain names, one for each created output in the
+   *     order of creation. The list is empty if the conversion is not possible.
+   * @throws IOException When writing to any output fails.
+   */
+  public static List<BidiMap<String, String>> convert(
+      final CifModel model, final OutputFactory outputs, final int maxChainsPerFile)
+      throws IOException {
+    Validate.inclusiveBetween(1, CifConverter.PRINTABLE_CHARS.size(), maxChainsPerFile);
 
-      final String pdbData = pdbBuilder.toString();
-      FileUtils.write(pdbFile, pdbData, Charset.defaultCharset());
+    if (!CifConverter.isConversionPossible(model)) {
+      return Collections.emptyList();
     }
 
-    return ImmutableCifContainer.of(cifFile, fileChainMap);
+    final List<Set<String>> chainGroups =
+        CifConverter.packGroups(CifConverter.groupContactingChains(model), maxChainsPerFile);
+    return CifConverter.write(model, Collections.singletonList(model), chainGroups, outputs);
+  }
+
+  /**
+   * Converts a parsed mmCIF model into a set of PDB files with mapped chain names, which are
+   * streamed directly to the given paths.
+   *
+   * @param model A parsed mmCIF model.
+   * @param paths A function to get a path for the n-th PDB file (counting from 0).
+   * @return A map of written PDB files and their mappings from mmCIF to PDB chain names, in the
+   *     order of creation. The map is empty if the conversion is not possible.
+   * @throws IOException When writing to any file fails.
+   */
+  public static Map<Path, BidiMap<String, String>> convertToPaths(
+      final CifModel model, final IntFunction<Path> paths) throws IOException {
+    final List<Path> pdbPaths = new ArrayList<>();
+    final List<BidiMap<String, String>> chainMaps =
+        CifConverter.convert(
+            model,
+            index -> {
+              final Path path = paths.apply(index);
+              pdbPaths.add(path);
+              return Files.newOutputStream(path);
+            });
+
+    final Map<Path, BidiMap<String, String>> result = new LinkedHashMap<>();
+    for (int i = 0; i < chainMaps.size(); i++) {
+      result.put(pdbPaths.get(i), chainMaps.get(i));
+    }
+    return result;
   }
 
   private static ModelContainer convert(final File cifFile, final List<CifModel> models)
@@ -122,27 +190,74 @@ public final class CifConverter {
     }
 
     final CifModel firstModel = rnaModels.get(0);
-    List<Set<String>> chainGroups = CifConverter.groupContactingChains(firstModel);
-    chainGroups = CifConverter.packGroups(chainGroups);
+    final List<Set<String>> chainGroups =
+        CifConverter.packGroups(CifConverter.groupContactingChains(firstModel));
+    return CifConverter.writeTemporaryFiles(cifFile, firstModel, rnaModels, chainGroups);
+  }
+
+  private static ModelContainer writeTemporaryFiles(
+      final File cifFile,
+      final PdbModel firstModel,
+      final List<? extends PdbModel> models,
+      final List<Set<String>> chainGroups)
+      throws IOException {
+    final List<File> pdbFiles = new ArrayList<>();
+    final List<BidiMap<String, String>> chainMaps =
+        CifConverter.write(
+            firstModel,
+            models,
+            chainGroups,
+            index -> {
+              final File pdbFile = File.createTempFile("cif2pdb", ".pdb");
+              pdbFiles.add(pdbFile);
+              return Files.newOutputStream(pdbFile.toPath());
+            });
+
     final Map<File, BidiMap<String, String>> fileChainMap = new HashMap<>();
+    for (int i = 0; i < chainMaps.size(); i++) {
+      fileChainMap.put(pdbFiles.get(i), chainMaps.get(i));
+    }
+    return ImmutableCifContainer.of(cifFile, fileChainMap);
+  }
+
+  /**
+   * Writes each chain group as a separate PDB file. The text is buffered in fixed-size chunks only,
+   * so memory usage does not depend on the size of the structure.
+   *
+   * @param firstModel The model with header information.
+   * @param models All models to write (each in a MODEL/ENDMDL block).
+   * @param chainGroups Groups of chains, one for each output.
+   * @param outputs A factory of outputs.
+   * @return A list of chain mappings, one for each output.
+   * @throws IOException When writing to any output fails.
+   */
+  private static List<BidiMap<String, String>> write(
+      final PdbModel firstModel,
+      final List<? extends PdbModel> models,
+      final List<Set<String>> chainGroups,
+      final OutputFactory outputs)
+      throws IOException {
+    final Map<String, MoleculeType> chainTypes = CifConverter.chainTypes(firstModel);
+    final List<BidiMap<String, String>> chainMaps = new ArrayList<>(chainGroups.size());
+    final StringBuilder buffer = new StringBuilder(CifConverter.BUFFER_SIZE);
 
     for (final Set<String> chainGroup : chainGroups) {
-      final File pdbFile = File.createTempFile("cif2pdb", ".pdb");
       final BidiMap<String, String> chainMap = new TreeBidiMap<>();
 
-      fileChainMap.put(pdbFile, chainMap);
-
-      final StringBuilder pdbBuilder = new StringBuilder();
-      CifConverter.writeHeader(firstModel, chainMap, pdbBuilder);
-      for (final PdbModel model : rnaModels) {
-        CifConverter.writeModel(model, chainGroup, chainMap, pdbBuilder);
+      try (final Writer writer =
+          new OutputStreamWriter(outputs.open(chainMaps.size()), Charset.defaultCharset())) {
+        buffer.setLength(0);
+        CifConverter.writeHeader(firstModel, chainTypes, chainMap, buffer);
+        for (final PdbModel model : models) {
+          CifConverter.writeModel(model, chainGroup, chainMap, buffer, writer);
+        }
+        writer.append(buffer);
       }
 
-      final String pdbData = pdbBuilder.toString();
-      FileUtils.write(pdbFile, pdbData, Charset.defaultCharset());
+      chainMaps.add(chainMap);
     }
 
-    return ImmutableCifContainer.of(cifFile, fileChainMap);
+    return chainMaps;
   }
 
   private static boolean isConversionPossible(final PdbModel model) {
@@ -166,77 +281,65 @@ public final class CifConverter {
    *     with each other (single linkage i.e. each chain has at least one contact in its set).
    */
   private static List<Set<String>> groupContactingChains(final CifModel model) {
-    final List<Set<String>> chainGroups = CifConverter.initializeChainGroups(model);
-    final Map<String, Set<String>> chainContacts = CifConverter.initializeChainContactMap(model);
-    int i = 0;
-
-    while ((chainGroups.size() > 1) && (i < chainGroups.size())) {
-      final Set<String> groupL = chainGroups.get(i);
-      int toMerge = -1;
-
-      for (int j = i + 1; (toMerge == -1) && (j < chainGroups.size()); j++) {
-        final Set<String> groupR = chainGroups.get(j);
-
-        if (groupL.stream()
-            .filter(chainContacts::containsKey)
-            .map(chainContacts::get)
-            .anyMatch(contactsL -> CollectionUtils.containsAny(contactsL, groupR))) {
-          toMerge = j;
-        }
-      }
-
-      if (toMerge == -1) {
-        i += 1;
-      } else {
-        final Set<String> groupToMerge = chainGroups.get(toMerge);
-        groupL.addAll(groupToMerge);
-        chainGroups.remove(toMerge);
-        i = 0;
-      }
-    }
-
-    return chainGroups;
-  }
-
-  /**
-   * For each chain, create a set which contains only this chain.
-   *
-   * @param model A parsed coordinates of a mmCIF file.
-   * @return A list of sets, each containing one chain.
-   */
-  private static List<Set<String>> initializeChainGroups(final PdbModel model) {
-    return model.chains().stream()
-        .map(chain -> new HashSet<>(Collections.singleton(chain.identifier())))
-        .collect(Collectors.toList());
+    final List<String> chainIdentifiers =
+        model.chains().stream().map(PdbChain::identifier).collect(Collectors.toList());
+    final List<BasePair> contacts =
+        model.basePairs().stream().map(QuantifiedBasePair::basePair).collect(Collectors.toList());
+    return CifConverter.groupContactingChains(chainIdentifiers, contacts);
   }
 
   /**
-   * Basing on the information in the mmCIF file itself, analyze which chains are in contact. Return
-   * a mapping of chain name to a set of its contacts.
+   * Merges chains which are in contact to form groups. Chains are merged with union-find, so the
+   * cost is nearly linear in the number of chains and contacts.
    *
-   * @param model A parsed mmCIF model.
-   * @return A map, where chain name is a key and set of this chain's contacts is the value.
+   * @param chainIdentifiers Identifiers of chains in the model.
+   * @param contacts Base pairs which put their chains in contact.
+   * @return A list of sets of chains' identifiers. Each set contains chains which are in contact
+   *     with each other (single linkage i.e. each chain has at least one contact in its set). Sets
+   *     are ordered by the position of their first chain in the input.
    */
-  private static Map<String, Set<String>> initializeChainContactMap(final CifModel model) {
-    final Map<String, Set<String>> chainContacts = new HashMap<>();
-
-    for (final QuantifiedBasePair quantifiedBasePair : model.basePairs()) {
-      final BasePair basePair = quantifiedBasePair.basePair();
-      final String left = basePair.left().chainIdentifier();
-      final String right = basePair.right().chainIdentifier();
+  static List<Set<String>> groupContactingChains(
+      final List<String> chainIdentifiers, final Iterable<? extends BasePair> contacts) {
+    final Map<String, Integer> chainIndex = new HashMap<>();
+    for (final String chainIdentifier : chainIdentifiers) {
+      chainIndex.putIfAbsent(chainIdentifier, chainIndex.size());
+    }
 
-      if (!chainContacts.containsKey(left)) {
-        chainContacts.put(left, new HashSet<>());
+    final int[] parents = IntStream.range(0, chainIndex.size()).toArray();
+    for (final BasePair basePair : contacts) {
+      final Integer left = chainIndex.get(basePair.left().chainIdentifier());
+      final Integer right = chainIndex.get(basePair.right().chainIdentifier());
+      if (left != null && right != null) {
+        final int leftRoot = CifConverter.findRoot(parents, left);
+        final int rightRoot = CifConverter.findRoot(parents, right);
+        // the smaller index becomes the root, so that each group is kept at its first chain
+        parents[Math.max(leftRoot, rightRoot)] = Math.min(leftRoot, rightRoot);
       }
-      chainContacts.get(left).add(right);
+    }
 
-      if (!chainContacts.containsKey(right)) {
-        chainContacts.put(right, new HashSet<>());
+    final List<Set<String>> chainGroups = new ArrayList<>();
+    final Map<Integer, Set<String>> groupByRoot = new HashMap<>();
+    for (final Map.Entry<String, Integer> entry : chainIndex.entrySet()) {
+      groupByRoot
+          .computeIfAbsent(CifConverter.findRoot(parents, entry.getValue()), k -> new HashSet<>())
+          .add(entry.getKey());
+    }
+    for (int i = 0; i < parents.length; i++) {
+      if (parents[i] == i) {
+        chainGroups.add(groupByRoot.get(i));
       }
-      chainContacts.get(right).add(left);
     }
+    return chainGroups;
+  }
 
-    return chainContacts;
+  private static int findRoot(final int[] parents, final int index) {
+    int current = index;
+    while (parents[current] != current) {
+      // path halving
+      parents[current] = parents[parents[current]];
+      current = parents[current];
+    }
+    return current;
   }
 
   /**
@@ -249,25 +352,38 @@ public final class CifConverter {
    *     groups such that they can be fitted into a single PDB file.
    */
   private static List<Set<String>> packGroups(final List<Set<String>> chainGroups) {
-    // sort chain groups in descending size order
-    chainGroups.sort((t, t1) -> -Integer.compare(t.size(), t1.size()));
+    return CifConverter.packGroups(chainGroups, CifConverter.PRINTABLE_CHARS.size());
+  }
 
-    final List<Set<String>> packed = new ArrayList<>();
+  /**
+   * Solve bin packing problem using first-fit decreasing heuristic. The first bin with enough room
+   * is found in a tree of remaining capacities, so packing takes O(n log n) time. A group larger
+   * than the capacity gets a bin on its own.
+   *
+   * @param chainGroups List of chain groups. A chain group contains identifiers of chains which are
+   *     in contact.
+   * @param capacity The maximum number of chains in a bin.
+   * @return List of packed chain groups, in order of creation.
+   */
+  static List<Set<String>> packGroups(final List<Set<String>> chainGroups, final int capacity) {
+    Validate.isTrue(capacity > 0, "Capacity of a bin must be positive");
 
-    for (final Set<String> group : chainGroups) {
-      boolean flag = true;
+    final List<Set<String>> sorted = new ArrayList<>(chainGroups);
+    // sort chain groups in descending size order (stable for groups of equal size)
+    sorted.sort(Comparator.comparingInt(Set<String>::size).reversed());
 
-      for (final Set<String> bin : packed) {
-        if ((bin.size() + group.size()) <= CifConverter.PRINTABLE_CHARS.size()) {
-          bin.addAll(group);
-          flag = false;
-          break;
-        }
-      }
+    final List<Set<String>> packed = new ArrayList<>();
+    final RemainingCapacityTree tree = new RemainingCapacityTree(sorted.size());
+
+    for (final Set<String> group : sorted) {
+      final int bin = tree.findFirst(group.size());
 
-      if (flag) {
-        final Set<String> bin = new HashSet<>(group);
-        packed.add(bin);
+      if (bin < packed.size()) {
+        packed.get(bin).addAll(group);
+        tree.set(bin, tree.get(bin) - group.size());
+      } else {
+        packed.add(new HashSet<>(group));
+        tree.set(packed.size() - 1, Math.max(capacity - group.size(), 0));
       }
     }
 
@@ -276,6 +392,7 @@ public final class CifConverter {
 
   private static void writeHeader(
       final PdbModel firstModel,
+      final Map<String, MoleculeType> chainTypes,
       final BidiMap<String, String> chainMap,
       final StringBuilder pdbBuilder) {
     pdbBuilder.append(firstModel.header()).append(System.lineSeparator());
@@ -291,7 +408,8 @@ public final class CifConverter {
 
       for (PdbRemark465Line missingResidue : missingResidues) {
         String chainIdentifier = missingResidue.chainIdentifier();
-        final MoleculeType moleculeType = CifConverter.getChainType(firstModel, chainIdentifier);
+        final MoleculeType moleculeType =
+            chainTypes.getOrDefault(chainIdentifier, MoleculeType.UNKNOWN);
         if (moleculeType == MoleculeType.RNA) {
           chainIdentifier = CifConverter.mapChain(chainMap, chainIdentifier);
           missingResidue =
@@ -307,20 +425,19 @@ public final class CifConverter {
   }
 
   /**
-   * Return type of the named chain.
+   * Collects types of all chains, so that they do not have to be searched for every missing
+   * residue.
    *
    * @param firstModel A PDB/mmCIF model.
-   * @param chainIdentifier Name of the chain to check.
-   * @return A {@link MoleculeType} instance representing chain's type or {@link
-   *     MoleculeType#UNKNOWN} if the chain is not present.
+   * @return A map of chain identifiers to {@link MoleculeType} of the first chain with that
+   *     identifier.
    */
-  private static MoleculeType getChainType(
-      final PdbModel firstModel, final String chainIdentifier) {
-    return firstModel.chains().stream()
-        .filter(chain -> Objects.equals(chain.identifier(), chainIdentifier))
-        .findFirst()
-        .map(SingleTypedResidueCollection::moleculeType)
-        .orElse(MoleculeType.UNKNOWN);
+  private static Map<String, MoleculeType> chainTypes(final PdbModel firstModel) {
+    final Map<String, MoleculeType> chainTypes = new HashMap<>();
+    for (final PdbChain chain : firstModel.chains()) {
+      chainTypes.putIfAbsent(chain.identifier(), chain.moleculeType());
+    }
+    return chainTypes;
   }
 
   /**
@@ -343,7 +460,9 @@ public final class CifConverter {
       final PdbModel rnaModel,
       final Collection<String> allowedChains,
       final BidiMap<String, String> chainMap,
-      final StringBuilder pdbBuilder) {
+      final StringBuilder pdbBuilder,
+      final Writer writer)
+      throws IOException {
     pdbBuilder.append("MODEL ").append(rnaModel.modelNumber()).append(System.lineSeparator());
 
     int serialNumber = 1;
@@ -354,12 +473,17 @@ public final class CifConverter {
           for (final PdbAtomLine atom : residue.atoms()) {
             final String chainIdentifier = CifConverter.mapChain(chainMap, atom.chainIdentifier());
             final ImmutablePdbAtomLine atomLine =
-                ((ImmutablePdbAtomLine) atom)
+                ImmutablePdbAtomLine.copyOf(atom)
                     .withSerialNumber(serialNumber)
                     .withChainIdentifier(chainIdentifier);
             serialNumber =
                 (serialNumber < CifConverter.MAX_ATOM_SERIAL_NUMBER) ? (serialNumber + 1) : 1;
-            pdbBuilder.append(atomLine).append(System.lineSeparator());
+            atomLine.appendPdb(pdbBuilder).append(System.lineSeparator());
+          }
+
+          if (pdbBuilder.length() >= CifConverter.BUFFER_SIZE) {
+            writer.append(pdbBuilder);
+            pdbBuilder.setLength(0);
           }
         }
       }
@@ -368,4 +492,58 @@ public final class CifConverter {
     pdbBuilder.append("ENDMDL");
     pdbBuilder.append(System.lineSeparator());
   }
+
+  /**
+   * A segment tree over bins which keeps the maximum remaining capacity in each subtree. Bins not
+   * created yet have a capacity of -1.
+   */
+  private static final class RemainingCapacityTree {
+    private final int leaves;
+    private final int[] maxima;
+
+    private RemainingCapacityTree(final int size) {
+      super();
+      leaves = Integer.highestOneBit(Math.max(size, 1) * 2 - 1);
+      maxima = new int[2 * leaves];
+      Arrays.fill(maxima, -1);
+    }
+
+    private int get(final int bin) {
+      return maxima[leaves + bin];
+    }
+
+    private void set(final int bin, final int remaining) {
+      int node = leaves + bin;
+      maxima[node] = remaining;
+      for (node /= 2; node > 0; node /= 2) {
+        maxima[node] = Math.max(maxima[2 * node], maxima[2 * node + 1]);
+      }
+    }
+
+    /**
+     * @param required The required capacity.
+     * @return The lowest index of a bin with enough room, or the number of leaves if there is none.
+     */
+    private int findFirst(final int required) {
+      if (maxima[1] < required) {
+        return leaves;
+      }
+      int node = 1;
+      while (node < leaves) {
+        node = (maxima[2 * node] >= required) ? (2 * node) : (2 * node + 1);
+      }
+      return node - leaves;
+    }
+  }
+
+  /** A factory of outputs for PDB files generated by the converter. */
+  @FunctionalInterface
+  public interface OutputFactory {
+    /**
+     * @param index The index of the PDB file (counting from 0).
+     * @return A new output stream for the PDB file. It will be closed by the converter.
+     * @throws IOException When the output cannot be created.
+     */
+    OutputStream open(int index) throws IOException;
+  }
 }
@@ -1,7 +1,10 @@
 package pl.poznan.put.pdb.analysis;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -47,17 +50,11 @@ import pl.poznan.put.structure.ImmutableBasePair;
 import pl.poznan.put.structure.ImmutableQuantifiedBasePair;
 import pl.poznan.put.structure.QuantifiedBasePair;
 
-/** A parser of mmCIF format. */
+/**
+ * A parser of mmCIF format. The parser keeps no state between calls, so a single instance may be
+ * shared and used concurrently by many threads.
+ */
 public final class CifParser {
-  private PdbHeaderLine header;
-  private PdbExpdtaLine experimentalData;
-  private PdbRemark2Line resolution;
-  private List<PdbModresLine> modifiedResidues;
-  private List<PdbRemark465Line> missingResidues;
-  private String title;
-  private List<QuantifiedBasePair> basePairs;
-  private Map<Integer, List<PdbAtomLine>> modelAtoms;
-
   public CifParser() {
     super();
   }
@@ -69,28 +66,56 @@ public final class CifParser {
    * @return A parsed object representing a molecular structure.
    * @throws IOException When parsing of the data fails.
    */
-  public synchronized List<CifModel> parse(final String structureContent) throws IOException {
-    header = ImmutablePdbHeaderLine.of("", new Date(), "");
-    experimentalData = ImmutablePdbExpdtaLine.of(Collections.emptyList());
-    resolution = ImmutablePdbRemark2Line.of(Double.NaN);
-    modifiedResidues = Collections.emptyList();
-    missingResidues = Collections.emptyList();
-    title = "";
-    modelAtoms = new TreeMap<>();
-
-    final MmCifFile cifFile =
-        CifIO.readFromInputStream(IOUtils.toInputStream(structureContent, StandardCharsets.UTF_8))
-            .as(StandardSchemata.MMCIF);
+  public List<CifModel> parse(final String structureContent) throws IOException {
+    return parse(IOUtils.toInputStream(structureContent, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parses a file in mmCIF or BinaryCIF format. The file may be compressed with gzip (see {@link
+   * StructureFiles#open(Path)}).
+   *
+   * @param path Path to a file in mmCIF format.
+   * @return A parsed object representing a molecular structure.
+   * @throws IOException When reading or parsing of the file fails.
+   */
+  public List<CifModel> parse(final Path path) throws IOException {
+    try (final InputStream stream = StructureFiles.open(path)) {
+      return parse(stream);
+    }
+  }
+
+  /**
+   * Parses content in mmCIF or BinaryCIF format, optionally compressed with gzip. The format is
+   * detected from the leading bytes.
+   *
+   * @param structureContent The bytes of an mmCIF or BinaryCIF file.
+   * @return A parsed object representing a molecular structure.
+   * @throws IOException When parsing of the data fails.
+   */
+  public List<CifModel> parse(final byte[] structureContent) throws IOException {
+    return parse(new ByteArrayInputStream(structureContent));
+  }
+
+  /**
+   * Parses a stream of data in mmCIF or BinaryCIF format, optionally compressed with gzip. The
+   * format is detected from the leading bytes. The stream is not closed by this method.
+   *
+   * @param stream A stream with data in mmCIF or BinaryCIF format.
+   * @return A parsed object representing a molecular structure.
+   * @throws IOException When reading or parsing of the data fails.
+   */
+  public List<CifModel> parse(final InputStream stream) throws IOException {
+    final MmCifFile cifFile = CifIO.readFromInputStream(stream).as(StandardSchemata.MMCIF);
     final MmCifBlock data = cifFile.getFirstBlock();
 
-    handleHeader(data);
-    handleExperimentalData(data);
-    handleResolution(data);
-    handleModifiedResidues(data);
-    handleMissingResidues(data);
-    handleTitle(data);
-    handleBasePairs(data);
-    handleAtoms(data);
+    final PdbHeaderLine header = CifParser.handleHeader(data);
+    final PdbExpdtaLine experimentalData = CifParser.handleExperimentalData(data);
+    final PdbRemark2Line resolution = CifParser.handleResolution(data);
+    final List<PdbModresLine> modifiedResidues = CifParser.handleModifiedResidues(data, header);
+    final List<PdbRemark465Line> missingResidues = CifParser.handleMissingResidues(data);
+    final String title = CifParser.handleTitle(data);
+    final List<QuantifiedBasePair> basePairs = CifParser.handleBasePairs(data);
+    final Map<Integer, List<PdbAtomLine>> modelAtoms = CifParser.handleAtoms(data);
 
     final List<CifModel> result = new ArrayList<>(modelAtoms.size());
 
@@ -112,7 +137,7 @@ public final class CifParser {
     return result;
   }
 
-  private void handleBasePairs(final MmCifBlock data) {
+  private static List<QuantifiedBasePair> handleBasePairs(final MmCifBlock data) {
     final NdbStructNaBasePair ndbStructNaBasePair = data.getNdbStructNaBasePair();
     final StrColumn iAuthAsymId = ndbStructNaBasePair.getIAuthAsymId();
     final StrColumn iAuthSeqId = ndbStructNaBasePair.getIAuthSeqId();
@@ -176,14 +201,14 @@ public final class CifParser {
               .withSaenger(saenger)
               .withLeontisWesthof(leontisWesthof));
     }
-    basePairs = result;
+    return result;
   }
 
-  private void handleTitle(final MmCifBlock data) {
-    title = data.getStruct().getTitle().values().collect(Collectors.joining("\n"));
+  private static String handleTitle(final MmCifBlock data) {
+    return data.getStruct().getTitle().values().collect(Collectors.joining("\n"));
   }
 
-  private void handleMissingResidues(final MmCifBlock data) {
+  private static List<PdbRemark465Line> handleMissingResidues(final MmCifBlock data) {
     final PdbxUnobsOrZeroOccResidues pdbxUnobsOrZeroOccResidues =
         data.getPdbxUnobsOrZeroOccResidues();
     final IntColumn pdbModelNum = pdbxUnobsOrZeroOccResidues.getPDBModelNum();
@@ -208,10 +233,11 @@ public final class CifParser {
               CifParser.isEmpty(insertionCode) ? Optional.empty() : Optional.of(insertionCode)));
     }
 
-    missingResidues = result;
+    return result;
   }
 
-  private void handleModifiedResidues(final MmCifBlock data) {
+  private static List<PdbModresLine> handleModifiedResidues(
+      final MmCifBlock data, final PdbHeaderLine header) {
     final PdbxStructModResidue pdbxStructModResidue = data.getPdbxStructModResidue();
     final StrColumn authCompId = pdbxStructModResidue.getAuthCompId();
     final StrColumn authAsymId = pdbxStructModResidue.getAuthAsymId();
@@ -239,16 +265,15 @@ public final class CifParser {
               comment));
     }
 
-    modifiedResidues = result;
+    return result;
   }
 
-  private void handleResolution(final MmCifBlock data) {
-    resolution =
-        ImmutablePdbRemark2Line.of(
-            data.getRefine().getLsDResHigh().values().min().orElse(Double.NaN));
+  private static PdbRemark2Line handleResolution(final MmCifBlock data) {
+    return ImmutablePdbRemark2Line.of(
+        data.getRefine().getLsDResHigh().values().min().orElse(Double.NaN));
   }
 
-  private void handleExperimentalData(final MmCifBlock data) {
+  private static PdbExpdtaLine handleExperimentalData(final MmCifBlock data) {
     final Exptl exptl = data.getExptl();
     final List<ExperimentalTechnique> experimentalTechniques =
         exptl
@@ -256,10 +281,10 @@ public final class CifParser {
             .values()
             .map(ExperimentalTechnique::fromFullName)
             .collect(Collectors.toList());
-    experimentalData = ImmutablePdbExpdtaLine.of(experimentalTechniques);
+    return ImmutablePdbExpdtaLine.of(experimentalTechniques);
   }
 
-  private void handleHeader(final MmCifBlock data) {
+  private static PdbHeaderLine handleHeader(final MmCifBlock data) {
     Date depositionData;
     try {
       depositionData =
@@ -275,11 +300,12 @@ public final class CifParser {
     final String classification =
         data.getStructKeywords().getPdbxKeywords().values().collect(Collectors.joining("\n"));
     final String idCode = data.getEntry().getId().values().collect(Collectors.joining("\n"));
-    header = ImmutablePdbHeaderLine.of(classification, depositionData, idCode);
+    return ImmutablePdbHeaderLine.of(classification, depositionData, idCode);
   }
 
-  private void handleAtoms(final MmCifBlock data) {
+  private static Map<Integer, List<PdbAtomLine>> handleAtoms(final MmCifBlock data) {
     final AtomSite atomSite = data.getAtomSite();
+    final Map<Integer, List<PdbAtomLine>> modelAtoms = new TreeMap<>();
 
     final IntColumn id = atomSite.getId();
     final StrColumn authAtomId = atomSite.getAuthAtomId();
@@ -339,6 +365,8 @@ public final class CifParser {
 
       modelAtoms.get(model).add(atomLine);
     }
+
+    return modelAtoms;
   }
 
   private static boolean isEmpty(final String value) {
@@ -0,0 +1,182 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.pdb.ImmutablePdbAtomLine;
+import pl.poznan.put.pdb.ImmutablePdbResidueIdentifier;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.pdb.PdbResidueIdentifier;
+
+/**
+ * A list of atoms stored in columns: coordinates, occupancy and temperature factor as scaled
+ * integers (see {@link ScaledColumn}) and all texts as 16-bit codes into dictionaries of distinct
+ * values (see {@link DictionaryColumn}). An atom appended to the list is decomposed into the
+ * columns and not referenced anymore. Each call to {@link #get(int)} creates a new {@link
+ * PdbAtomLine}.
+ */
+final class ColumnarAtoms extends AbstractList<PdbAtomLine> implements RandomAccess, Serializable {
+  private final DictionaryColumn atomNames = new DictionaryColumn();
+  private final DictionaryColumn alternateLocations = new DictionaryColumn();
+  private final DictionaryColumn residueNames = new DictionaryColumn();
+  private final DictionaryColumn chainIdentifiers = new DictionaryColumn();
+  private final DictionaryColumn insertionCodes = new DictionaryColumn();
+  private final DictionaryColumn elementSymbols = new DictionaryColumn();
+  private final DictionaryColumn charges = new DictionaryColumn();
+  private final ScaledColumn xs = new ScaledColumn(3);
+  private final ScaledColumn ys = new ScaledColumn(3);
+  private final ScaledColumn zs = new ScaledColumn(3);
+  private final ScaledColumn occupancies = new ScaledColumn(2);
+  private final ScaledColumn temperatureFactors = new ScaledColumn(2);
+  private int[] serialNumbers = new int[16];
+  private int[] residueNumbers = new int[16];
+  private int size;
+
+  @Override
+  public boolean add(final PdbAtomLine atom) {
+    if (size == serialNumbers.length) {
+      serialNumbers = Arrays.copyOf(serialNumbers, size * 2);
+      residueNumbers = Arrays.copyOf(residueNumbers, size * 2);
+    }
+    serialNumbers[size] = atom.serialNumber();
+    residueNumbers[size] = atom.residueNumber();
+    atomNames.add(atom.atomName());
+    alternateLocations.add(atom.alternateLocation().orElse(null));
+    residueNames.add(atom.residueName());
+    chainIdentifiers.add(atom.chainIdentifier());
+    insertionCodes.add(atom.insertionCode().orElse(null));
+    elementSymbols.add(atom.elementSymbol());
+    charges.add(atom.charge());
+    xs.add(atom.x());
+    ys.add(atom.y());
+    zs.add(atom.z());
+    occupancies.add(atom.occupancy());
+    temperatureFactors.add(atom.temperatureFactor());
+    size += 1;
+    modCount += 1;
+    return true;
+  }
+
+  @Override
+  public PdbAtomLine get(final int index) {
+    Objects.checkIndex(index, size);
+    return ImmutablePdbAtomLine.of(
+        serialNumbers[index],
+        atomNames.get(index),
+        alternateLocations.getOptional(index),
+        residueNames.get(index),
+        chainIdentifiers.get(index),
+        residueNumbers[index],
+        insertionCodes.getOptional(index),
+        xs.get(index),
+        ys.get(index),
+        zs.get(index),
+        occupancies.get(index),
+        temperatureFactors.get(index),
+        elementSymbols.get(index),
+        charges.get(index));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** Releases the spare capacity left after appending atoms. */
+  void trimToSize() {
+    serialNumbers = Arrays.copyOf(serialNumbers, size);
+    residueNumbers = Arrays.copyOf(residueNumbers, size);
+    atomNames.trimToSize();
+    alternateLocations.trimToSize();
+    residueNames.trimToSize();
+    chainIdentifiers.trimToSize();
+    insertionCodes.trimToSize();
+    elementSymbols.trimToSize();
+    charges.trimToSize();
+    xs.trimToSize();
+    ys.trimToSize();
+    zs.trimToSize();
+    occupancies.trimToSize();
+    temperatureFactors.trimToSize();
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The identifier of the atom's residue (without creating a {@link PdbAtomLine}).
+   */
+  PdbResidueIdentifier residueIdentifier(final int index) {
+    Objects.checkIndex(index, size);
+    return ImmutablePdbResidueIdentifier.of(
+        chainIdentifiers.get(index), residueNumbers[index], insertionCodes.getOptional(index));
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @param other An index of another atom.
+   * @return True if both atoms have the same chain identifier, residue number and insertion code.
+   */
+  boolean isSameResidue(final int index, final int other) {
+    Objects.checkIndex(index, size);
+    Objects.checkIndex(other, size);
+    return residueNumbers[index] == residueNumbers[other]
+        && chainIdentifiers.isSame(index, other)
+        && insertionCodes.isSame(index, other);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The chain identifier of the atom.
+   */
+  String chainIdentifier(final int index) {
+    Objects.checkIndex(index, size);
+    return chainIdentifiers.get(index);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The name of the atom's residue.
+   */
+  String residueName(final int index) {
+    Objects.checkIndex(index, size);
+    return residueNames.get(index);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The detected name of the atom (see {@link PdbAtomLine#detectAtomName()}).
+   */
+  AtomName atomName(final int index) {
+    Objects.checkIndex(index, size);
+    return AtomName.fromString(atomNames.get(index));
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The x coordinate of the atom.
+   */
+  double x(final int index) {
+    Objects.checkIndex(index, size);
+    return xs.get(index);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The y coordinate of the atom.
+   */
+  double y(final int index) {
+    Objects.checkIndex(index, size);
+    return ys.get(index);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The z coordinate of the atom.
+   */
+  double z(final int index) {
+    Objects.checkIndex(index, size);
+    return zs.get(index);
+  }
+}
@@ -0,0 +1,570 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.Validate;
+import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
+import pl.poznan.put.pdb.ChainNumberICode;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.pdb.PdbExpdtaLine;
+import pl.poznan.put.pdb.PdbHeaderLine;
+import pl.poznan.put.pdb.PdbModresLine;
+import pl.poznan.put.pdb.PdbRemark2Line;
+import pl.poznan.put.pdb.PdbRemark465Line;
+import pl.poznan.put.pdb.PdbResidueIdentifier;
+
+/**
+ * A memory-efficient implementation of a structure for large assemblies (e.g. ribosomes). Atoms are
+ * kept in columns: coordinates, occupancy and temperature factor as scaled integers (see {@link
+ * ScaledColumn}) and all texts as 16-bit codes into dictionaries of distinct values (see {@link
+ * DictionaryColumn}). Instances of {@link PdbAtomLine} are created only when accessed through
+ * {@link #atoms()}. {@link PdbParser#parseColumnar(Path)} fills the columns while reading, so no
+ * list of all atoms is ever built.
+ *
+ * <p>Residues and chains are detected on first use with the same rules as in {@link
+ * DefaultPdbModel}, but straight from the columns, and only their boundaries (ranges of atom rows
+ * and of residues) are remembered. The lists returned by {@link #residues()} and {@link #chains()}
+ * are views, which create residues and chains on access. A few recently accessed residues are
+ * cached, so that neighbouring residues may be compared without creating them over and over.
+ *
+ * <p>An instance is serialized as its columns and the derived state is detected again after
+ * deserialization.
+ */
+public final class ColumnarPdbModel extends AbstractPdbModel {
+  private static final int RESIDUE_CACHE_SIZE = 64;
+
+  private final PdbHeaderLine header;
+  private final PdbExpdtaLine experimentalData;
+  private final PdbRemark2Line resolution;
+  private final int modelNumber;
+  private final List<PdbModresLine> modifiedResidues;
+  private final List<PdbRemark465Line> missingResidues;
+  private final String title;
+  private final Set<PdbResidueIdentifier> chainTerminatedAfter;
+
+  private final ColumnarAtoms columns;
+  private final List<PdbAtomLine> atoms;
+  private final List<PdbResidue> residues = new ResidueList();
+  private final List<PdbChain> chains = new ChainList();
+
+  private volatile Boundaries boundaries;
+
+  private ColumnarPdbModel(
+      final PdbHeaderLine header,
+      final PdbExpdtaLine experimentalData,
+      final PdbRemark2Line resolution,
+      final int modelNumber,
+      final ColumnarAtoms columns,
+      final List<PdbModresLine> modifiedResidues,
+      final List<PdbRemark465Line> missingResidues,
+      final String title,
+      final Set<PdbResidueIdentifier> chainTerminatedAfter) {
+    super();
+    Validate.notEmpty(columns);
+
+    this.header = header;
+    this.experimentalData = experimentalData;
+    this.resolution = resolution;
+    this.modelNumber = modelNumber;
+    this.modifiedResidues = List.copyOf(modifiedResidues);
+    this.missingResidues =
+        missingResidues.stream()
+            .filter(missing -> missing.modelNumber() == modelNumber)
+            .collect(Collectors.toUnmodifiableList());
+    this.title = title;
+    this.chainTerminatedAfter = Collections.unmodifiableSet(new HashSet<>(chainTerminatedAfter));
+
+    columns.trimToSize();
+    this.columns = columns;
+    atoms = Collections.unmodifiableList(columns);
+  }
+
+  /**
+   * Creates a columnar copy of another structure.
+   *
+   * @param model A structure with at least one atom.
+   * @return A structure with the same content, but stored in columns.
+   */
+  public static ColumnarPdbModel of(final PdbModel model) {
+    if (model instanceof ColumnarPdbModel) {
+      return (ColumnarPdbModel) model;
+    }
+    return new ColumnarPdbModel(
+        model.header(),
+        model.experimentalData(),
+        model.resolution(),
+        model.modelNumber(),
+        ColumnarPdbModel.toColumns(model.atoms()),
+        model.modifiedResidues(),
+        model.missingResidues(),
+        model.title(),
+        model.chainTerminatedAfter());
+  }
+
+  /**
+   * Creates a structure of atoms already stored in columns (e.g. by a parser). The columns are
+   * owned by the new instance afterwards and must not be modified.
+   *
+   * @param header The HEADER line.
+   * @param experimentalData The EXPDTA line.
+   * @param resolution The REMARK 2 line with resolution.
+   * @param modelNumber The number of the model.
+   * @param columns A non-empty list of atoms stored in columns.
+   * @param modifiedResidues The list of MODRES lines.
+   * @param missingResidues The list of REMARK 465 lines (of any model).
+   * @param title The title.
+   * @param chainTerminatedAfter The residues after which a TER line was found.
+   * @return A structure with the given content.
+   */
+  static ColumnarPdbModel of(
+      final PdbHeaderLine header,
+      final PdbExpdtaLine experimentalData,
+      final PdbRemark2Line resolution,
+      final int modelNumber,
+      final ColumnarAtoms columns,
+      final List<PdbModresLine> modifiedResidues,
+      final List<PdbRemark465Line> missingResidues,
+      final String title,
+      final Set<PdbResidueIdentifier> chainTerminatedAfter) {
+    return new ColumnarPdbModel(
+        header,
+        experimentalData,
+        resolution,
+        modelNumber,
+        columns,
+        modifiedResidues,
+        missingResidues,
+        title,
+        chainTerminatedAfter);
+  }
+
+  @Override
+  public PdbHeaderLine header() {
+    return header;
+  }
+
+  @Override
+  public PdbExpdtaLine experimentalData() {
+    return experimentalData;
+  }
+
+  @Override
+  public PdbRemark2Line resolution() {
+    return resolution;
+  }
+
+  @Override
+  public int modelNumber() {
+    return modelNumber;
+  }
+
+  /**
+   * @return An unmodifiable view of atoms, which creates each {@link PdbAtomLine} when accessed.
+   */
+  @Override
+  public List<PdbAtomLine> atoms() {
+    return atoms;
+  }
+
+  @Override
+  public List<PdbModresLine> modifiedResidues() {
+    return modifiedResidues;
+  }
+
+  @Override
+  public List<PdbRemark465Line> missingResidues() {
+    return missingResidues;
+  }
+
+  @Override
+  public String title() {
+    return title;
+  }
+
+  @Override
+  public Set<PdbResidueIdentifier> chainTerminatedAfter() {
+    return chainTerminatedAfter;
+  }
+
+  @Override
+  public PdbModel filteredNewInstance(final MoleculeType moleculeType) {
+    return new ColumnarPdbModel(
+        header,
+        experimentalData,
+        resolution,
+        modelNumber,
+        ColumnarPdbModel.toColumns(filteredAtoms(moleculeType)),
+        modifiedResidues,
+        filteredMissing(moleculeType),
+        title,
+        chainTerminatedAfter);
+  }
+
+  /**
+   * @return An unmodifiable view of residues. Accessing a residue, which is not among the few
+   *     recently accessed ones, decodes its atoms from the columns and creates a new {@link
+   *     PdbResidue}, so the cost is proportional to the number of its atoms. Only the ranges of
+   *     atom rows of each residue are remembered.
+   */
+  @Override
+  public List<PdbResidue> residues() {
+    return residues;
+  }
+
+  /**
+   * @return An unmodifiable view of chains, which creates each {@link PdbChain} when accessed. Only
+   *     the ranges of residues of each chain are remembered.
+   */
+  @Override
+  public List<PdbChain> chains() {
+    return chains;
+  }
+
+  @Override
+  ResidueIndex residueIndex() {
+    return boundaries().residueIndex;
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The x coordinate of the atom (without creating a {@link PdbAtomLine}).
+   */
+  public double x(final int index) {
+    return columns.x(index);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The y coordinate of the atom (without creating a {@link PdbAtomLine}).
+   */
+  public double y(final int index) {
+    return columns.y(index);
+  }
+
+  /**
+   * @param index An index of an atom.
+   * @return The z coordinate of the atom (without creating a {@link PdbAtomLine}).
+   */
+  public double z(final int index) {
+    return columns.z(index);
+  }
+
+  /** Two instances are equal if they have equal atoms, as in {@link DefaultPdbModel}. */
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ColumnarPdbModel)) {
+      return false;
+    }
+    return atoms.equals(((ColumnarPdbModel) o).atoms);
+  }
+
+  @Override
+  public int hashCode() {
+    return atoms.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnarPdbModel{modelNumber=" + modelNumber + ", atoms=" + columns.size() + '}';
+  }
+
+  private Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  private void readObject(final ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Instances are deserialized from SerializedForm");
+  }
+
+  private static ColumnarAtoms toColumns(final Iterable<PdbAtomLine> atoms) {
+    final ColumnarAtoms columns = new ColumnarAtoms();
+    atoms.forEach(columns::add);
+    return columns;
+  }
+
+  private Boundaries boundaries() {
+    Boundaries result = boundaries;
+    if (result == null) {
+      synchronized (this) {
+        result = boundaries;
+        if (result == null) {
+          result = new Boundaries();
+          boundaries = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static int row(final int[] rowOrder, final int position) {
+    return (rowOrder == null) ? position : rowOrder[position];
+  }
+
+  /**
+   * Ranges of atom rows of each residue and ranges of residues of each chain. They are detected
+   * from the columns with the same rules as in {@link AbstractPdbModel#residues()} and {@link
+   * AbstractPdbModel#chains()}, but without creating all atoms and residues at once.
+   */
+  private final class Boundaries {
+    // residue i holds rows [rowBegins[i], rowEnds[i]) or, if not null, rows listed in the same
+    // range of rowOrder (when atoms of a residue are not adjacent)
+    private final int[] rowBegins;
+    private final int[] rowEnds;
+    private final int[] rowOrder;
+    // residues without atoms, known only from REMARK 465 lines
+    private final Map<Integer, PdbResidue> missing = new HashMap<>();
+    // chain i holds residues [chainBegins[i], chainBegins[i + 1])
+    private final int[] chainBegins;
+    private final String[] chainIdentifiers;
+    private final ResidueIndex residueIndex;
+    private final CachedResidue[] cache = new CachedResidue[ColumnarPdbModel.RESIDUE_CACHE_SIZE];
+
+    private Boundaries() {
+      super();
+      final int size = columns.size();
+
+      // group atoms by common (chain, number, icode), usually adjacent to each other
+      final Map<PdbResidueIdentifier, Integer> groupIndices = new HashMap<>();
+      final List<PdbResidueIdentifier> groupIdentifiers = new ArrayList<>();
+      final int[] groupOfRow = new int[size];
+      int runCount = 0;
+      for (int i = 0; i < size; i++) {
+        if ((i > 0) && columns.isSameResidue(i, i - 1)) {
+          groupOfRow[i] = groupOfRow[i - 1];
+          continue;
+        }
+
+        runCount += 1;
+        final PdbResidueIdentifier identifier = columns.residueIdentifier(i);
+        Integer group = groupIndices.get(identifier);
+        if (group == null) {
+          group = groupIdentifiers.size();
+          groupIndices.put(identifier, group);
+          groupIdentifiers.add(identifier);
+        }
+        groupOfRow[i] = group;
+      }
+
+      // group g holds positions [groupBegins[g], groupBegins[g + 1]) in rowOrder
+      final int groupCount = groupIdentifiers.size();
+      final int[] groupBegins = new int[groupCount + 1];
+      for (final int group : groupOfRow) {
+        groupBegins[group + 1] += 1;
+      }
+      for (int g = 0; g < groupCount; g++) {
+        groupBegins[g + 1] += groupBegins[g];
+      }
+      if (runCount == groupCount) {
+        rowOrder = null;
+      } else {
+        rowOrder = new int[size];
+        final int[] positions = Arrays.copyOf(groupBegins, groupCount);
+        for (int i = 0; i < size; i++) {
+          rowOrder[positions[groupOfRow[i]]++] = i;
+        }
+      }
+
+      // leave only groups detected as nucleotides or amino acids
+      final List<ChainNumberICode> entries = new ArrayList<>();
+      for (int g = 0; g < groupCount; g++) {
+        final Collection<AtomName> atomNames = EnumSet.noneOf(AtomName.class);
+        for (int position = groupBegins[g]; position < groupBegins[g + 1]; position++) {
+          atomNames.add(columns.atomName(ColumnarPdbModel.row(rowOrder, position)));
+        }
+
+        final PdbResidueIdentifier identifier = groupIdentifiers.get(g);
+        final String residueName =
+            columns.residueName(ColumnarPdbModel.row(rowOrder, groupBegins[g]));
+        final MoleculeType moleculeType =
+            ResidueTypeDetector.detectResidueType(
+                    modifiedResidueName(identifier, residueName), AtomNameSet.copyOf(atomNames))
+                .moleculeType();
+        if (moleculeType != MoleculeType.UNKNOWN) {
+          entries.add(identifier);
+        }
+      }
+
+      // add residues known only from headers
+      final Collection<ChainNumberICode> existingIdentifiers = new HashSet<>(entries);
+      missingResidues.stream()
+          .filter(missingResidue -> missingResidue.modelNumber() == modelNumber)
+          .filter(
+              missingResidue ->
+                  !existingIdentifiers.contains(PdbResidueIdentifier.from(missingResidue)))
+          .map(PdbRemark465Line::toResidue)
+          .forEach(entries::add);
+
+      // maintain chain order from the input file, within a chain go back to
+      // ChainNumberICode::compareTo to put missing residues in correct places
+      final Map<String, Integer> chainOrder = new HashMap<>();
+      groupIdentifiers.forEach(
+          identifier -> chainOrder.putIfAbsent(identifier.chainIdentifier(), chainOrder.size()));
+      entries.sort(
+          (t, t1) -> {
+            if (t.chainIdentifier().equals(t1.chainIdentifier())) return t.compareTo(t1);
+            return Integer.compare(
+                chainOrder.getOrDefault(t.chainIdentifier(), -1),
+                chainOrder.getOrDefault(t1.chainIdentifier(), -1));
+          });
+
+      final int residueCount = entries.size();
+      rowBegins = new int[residueCount];
+      rowEnds = new int[residueCount];
+      for (int i = 0; i < residueCount; i++) {
+        final ChainNumberICode entry = entries.get(i);
+        if (entry instanceof PdbResidue) {
+          missing.put(i, (PdbResidue) entry);
+        } else {
+          final int group = groupIndices.get(entry);
+          rowBegins[i] = groupBegins[group];
+          rowEnds[i] = groupBegins[group + 1];
+        }
+      }
+      residueIndex = new ResidueIndex(residues, entries);
+
+      // only two adjacent residues are created at a time to detect chains
+      chainBegins =
+          chainBegins(
+              new AbstractList<PdbResidue>() {
+                @Override
+                public PdbResidue get(final int index) {
+                  return residue(index);
+                }
+
+                @Override
+                public int size() {
+                  return residueCount;
+                }
+              });
+      chainIdentifiers = new String[chainBegins.length - 1];
+      for (int i = 0; i < chainIdentifiers.length; i++) {
+        chainIdentifiers[i] = entries.get(chainBegins[i]).chainIdentifier();
+      }
+    }
+
+    private PdbResidue residue(final int index) {
+      final PdbResidue missingResidue = missing.get(index);
+      if (missingResidue != null) {
+        return missingResidue;
+      }
+
+      final int slot = index % ColumnarPdbModel.RESIDUE_CACHE_SIZE;
+      final CachedResidue cached = cache[slot];
+      if ((cached != null) && (cached.index == index)) {
+        return cached.residue;
+      }
+
+      final int begin = rowBegins[index];
+      final int end = rowEnds[index];
+      final List<PdbAtomLine> residueAtoms =
+          (rowOrder == null)
+              ? atoms.subList(begin, end)
+              : Arrays.stream(rowOrder, begin, end)
+                  .mapToObj(columns::get)
+                  .collect(Collectors.toList());
+      final PdbResidue residue = atomGroupToResidue(residueAtoms);
+      cache[slot] = new CachedResidue(index, residue);
+      return residue;
+    }
+  }
+
+  /** A residue remembered together with its index. It is immutable, so it may be shared freely. */
+  private static final class CachedResidue {
+    private final int index;
+    private final PdbResidue residue;
+
+    private CachedResidue(final int index, final PdbResidue residue) {
+      super();
+      this.index = index;
+      this.residue = residue;
+    }
+  }
+
+  /** The serialized form of a structure: its columns and header records, without derived state. */
+  private static final class SerializedForm implements Serializable {
+    private final PdbHeaderLine header;
+    private final PdbExpdtaLine experimentalData;
+    private final PdbRemark2Line resolution;
+    private final int modelNumber;
+    private final ColumnarAtoms columns;
+    private final List<PdbModresLine> modifiedResidues;
+    private final List<PdbRemark465Line> missingResidues;
+    private final String title;
+    private final Set<PdbResidueIdentifier> chainTerminatedAfter;
+
+    private SerializedForm(final ColumnarPdbModel model) {
+      super();
+      header = model.header;
+      experimentalData = model.experimentalData;
+      resolution = model.resolution;
+      modelNumber = model.modelNumber;
+      columns = model.columns;
+      modifiedResidues = new ArrayList<>(model.modifiedResidues);
+      missingResidues = new ArrayList<>(model.missingResidues);
+      title = model.title;
+      chainTerminatedAfter = new HashSet<>(model.chainTerminatedAfter);
+    }
+
+    private Object readResolve() {
+      return new ColumnarPdbModel(
+          header,
+          experimentalData,
+          resolution,
+          modelNumber,
+          columns,
+          modifiedResidues,
+          missingResidues,
+          title,
+          chainTerminatedAfter);
+    }
+  }
+
+  private final class ResidueList extends AbstractList<PdbResidue> implements RandomAccess {
+    @Override
+    public PdbResidue get(final int index) {
+      Objects.checkIndex(index, size());
+      return boundaries().residue(index);
+    }
+
+    @Override
+    public int size() {
+      return boundaries().rowBegins.length;
+    }
+  }
+
+  private final class ChainList extends AbstractList<PdbChain> implements RandomAccess {
+    @Override
+    public PdbChain get(final int index) {
+      Objects.checkIndex(index, size());
+      final Boundaries bounds = boundaries();
+      return ImmutablePdbChain.of(
+          bounds.chainIdentifiers[index],
+          residues.subList(bounds.chainBegins[index], bounds.chainBegins[index + 1]));
+    }
+
+    @Override
+    public int size() {
+      return boundaries().chainIdentifiers.length;
+    }
+  }
+}
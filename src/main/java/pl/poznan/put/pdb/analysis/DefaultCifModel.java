@@ -93,6 +93,12 @@ public abstract class DefaultCifModel extends AbstractPdbModel implements CifMod
     return super.residues();
   }
 
+  @Override
+  @Value.Lazy
+  ResidueIndex residueIndex() {
+    return new ResidueIndex(residues());
+  }
+
   @Value.Check
   public DefaultCifModel normalize() {
     Validate.notEmpty(atoms());
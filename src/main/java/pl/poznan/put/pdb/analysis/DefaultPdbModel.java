@@ -112,6 +112,12 @@ public abstract class DefaultPdbModel extends AbstractPdbModel {
     return super.residues();
   }
 
+  @Override
+  @Value.Lazy
+  ResidueIndex residueIndex() {
+    return new ResidueIndex(residues());
+  }
+
   @Value.Check
   protected DefaultPdbModel normalize() {
     Validate.notEmpty(atoms());
@@ -1,9 +1,12 @@
 package pl.poznan.put.pdb.analysis;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.PdbAtomLine;
 import pl.poznan.put.pdb.PdbResidueIdentifier;
 
@@ -35,7 +38,33 @@ public abstract class DefaultPdbResidue implements PdbResidue {
   @Override
   @Value.Lazy
   public Set<AtomName> atomNames() {
-    return PdbResidue.super.atomNames();
+    return AtomNameSet.copyOf(atomIndex().keySet());
+  }
+
+  @Override
+  public PdbAtomLine findAtom(final AtomName atomName) {
+    final PdbAtomLine atom = atomIndex().get(atomName);
+    if (atom == null) {
+      throw new IllegalArgumentException("Failed to find: " + atomName);
+    }
+    return atom;
+  }
+
+  @Override
+  public boolean hasAtom(final AtomName atomName) {
+    return atomIndex().containsKey(atomName);
+  }
+
+  /**
+   * @return A mapping of atom names to atoms (the first one, if a name is repeated).
+   */
+  @Value.Lazy
+  Map<AtomName, PdbAtomLine> atomIndex() {
+    final Map<AtomName, PdbAtomLine> index = new EnumMap<>(AtomName.class);
+    for (final PdbAtomLine atom : atoms()) {
+      index.putIfAbsent(atom.detectAtomName(), atom);
+    }
+    return index;
   }
 
   @Override
@@ -2,6 +2,7 @@ package pl.poznan.put.pdb.analysis;
 
 import java.util.List;
 import org.immutables.value.Value;
+import pl.poznan.put.pdb.ChainNumberICode;
 
 /** A container for a list of residues. */
 @Value.Immutable
@@ -9,4 +10,24 @@ public abstract class DefaultResidueCollection implements ResidueCollection {
   @Override
   @Value.Parameter(order = 1)
   public abstract List<PdbResidue> residues();
+
+  @Override
+  public boolean hasResidue(final ChainNumberICode query) {
+    return residueIndex().contains(query);
+  }
+
+  @Override
+  public PdbResidue findResidue(final ChainNumberICode query) {
+    return residueIndex().find(query);
+  }
+
+  @Override
+  public int indexOf(final ChainNumberICode query) {
+    return residueIndex().indexOf(query);
+  }
+
+  @Value.Lazy
+  ResidueIndex residueIndex() {
+    return new ResidueIndex(residues());
+  }
 }
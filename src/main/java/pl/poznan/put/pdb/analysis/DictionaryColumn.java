@@ -0,0 +1,88 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A column of text values stored as 16-bit codes into a dictionary of distinct values. Atom,
+ * residue and chain names repeat a lot, so the dictionary stays small. A missing value (null) is a
+ * regular dictionary entry. Values are appended one by one, so the column may be filled straight
+ * from a parser.
+ */
+final class DictionaryColumn implements Serializable {
+  private final List<String> values = new ArrayList<>();
+  // Optional is not serializable, so the list is restored from values
+  private transient List<Optional<String>> optionalValues = new ArrayList<>();
+  private final Map<String, Character> dictionary = new HashMap<>();
+  private char[] codes = new char[16];
+  private int size;
+
+  /**
+   * Appends a value to the column.
+   *
+   * @param value A value (possibly null).
+   */
+  void add(final String value) {
+    Character code = dictionary.get(value);
+    if (code == null) {
+      if (values.size() > Character.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many distinct values in a column");
+      }
+      code = (char) values.size();
+      dictionary.put(value, code);
+      values.add(value);
+      optionalValues.add(Optional.ofNullable(value));
+    }
+
+    if (size == codes.length) {
+      codes = Arrays.copyOf(codes, size * 2);
+    }
+    codes[size++] = code;
+  }
+
+  /** Releases the spare capacity left after appending values. */
+  void trimToSize() {
+    codes = Arrays.copyOf(codes, size);
+  }
+
+  /**
+   * @param index An index of a row.
+   * @return The value in the row (possibly null).
+   */
+  String get(final int index) {
+    return values.get(codes[index]);
+  }
+
+  /**
+   * @param index An index of a row.
+   * @return The value in the row, if present. The instance is shared by all equal values.
+   */
+  Optional<String> getOptional(final int index) {
+    return optionalValues.get(codes[index]);
+  }
+
+  /**
+   * @param index An index of a row.
+   * @param other An index of another row.
+   * @return True if both rows hold equal values.
+   */
+  boolean isSame(final int index, final int other) {
+    return codes[index] == codes[other];
+  }
+
+  private void readObject(final ObjectInputStream stream)
+      throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    optionalValues = new ArrayList<>(values.size());
+    for (final String value : values) {
+      optionalValues.add(Optional.ofNullable(value));
+    }
+  }
+}
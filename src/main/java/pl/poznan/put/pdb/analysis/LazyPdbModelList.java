@@ -0,0 +1,41 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * An unmodifiable list of models, in which each model is decoded only when it is accessed for the
+ * first time. Decoded models are remembered, so every subsequent access is cheap.
+ */
+final class LazyPdbModelList extends AbstractList<PdbModel> implements RandomAccess {
+  private final PdbModel[] models;
+  private final IntFunction<PdbModel> decoder;
+
+  /**
+   * Creates a list of a fixed size.
+   *
+   * @param size The number of models.
+   * @param decoder A function which decodes the model at the given index.
+   */
+  LazyPdbModelList(final int size, final IntFunction<PdbModel> decoder) {
+    super();
+    models = new PdbModel[size];
+    this.decoder = decoder;
+  }
+
+  @Override
+  public synchronized PdbModel get(final int index) {
+    Objects.checkIndex(index, models.length);
+    if (models[index] == null) {
+      models[index] = decoder.apply(index);
+    }
+    return models[index];
+  }
+
+  @Override
+  public int size() {
+    return models.length;
+  }
+}
@@ -5,7 +5,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.immutables.value.Value;
 import pl.poznan.put.pdb.PdbResidueIdentifier;
 import pl.poznan.put.torsion.TorsionAngleType;
@@ -75,9 +74,6 @@ public abstract class PdbCompactFragment implements SingleTypedResidueCollection
 
   @Value.Lazy
   protected List<ResidueTorsionAngles> angleValues() {
-    return IntStream.range(0, residues().size())
-        .boxed()
-        .map(i -> ResidueTorsionAngles.calculate(residues(), i))
-        .collect(Collectors.toList());
+    return TorsionAngleCalculator.calculate(this);
   }
 }
@@ -0,0 +1,103 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.pdb.PdbParsingException;
+import pl.poznan.put.pdb.PdbResidueIdentifier;
+
+/** Atoms and chain terminations of a single model, collected from ATOM, HETATM and TER lines. */
+final class PdbModelAtoms {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PdbModelAtoms.class);
+
+  private final List<PdbAtomLine> atoms;
+  private final Collection<PdbResidueIdentifier> processedIdentifiers = new HashSet<>();
+  private final Set<PdbResidueIdentifier> chainTerminatedAfter = new HashSet<>();
+  private final boolean strictMode;
+
+  private Optional<PdbResidueIdentifier> currentIdentifier = Optional.empty();
+
+  /**
+   * Creates an empty collection of atoms.
+   *
+   * @param strictMode If false, then some of the checks on PDB format conformity are relaxed.
+   */
+  PdbModelAtoms(final boolean strictMode) {
+    this(strictMode, new ArrayList<>());
+  }
+
+  /**
+   * Creates a collection of atoms, which stores them in the given list (e.g. in {@link
+   * ColumnarAtoms}).
+   *
+   * @param strictMode If false, then some of the checks on PDB format conformity are relaxed.
+   * @param atoms An empty list, to which atoms will be added.
+   */
+  PdbModelAtoms(final boolean strictMode, final List<PdbAtomLine> atoms) {
+    super();
+    this.strictMode = strictMode;
+    this.atoms = atoms;
+  }
+
+  /**
+   * Parses an ATOM or HETATM line and stores the atom.
+   *
+   * @param line A line in PDB format.
+   */
+  void handleAtomLine(final String line) {
+    try {
+      final PdbAtomLine atomLine = PdbAtomLine.parse(line, strictMode);
+      final PdbResidueIdentifier identifier = PdbResidueIdentifier.from(atomLine);
+
+      if (processedIdentifiers.contains(identifier)) {
+        PdbModelAtoms.LOGGER.warn("Duplicate residue, ignoring it: {}", identifier);
+        return;
+      }
+
+      if (currentIdentifier.isPresent() && !identifier.equals(currentIdentifier.get())) {
+        processedIdentifiers.add(currentIdentifier.get());
+        currentIdentifier = Optional.of(identifier);
+      }
+
+      atoms.add(atomLine);
+    } catch (final PdbParsingException e) {
+      PdbModelAtoms.LOGGER.warn("Invalid ATOM line: {}", line, e);
+    }
+  }
+
+  /** Marks the residue of the most recently stored atom as the last one in its chain. */
+  void handleTerLine() {
+    if (atoms.isEmpty()) {
+      PdbModelAtoms.LOGGER.warn("TER line without any preceding atom, ignoring it");
+      return;
+    }
+    chainTerminatedAfter.add(PdbResidueIdentifier.from(atoms.get(atoms.size() - 1)));
+  }
+
+  /**
+   * @return True if no atom was stored.
+   */
+  boolean isEmpty() {
+    return atoms.isEmpty();
+  }
+
+  /**
+   * @return The list of stored atoms.
+   */
+  List<PdbAtomLine> atoms() {
+    return atoms;
+  }
+
+  /**
+   * @return The set of residues, after which the chain was terminated.
+   */
+  Set<PdbResidueIdentifier> chainTerminatedAfter() {
+    return chainTerminatedAfter;
+  }
+}
@@ -1,5 +1,14 @@
 package pl.poznan.put.pdb.analysis;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -8,7 +17,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
@@ -26,29 +34,17 @@ import pl.poznan.put.pdb.PdbModresLine;
 import pl.poznan.put.pdb.PdbParsingException;
 import pl.poznan.put.pdb.PdbRemark2Line;
 import pl.poznan.put.pdb.PdbRemark465Line;
-import pl.poznan.put.pdb.PdbResidueIdentifier;
 import pl.poznan.put.pdb.PdbTitleLine;
 
-/** A parser of PDB format. */
+/**
+ * A parser of PDB format. The parser keeps no state between calls, so a single instance may be
+ * shared and used concurrently by many threads.
+ */
 public class PdbParser {
   private static final Logger LOGGER = LoggerFactory.getLogger(PdbParser.class);
 
-  private final List<PdbModresLine> modifiedResidues = new ArrayList<>();
-  private final List<PdbRemark465Line> missingResidues = new ArrayList<>();
-  private final Collection<PdbResidueIdentifier> processedIdentifiers = new HashSet<>();
-  private final Set<PdbResidueIdentifier> chainTerminatedAfter = new HashSet<>();
-  private final Collection<Integer> endedModelNumbers = new HashSet<>();
-  private final Map<Integer, List<PdbAtomLine>> modelAtoms = new TreeMap<>();
-  private final Collection<PdbTitleLine> titleLines = new ArrayList<>();
-
   private final boolean strictMode;
 
-  private Optional<PdbHeaderLine> headerLine = Optional.empty();
-  private Optional<PdbExpdtaLine> experimentalDataLine = Optional.empty();
-  private Optional<PdbRemark2Line> resolutionLine = Optional.empty();
-  private Optional<PdbResidueIdentifier> currentIdentifier = Optional.empty();
-  private int currentModelNumber;
-
   /**
    * Creates an instance with the possibility to set {@code strictMode}.
    *
@@ -71,22 +67,309 @@ public class PdbParser {
    * @param structureContent A string containing data in PDB format.
    * @return An object representing the parsed data.
    */
-  public final synchronized List<PdbModel> parse(final String structureContent) {
-    resetState();
+  public final List<PdbModel> parse(final String structureContent) {
+    try {
+      return parse(new StringReader(structureContent));
+    } catch (final IOException e) {
+      // StringReader never throws on read
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parses a file in PDB format. The file may be compressed with gzip (see {@link
+   * StructureFiles#open(Path)}). It is read line by line, so its whole content is never kept in
+   * memory at once.
+   *
+   * @param path Path to a file in PDB format.
+   * @return An object representing the parsed data.
+   * @throws IOException When reading of the file fails.
+   */
+  public final List<PdbModel> parse(final Path path) throws IOException {
+    try (final InputStream stream = StructureFiles.open(path)) {
+      return parse(stream);
+    }
+  }
+
+  /**
+   * Parses a stream of data in PDB format. The stream is decoded as UTF-8 and read line by line. It
+   * is not closed by this method.
+   *
+   * @param stream A stream with data in PDB format.
+   * @return An object representing the parsed data.
+   * @throws IOException When reading from the stream fails.
+   */
+  public final List<PdbModel> parse(final InputStream stream) throws IOException {
+    return parse(new InputStreamReader(stream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parses a character stream in PDB format. The reader is consumed line by line and it is not
+   * closed by this method.
+   *
+   * @param reader A reader with data in PDB format.
+   * @return An object representing the parsed data.
+   * @throws IOException When reading from the reader fails.
+   */
+  public final List<PdbModel> parse(final Reader reader) throws IOException {
+    return read(reader, new State(strictMode));
+  }
+
+  /**
+   * Parses a string in PDB format into memory-efficient models (see {@link ColumnarPdbModel}).
+   *
+   * @param structureContent A string containing data in PDB format.
+   * @return A list of models with atoms stored in columns.
+   */
+  public final List<ColumnarPdbModel> parseColumnar(final String structureContent) {
+    try {
+      return parseColumnar(new StringReader(structureContent));
+    } catch (final IOException e) {
+      // StringReader never throws on read
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parses a file in PDB format into memory-efficient models (see {@link ColumnarPdbModel}). The
+   * file may be compressed with gzip (see {@link StructureFiles#open(Path)}).
+   *
+   * @param path Path to a file in PDB format.
+   * @return A list of models with atoms stored in columns.
+   * @throws IOException When reading of the file fails.
+   */
+  public final List<ColumnarPdbModel> parseColumnar(final Path path) throws IOException {
+    try (final InputStream stream = StructureFiles.open(path)) {
+      return parseColumnar(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Parses a character stream in PDB format into memory-efficient models (see {@link
+   * ColumnarPdbModel}). Each atom is decomposed into columns as soon as its line is read, so a list
+   * of all {@link PdbAtomLine} objects is never built. The reader is not closed by this method.
+   *
+   * @param reader A reader with data in PDB format.
+   * @return A list of models with atoms stored in columns.
+   * @throws IOException When reading from the reader fails.
+   */
+  public final List<ColumnarPdbModel> parseColumnar(final Reader reader) throws IOException {
+    return read(reader, new State(strictMode, true)).stream()
+        .map(ColumnarPdbModel.class::cast)
+        .collect(Collectors.toList());
+  }
+
+  private static List<PdbModel> read(final Reader reader, final State state) throws IOException {
+    final BufferedReader bufferedReader =
+        (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      state.handleLine(line);
+    }
+
+    return state.buildModels();
+  }
+
+  /**
+   * Parses a string in PDB format, but postpones decoding of atoms. A cheap first scan handles only
+   * the header records and remembers where each model starts and ends. Atoms of a model are decoded
+   * when the model is accessed in the returned list for the first time. This makes reading just the
+   * first model of a multi-model (e.g. NMR) entry several times faster.
+   *
+   * @param structureContent A string containing data in PDB format.
+   * @return An unmodifiable list of models decoded on first access.
+   */
+  public final List<PdbModel> parseLazily(final String structureContent) {
+    return new State(strictMode).scanModels(structureContent);
+  }
+
+  /**
+   * Parses a file in PDB format lazily (see {@link #parseLazily(String)}). An uncompressed file is
+   * memory-mapped, the first scan records byte offsets of every model and atoms of a model are
+   * later decoded straight from the mapping. A file compressed with gzip is inflated in memory
+   * first. In both cases, the content is decoded as UTF-8, just like in {@link #parse(Path)}.
+   *
+   * @param path Path to a file in PDB format.
+   * @return An unmodifiable list of models decoded on first access.
+   * @throws IOException When reading of the file fails.
+   */
+  public final List<PdbModel> parseLazily(final Path path) throws IOException {
+    return new State(strictMode).scanModels(StructureFiles.read(path));
+  }
+
+  private static PdbModelAtoms decodeAtoms(
+      final CharSequence content, final int from, final int to, final boolean strictMode) {
+    final PdbModelAtoms atoms = new PdbModelAtoms(strictMode);
+
+    for (int begin = from; begin < to; ) {
+      final int end = PdbParser.lineEnd(content, begin);
+
+      if (PdbParser.startsWith(content, begin, end, "MODEL")) {
+        // the MODEL line was already handled in the first scan
+      } else if (PdbParser.startsWith(content, begin, end, "ATOM")
+          || PdbParser.startsWith(content, begin, end, "HETATM")) {
+        atoms.handleAtomLine(PdbParser.line(content, begin, end));
+      } else if (PdbParser.startsWith(content, begin, end, "TER   ")) {
+        atoms.handleTerLine();
+      }
+
+      begin = end + 1;
+    }
+
+    return atoms;
+  }
+
+  private static int lineEnd(final CharSequence content, final int begin) {
+    for (int i = begin, length = content.length(); i < length; i++) {
+      if (content.charAt(i) == '\n') {
+        return i;
+      }
+    }
+    return content.length();
+  }
 
-    for (final String line : structureContent.split("\n")) {
+  private static boolean startsWith(
+      final CharSequence content, final int begin, final int end, final String prefix) {
+    if (end - begin < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (content.charAt(begin + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String line(final CharSequence content, final int begin, final int end) {
+    final int trimmedEnd = ((end > begin) && (content.charAt(end - 1) == '\r')) ? end - 1 : end;
+    return content.subSequence(begin, trimmedEnd).toString();
+  }
+
+  /** The mutable state of a single parsing call. */
+  private static final class State {
+    private final List<PdbModresLine> modifiedResidues = new ArrayList<>();
+    private final List<PdbRemark465Line> missingResidues = new ArrayList<>();
+    private final Collection<Integer> endedModelNumbers = new HashSet<>();
+    private final Map<Integer, PdbModelAtoms> modelAtoms = new TreeMap<>();
+    private final Collection<PdbTitleLine> titleLines = new ArrayList<>();
+
+    private final boolean strictMode;
+    private final boolean columnar;
+
+    private Optional<PdbHeaderLine> headerLine = Optional.empty();
+    private Optional<PdbExpdtaLine> experimentalDataLine = Optional.empty();
+    private Optional<PdbRemark2Line> resolutionLine = Optional.empty();
+    private PdbModelAtoms currentModelAtoms;
+    private int currentModelNumber;
+
+    private State(final boolean strictMode) {
+      this(strictMode, false);
+    }
+
+    private State(final boolean strictMode, final boolean columnar) {
+      super();
+      this.strictMode = strictMode;
+      this.columnar = columnar;
+      currentModelAtoms = newModelAtoms();
+    }
+
+    private PdbModelAtoms newModelAtoms() {
+      return columnar
+          ? new PdbModelAtoms(strictMode, new ColumnarAtoms())
+          : new PdbModelAtoms(strictMode);
+    }
+
+    private List<PdbModel> scanModels(final CharSequence content) {
+      // model number -> range of offsets [begin, end) in the content
+      final Map<Integer, int[]> modelRanges = new TreeMap<>();
+      int modelBegin = 0;
+      boolean hasAtoms = false;
+
+      for (int begin = 0, length = content.length(); begin < length; ) {
+        final int end = PdbParser.lineEnd(content, begin);
+
+        if (PdbParser.startsWith(content, begin, end, "MODEL")) {
+          if (hasAtoms) {
+            modelRanges.put(currentModelNumber, new int[] {modelBegin, begin});
+          }
+          currentModelNumber = nextModelNumber(PdbParser.line(content, begin, end));
+          modelBegin = begin;
+          hasAtoms = false;
+        } else if (PdbParser.startsWith(content, begin, end, "ATOM")
+            || PdbParser.startsWith(content, begin, end, "HETATM")) {
+          // a model is kept only if at least one of its atoms is valid, just like in parse()
+          hasAtoms = hasAtoms || isValidAtomLine(PdbParser.line(content, begin, end));
+        } else if (!PdbParser.startsWith(content, begin, end, "TER   ")) {
+          handleHeaderLine(PdbParser.line(content, begin, end));
+        }
+
+        begin = end + 1;
+      }
+
+      if (hasAtoms) {
+        modelRanges.put(currentModelNumber, new int[] {modelBegin, content.length()});
+      }
+
+      final PdbHeaderLine header =
+          headerLine.orElse(ImmutablePdbHeaderLine.of("", new Date(0L), ""));
+      final PdbExpdtaLine experimentalData =
+          experimentalDataLine.orElse(ImmutablePdbExpdtaLine.of(Collections.emptyList()));
+      final PdbRemark2Line resolution =
+          resolutionLine.orElse(ImmutablePdbRemark2Line.of(Double.NaN));
+      final String title =
+          titleLines.stream().map(PdbTitleLine::title).collect(Collectors.joining());
+      final List<Map.Entry<Integer, int[]>> entries = new ArrayList<>(modelRanges.entrySet());
+
+      return new LazyPdbModelList(
+          entries.size(),
+          index -> {
+            final int modelNumber = entries.get(index).getKey();
+            final int[] range = entries.get(index).getValue();
+            final PdbModelAtoms atoms =
+                PdbParser.decodeAtoms(content, range[0], range[1], strictMode);
+            return ImmutableDefaultPdbModel.of(
+                header,
+                experimentalData,
+                resolution,
+                modelNumber,
+                atoms.atoms(),
+                modifiedResidues,
+                missingResidues,
+                title,
+                atoms.chainTerminatedAfter());
+          });
+    }
+
+    private boolean isValidAtomLine(final String line) {
+      try {
+        PdbAtomLine.parse(line, strictMode);
+        return true;
+      } catch (final PdbParsingException e) {
+        // the warning is logged when the model is decoded
+        return false;
+      }
+    }
+
+    private void handleLine(final String line) {
       if (line.startsWith("MODEL")) {
         handleModelLine(line);
       } else if (line.startsWith("ATOM") || line.startsWith("HETATM")) {
         handleAtomLine(line);
       } else if (line.startsWith("TER   ")) {
-        handleTerLine();
-      } else if (line.startsWith("REMARK 465")) {
+        currentModelAtoms.handleTerLine();
+      } else {
+        handleHeaderLine(line);
+      }
+    }
+
+    private void handleHeaderLine(final String line) {
+      if (line.startsWith("REMARK 465")) {
         handleMissingResidueLine(line);
       } else if (line.startsWith("MODRES")) {
         handleModifiedResidueLine(line);
       } else if (line.startsWith("HEADER")) {
-        handleHeaderLine(line);
+        handleHeaderRecordLine(line);
       } else if (line.startsWith("EXPDTA")) {
         handleExperimentalDataLine(line);
       } else if (line.startsWith("REMARK   2 RESOLUTION.")) {
@@ -96,151 +379,137 @@ public class PdbParser {
       }
     }
 
-    final String titleBuilder =
-        titleLines.stream().map(PdbTitleLine::title).collect(Collectors.joining());
-
-    final List<PdbModel> result = new ArrayList<>();
+    private List<PdbModel> buildModels() {
+      final String titleBuilder =
+          titleLines.stream().map(PdbTitleLine::title).collect(Collectors.joining());
+      final PdbHeaderLine header =
+          headerLine.orElse(ImmutablePdbHeaderLine.of("", new Date(0L), ""));
+      final PdbExpdtaLine experimentalData =
+          experimentalDataLine.orElse(ImmutablePdbExpdtaLine.of(Collections.emptyList()));
+      final PdbRemark2Line resolution =
+          resolutionLine.orElse(ImmutablePdbRemark2Line.of(Double.NaN));
+
+      final List<PdbModel> result = new ArrayList<>();
+
+      for (final Map.Entry<Integer, PdbModelAtoms> entry : modelAtoms.entrySet()) {
+        final int modelNumber = entry.getKey();
+        final PdbModelAtoms atoms = entry.getValue();
+        if (atoms.isEmpty()) {
+          continue;
+        }
+
+        final PdbModel structureModel =
+            columnar
+                ? ColumnarPdbModel.of(
+                    header,
+                    experimentalData,
+                    resolution,
+                    modelNumber,
+                    (ColumnarAtoms) atoms.atoms(),
+                    modifiedResidues,
+                    missingResidues,
+                    titleBuilder,
+                    atoms.chainTerminatedAfter())
+                : ImmutableDefaultPdbModel.of(
+                    header,
+                    experimentalData,
+                    resolution,
+                    modelNumber,
+                    atoms.atoms(),
+                    modifiedResidues,
+                    missingResidues,
+                    titleBuilder,
+                    atoms.chainTerminatedAfter());
+        result.add(structureModel);
+      }
 
-    for (final Map.Entry<Integer, List<PdbAtomLine>> entry : modelAtoms.entrySet()) {
-      final int modelNumber = entry.getKey();
-      final List<PdbAtomLine> atoms = entry.getValue();
-      final PdbModel structureModel =
-          ImmutableDefaultPdbModel.of(
-              headerLine.orElse(ImmutablePdbHeaderLine.of("", new Date(0L), "")),
-              experimentalDataLine.orElse(ImmutablePdbExpdtaLine.of(Collections.emptyList())),
-              resolutionLine.orElse(ImmutablePdbRemark2Line.of(Double.NaN)),
-              modelNumber,
-              atoms,
-              modifiedResidues,
-              missingResidues,
-              titleBuilder,
-              chainTerminatedAfter);
-      result.add(structureModel);
+      return result;
     }
 
-    return result;
-  }
-
-  private void resetState() {
-    modifiedResidues.clear();
-    missingResidues.clear();
-    processedIdentifiers.clear();
-    chainTerminatedAfter.clear();
-    endedModelNumbers.clear();
-    modelAtoms.clear();
-    titleLines.clear();
-
-    headerLine = Optional.empty();
-    experimentalDataLine = Optional.empty();
-    currentModelNumber = 0;
-    currentIdentifier = Optional.empty();
-  }
-
-  private void handleModelLine(final String line) {
-    endedModelNumbers.add(currentModelNumber);
-
-    final String modelNumberString =
-        (line.length() > 14) ? line.substring(10, 14).trim() : line.substring(5).trim();
-    int modelNumber = Integer.parseInt(modelNumberString);
-
-    while (endedModelNumbers.contains(modelNumber)) {
-      // model number has four digits
-      modelNumber = RandomUtils.nextInt(1, 10000);
+    private void handleModelLine(final String line) {
+      currentModelNumber = nextModelNumber(line);
+      currentModelAtoms = newModelAtoms();
     }
 
-    currentModelNumber = modelNumber;
+    private int nextModelNumber(final String line) {
+      endedModelNumbers.add(currentModelNumber);
 
-    processedIdentifiers.clear();
-    chainTerminatedAfter.clear();
-    currentIdentifier = Optional.empty();
-  }
-
-  private void handleAtomLine(final String line) {
-    try {
-      final PdbAtomLine atomLine = PdbAtomLine.parse(line, strictMode);
-      final PdbResidueIdentifier identifier = PdbResidueIdentifier.from(atomLine);
+      final String modelNumberString =
+          (line.length() > 14) ? line.substring(10, 14).trim() : line.substring(5).trim();
+      int modelNumber = Integer.parseInt(modelNumberString);
 
-      if (processedIdentifiers.contains(identifier)) {
-        PdbParser.LOGGER.warn("Duplicate residue, ignoring it: {}", identifier);
-        return;
+      while (endedModelNumbers.contains(modelNumber)) {
+        // model number has four digits
+        modelNumber = RandomUtils.nextInt(1, 10000);
       }
 
-      if (currentIdentifier.isPresent() && !identifier.equals(currentIdentifier.get())) {
-        processedIdentifiers.add(currentIdentifier.get());
-        currentIdentifier = Optional.of(identifier);
-      }
+      return modelNumber;
+    }
 
-      if (!modelAtoms.containsKey(currentModelNumber)) {
-        modelAtoms.put(currentModelNumber, new ArrayList<>());
+    private void handleAtomLine(final String line) {
+      currentModelAtoms.handleAtomLine(line);
+      if (!currentModelAtoms.isEmpty()) {
+        modelAtoms.putIfAbsent(currentModelNumber, currentModelAtoms);
       }
-
-      final List<PdbAtomLine> atomList = modelAtoms.get(currentModelNumber);
-      atomList.add(atomLine);
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid ATOM line: {}", line, e);
     }
-  }
 
-  private void handleTitleLine(final String line) {
-    try {
-      final PdbTitleLine titleLine = PdbTitleLine.parse(line);
-      if (((CollectionUtils.isEmpty(titleLines)) && (StringUtils.isBlank(titleLine.continuation())))
-          || (StringUtils.isNotBlank(titleLine.continuation()))) {
-        titleLines.add(titleLine);
+    private void handleTitleLine(final String line) {
+      try {
+        final PdbTitleLine titleLine = PdbTitleLine.parse(line);
+        if (((CollectionUtils.isEmpty(titleLines))
+                && (StringUtils.isBlank(titleLine.continuation())))
+            || (StringUtils.isNotBlank(titleLine.continuation()))) {
+          titleLines.add(titleLine);
+        }
+      } catch (final PdbParsingException e) {
+        PdbParser.LOGGER.warn("Invalid TITLE line: {}", line, e);
       }
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid TITLE line: {}", line, e);
     }
-  }
 
-  private void handleTerLine() {
-    final List<PdbAtomLine> atomLines = modelAtoms.get(currentModelNumber);
-    chainTerminatedAfter.add(PdbResidueIdentifier.from(atomLines.get(atomLines.size() - 1)));
-  }
+    private void handleMissingResidueLine(final String line) {
+      try {
+        if (PdbRemark465Line.isCommentLine(line)) {
+          return;
+        }
 
-  private void handleMissingResidueLine(final String line) {
-    try {
-      if (PdbRemark465Line.isCommentLine(line)) {
-        return;
+        final PdbRemark465Line remark465Line = PdbRemark465Line.parse(line);
+        missingResidues.add(remark465Line);
+      } catch (final PdbParsingException e) {
+        PdbParser.LOGGER.warn("Invalid REMARK 465 line: {}", line, e);
       }
-
-      final PdbRemark465Line remark465Line = PdbRemark465Line.parse(line);
-      missingResidues.add(remark465Line);
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid REMARK 465 line: {}", line, e);
     }
-  }
 
-  private void handleModifiedResidueLine(final String line) {
-    try {
-      final PdbModresLine modresLine = PdbModresLine.parse(line);
-      modifiedResidues.add(modresLine);
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid MODRES line: {}", line, e);
+    private void handleModifiedResidueLine(final String line) {
+      try {
+        final PdbModresLine modresLine = PdbModresLine.parse(line);
+        modifiedResidues.add(modresLine);
+      } catch (final PdbParsingException e) {
+        PdbParser.LOGGER.warn("Invalid MODRES line: {}", line, e);
+      }
     }
-  }
 
-  private void handleHeaderLine(final String line) {
-    try {
-      headerLine = Optional.of(PdbHeaderLine.parse(line));
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid HEADER line: {}", line, e);
+    private void handleHeaderRecordLine(final String line) {
+      try {
+        headerLine = Optional.of(PdbHeaderLine.parse(line));
+      } catch (final PdbParsingException e) {
+        PdbParser.LOGGER.warn("Invalid HEADER line: {}", line, e);
+      }
     }
-  }
 
-  private void handleExperimentalDataLine(final String line) {
-    try {
-      experimentalDataLine = Optional.of(PdbExpdtaLine.parse(line));
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid EXPDTA line: {}", line, e);
+    private void handleExperimentalDataLine(final String line) {
+      try {
+        experimentalDataLine = Optional.of(PdbExpdtaLine.parse(line));
+      } catch (final PdbParsingException e) {
+        PdbParser.LOGGER.warn("Invalid EXPDTA line: {}", line, e);
+      }
     }
-  }
 
-  private void handleResolutionLine(final String line) {
-    try {
-      resolutionLine = Optional.of(PdbRemark2Line.parse(line));
-    } catch (final PdbParsingException e) {
-      PdbParser.LOGGER.warn("Invalid REMARK   2 RESOLUTION. line: {}", line, e);
+    private void handleResolutionLine(final String line) {
+      try {
+        resolutionLine = Optional.of(PdbRemark2Line.parse(line));
+      } catch (final PdbParsingException e) {
+        PdbParser.LOGGER.warn("Invalid REMARK   2 RESOLUTION. line: {}", line, e);
+      }
     }
   }
 }
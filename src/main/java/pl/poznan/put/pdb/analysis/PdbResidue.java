@@ -1,15 +1,14 @@
 package pl.poznan.put.pdb.analysis;
 
 import java.io.IOException;
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.math3.geometry.euclidean.threed.Plane;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.ChainNumberICode;
 import pl.poznan.put.pdb.ImmutablePdbNamedResidueIdentifier;
 import pl.poznan.put.pdb.PdbAtomLine;
@@ -44,7 +43,15 @@ public interface PdbResidue extends ChainNumberICode {
    * @return A text representation of this residue in PDB format.
    */
   default String toPdb() {
-    return atoms().stream().map(String::valueOf).collect(Collectors.joining("\n"));
+    final StringBuilder builder = new StringBuilder();
+    final List<PdbAtomLine> atoms = atoms();
+    for (int i = 0; i < atoms.size(); i++) {
+      if (i > 0) {
+        builder.append('\n');
+      }
+      atoms.get(i).appendPdb(builder);
+    }
+    return builder.toString();
   }
 
   /**
@@ -166,7 +173,8 @@ public interface PdbResidue extends ChainNumberICode {
    * @return The set of all atom names available in this residue.
    */
   default Set<AtomName> atomNames() {
-    return atoms().stream().map(PdbAtomLine::detectAtomName).collect(Collectors.toSet());
+    return AtomNameSet.copyOf(
+        atoms().stream().map(PdbAtomLine::detectAtomName).collect(Collectors.toList()));
   }
 
   /**
@@ -183,7 +191,7 @@ public interface PdbResidue extends ChainNumberICode {
    * @return True if there is any hydrogen atom available in this residue.
    */
   default boolean hasAnyHydrogen() {
-    return atomNames().stream().anyMatch(atomName -> !atomName.isHeavy());
+    return AtomNameSet.copyOf(atomNames()).hasAnyHydrogen();
   }
 
   /**
@@ -194,15 +202,10 @@ public interface PdbResidue extends ChainNumberICode {
    *     this residue.
    */
   default boolean hasAllHeavyAtoms() {
-    final Set<AtomName> heavyAtoms =
-        atomNames().stream().filter(AtomName::isHeavy).collect(Collectors.toSet());
-    final Set<AtomName> expectedHeavyAtoms =
-        residueInformationProvider().moleculeComponents().stream()
-            .map(ResidueComponent::requiredAtoms)
-            .flatMap(Collection::stream)
-            .filter(AtomName::isHeavy)
-            .collect(Collectors.toSet());
-    return SetUtils.isEqualSet(heavyAtoms, expectedHeavyAtoms);
+    final AtomNameSet heavyAtoms = AtomNameSet.copyOf(atomNames()).heavyAtoms();
+    final AtomNameSet expectedHeavyAtoms =
+        ResidueTypeDetector.expectedHeavyAtoms(residueInformationProvider());
+    return heavyAtoms.equals(expectedHeavyAtoms);
   }
 
   /**
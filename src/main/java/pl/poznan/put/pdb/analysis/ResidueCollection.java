@@ -2,6 +2,7 @@ package pl.poznan.put.pdb.analysis;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -15,6 +16,7 @@ import org.rcsb.cif.model.IntColumnBuilder;
 import org.rcsb.cif.model.StrColumnBuilder;
 import org.rcsb.cif.schema.mm.MmCifBlockBuilder;
 import org.rcsb.cif.schema.mm.MmCifCategoryBuilder;
+import org.rcsb.cif.schema.mm.MmCifFile;
 import org.rcsb.cif.schema.mm.MmCifFileBuilder;
 import pl.poznan.put.atom.AtomName;
 import pl.poznan.put.pdb.ChainNumberICode;
@@ -190,6 +192,31 @@ public interface ResidueCollection extends Serializable {
     return new PdbBuilder().add(this).build();
   }
 
+  /**
+   * Writes the same content as {@link #toPdb()} to the output, without building the whole text in
+   * memory first.
+   *
+   * @param writer The output.
+   * @throws IOException When writing fails.
+   */
+  default void writePdb(final Writer writer) throws IOException {
+    final StringBuilder buffer = new StringBuilder(PdbBuilder.BUFFER_SIZE);
+    final char[] chars = new char[PdbBuilder.BUFFER_SIZE];
+
+    for (final PdbResidue residue : residues()) {
+      PdbBuilder.appendResidue(buffer, residue);
+
+      while (buffer.length() >= chars.length) {
+        buffer.getChars(0, chars.length, chars, 0);
+        writer.write(chars);
+        buffer.delete(0, chars.length);
+      }
+    }
+
+    buffer.getChars(0, buffer.length(), chars, 0);
+    writer.write(chars, 0, buffer.length());
+  }
+
   /**
    * Generates a list of ATOM lines in mmCIF format from this instance.
    *
@@ -199,8 +226,21 @@ public interface ResidueCollection extends Serializable {
     return new CifBuilder().add(this).build();
   }
 
+  /**
+   * Generates the same content as {@link #toCif()}, but in BinaryCIF format. It is several times
+   * smaller and faster to parse (see {@link CifParser#parse(byte[])}).
+   *
+   * @return A representation of this residue collection in BinaryCIF format.
+   * @throws IOException When serializing to BinaryCIF fails.
+   */
+  default byte[] toBinaryCif() throws IOException {
+    return new CifBuilder().add(this).buildBinary();
+  }
+
   /** A builder that can merge many residue collections in one PDB file. */
   final class PdbBuilder {
+    private static final int BUFFER_SIZE = 8192;
+
     private final StringBuilder stringBuilder = new StringBuilder();
 
     /**
@@ -226,11 +266,27 @@ public interface ResidueCollection extends Serializable {
         stringBuilder.append(name).append('\n');
       }
       for (final PdbResidue residue : residueCollection.residues()) {
-        stringBuilder.append(residue.toPdb()).append('\n');
+        PdbBuilder.appendResidue(stringBuilder, residue);
       }
       return this;
     }
 
+    /**
+     * Appends the same text as {@code residue.toPdb() + '\n'}, without intermediate strings.
+     *
+     * @param builder The output.
+     * @param residue The residue to append.
+     */
+    static void appendResidue(final StringBuilder builder, final PdbResidue residue) {
+      final List<PdbAtomLine> atoms = residue.atoms();
+      if (atoms.isEmpty()) {
+        builder.append('\n');
+      }
+      for (final PdbAtomLine atom : atoms) {
+        atom.appendPdb(builder).append('\n');
+      }
+    }
+
     /**
      * @return The string content in PDB format.
      */
@@ -476,6 +532,27 @@ public interface ResidueCollection extends Serializable {
      * @throws IOException When serializing the mmCIF to string fails.
      */
     public String build() throws IOException {
+      return new String(CifIO.writeText(buildFile()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The content in BinaryCIF format.
+     * @throws IOException When serializing the mmCIF to bytes fails.
+     */
+    public byte[] buildBinary() throws IOException {
+      final var block = buildFile().getFirstBlock();
+
+      // the binary writer emits broken data for categories without rows, the text one skips them
+      final var binaryBlockBuilder = new MmCifFileBuilder().enterBlock(block.getBlockHeader());
+      for (final var category : block.getCategories().values()) {
+        if (category.getRowCount() > 0) {
+          binaryBlockBuilder.addCategory(category);
+        }
+      }
+      return CifIO.writeBinary(binaryBlockBuilder.leaveBlock().leaveFile());
+    }
+
+    private MmCifFile buildFile() {
       entityId.leaveColumn();
       details.leaveColumn();
       entityBuilder.leaveCategory();
@@ -509,8 +586,7 @@ public interface ResidueCollection extends Serializable {
         blockBuilder.addCategory(category);
       }
 
-      final var bytes = CifIO.writeText(mmCifFile);
-      return new String(bytes, StandardCharsets.UTF_8);
+      return mmCifFile;
     }
 
     private void setupCitationAuthor() {
@@ -1,8 +1,8 @@
 package pl.poznan.put.pdb.analysis;
 
-import java.util.Collections;
 import java.util.Set;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 
 /** A fragment of a residue with a set of expected atoms and a set of possible other atoms. */
 @FunctionalInterface
@@ -16,6 +16,6 @@ public interface ResidueComponent {
    * @return A set of additional atoms that might be present in this residue component.
    */
   default Set<AtomName> additionalAtoms() {
-    return Collections.emptySet();
+    return AtomNameSet.empty();
   }
 }
@@ -0,0 +1,82 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import pl.poznan.put.pdb.ChainNumberICode;
+import pl.poznan.put.pdb.PdbResidueIdentifier;
+
+/**
+ * A mapping of residue identifiers to their positions in a list of residues. It replaces linear
+ * scans in {@link ResidueCollection#findResidue(ChainNumberICode)} and similar methods. If an
+ * identifier occurs more than once, the first position is remembered, as in a linear scan.
+ */
+final class ResidueIndex {
+  private final List<PdbResidue> residues;
+  private final Map<PdbResidueIdentifier, Integer> indices;
+
+  /**
+   * Builds an index of residues.
+   *
+   * @param residues The list of residues to index.
+   */
+  ResidueIndex(final List<PdbResidue> residues) {
+    this(residues, residues);
+  }
+
+  /**
+   * Builds an index of residues with already known identifiers, so the residues themselves are not
+   * accessed.
+   *
+   * @param residues The list of residues to index.
+   * @param identifiers The identifiers of residues, in the same order.
+   */
+  ResidueIndex(
+      final List<PdbResidue> residues, final List<? extends ChainNumberICode> identifiers) {
+    super();
+    this.residues = residues;
+    indices = new HashMap<>(identifiers.size() * 4 / 3 + 1);
+    for (int i = 0, size = identifiers.size(); i < size; i++) {
+      indices.putIfAbsent(PdbResidueIdentifier.from(identifiers.get(i)), i);
+    }
+  }
+
+  /**
+   * @param query A residue identifier.
+   * @return True if the residue is in the indexed list.
+   */
+  boolean contains(final ChainNumberICode query) {
+    return indices.containsKey(ResidueIndex.identifier(query));
+  }
+
+  /**
+   * @param query A residue identifier.
+   * @return The residue from the indexed list.
+   */
+  PdbResidue find(final ChainNumberICode query) {
+    final Integer index = indices.get(ResidueIndex.identifier(query));
+    if (index == null) {
+      throw new IllegalArgumentException("Failed to find residue: " + query);
+    }
+    return residues.get(index);
+  }
+
+  /**
+   * @param query A residue identifier.
+   * @return The position of the residue in the indexed list.
+   */
+  int indexOf(final ChainNumberICode query) {
+    final PdbResidueIdentifier identifier = ResidueIndex.identifier(query);
+    final Integer index = indices.get(identifier);
+    if (index == null) {
+      throw new IllegalArgumentException("Failed to find residue: " + identifier);
+    }
+    return index;
+  }
+
+  private static PdbResidueIdentifier identifier(final ChainNumberICode query) {
+    return (query instanceof PdbResidueIdentifier)
+        ? (PdbResidueIdentifier) query
+        : PdbResidueIdentifier.from(query);
+  }
+}
@@ -1,7 +1,8 @@
 package pl.poznan.put.pdb.analysis;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.immutables.value.Value;
 import pl.poznan.put.circular.Angle;
@@ -14,6 +15,8 @@ import pl.poznan.put.torsion.TorsionAngleValue;
 /** A collection of torsion angles values for a single residue. */
 @Value.Immutable
 public abstract class ResidueTorsionAngles {
+  private static final Angle INVALID = ImmutableAngle.of(Double.NaN);
+
   /**
    * Calculates all torsion angles' values in the given residue.
    *
@@ -49,11 +52,7 @@ public abstract class ResidueTorsionAngles {
    * @return The value of torsion angle in this residue or NaN if none found.
    */
   public final Angle value(final TorsionAngleType type) {
-    return values().stream()
-        .filter(angle -> Objects.equals(angle.angleType(), type))
-        .map(TorsionAngleValue::value)
-        .findFirst()
-        .orElse(ImmutableAngle.of(Double.NaN));
+    return valueByType().getOrDefault(type, ResidueTorsionAngles.INVALID);
   }
 
   /**
@@ -63,10 +62,26 @@ public abstract class ResidueTorsionAngles {
    * @return The value of torsion angle in this residue or NaN if none found.
    */
   public final Angle value(final MasterTorsionAngleType masterType) {
-    return values().stream()
-        .flatMap(angleValue -> masterType.angleTypes().stream().map(this::value))
-        .filter(Angle::isValid)
-        .findFirst()
-        .orElse(ImmutableAngle.of(Double.NaN));
+    final List<TorsionAngleType> angleTypes = masterType.angleTypes();
+    for (int i = 0, size = angleTypes.size(); i < size; i++) {
+      final Angle angle = value(angleTypes.get(i));
+      if (angle.isValid()) {
+        return angle;
+      }
+    }
+    return ResidueTorsionAngles.INVALID;
+  }
+
+  /**
+   * @return A mapping of torsion angle types to their values (the first one, if a type is
+   *     repeated).
+   */
+  @Value.Lazy
+  protected Map<TorsionAngleType, Angle> valueByType() {
+    final Map<TorsionAngleType, Angle> map = new HashMap<>();
+    for (final TorsionAngleValue angleValue : values()) {
+      map.putIfAbsent(angleValue.angleType(), angleValue.value());
+    }
+    return map;
   }
 }
@@ -0,0 +1,52 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.Locale;
+import org.immutables.value.Value;
+
+/** A snapshot of usage of the cache in {@link ResidueTypeDetector}. */
+@Value.Immutable
+public abstract class ResidueTypeCacheStatistics {
+  /**
+   * @return The number of residues recognized by name alone (without the cache).
+   */
+  @Value.Parameter(order = 1)
+  public abstract long nameHits();
+
+  /**
+   * @return The number of residues with unknown names, whose type was found in the cache.
+   */
+  @Value.Parameter(order = 2)
+  public abstract long cacheHits();
+
+  /**
+   * @return The number of residues with unknown names, whose type had to be detected from atoms.
+   */
+  @Value.Parameter(order = 3)
+  public abstract long cacheMisses();
+
+  /**
+   * @return The number of entries currently in the cache.
+   */
+  @Value.Parameter(order = 4)
+  public abstract int size();
+
+  /**
+   * @return The fraction of cache lookups which were hits (0 if there were no lookups).
+   */
+  public final double hitRate() {
+    final long lookups = cacheHits() + cacheMisses();
+    return (lookups > 0L) ? ((double) cacheHits() / lookups) : 0.0;
+  }
+
+  @Override
+  public final String toString() {
+    return String.format(
+        Locale.US,
+        "%d by name, %d cache hits, %d cache misses (hit rate %.3f), %d cached",
+        nameHits(),
+        cacheHits(),
+        cacheMisses(),
+        hitRate(),
+        size());
+  }
+}
@@ -1,27 +1,50 @@
 package pl.poznan.put.pdb.analysis;
 
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
-import org.apache.commons.collections4.SetUtils;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.protein.AminoAcid;
 import pl.poznan.put.protein.ImmutableBackbone;
 import pl.poznan.put.rna.ImmutableRibose;
 import pl.poznan.put.rna.Nucleotide;
 
-/** A detector of residue type based on its name and atom content. */
+/**
+ * A detector of residue type based on its name and atom content. Known names are resolved with a
+ * precomputed map of aliases. Detection from atoms is remembered in a bounded cache, because a
+ * structure usually contains only a few distinct combinations of a residue name and its atoms.
+ */
 public final class ResidueTypeDetector {
-  private static final Set<AtomName> RIBOSE_HEAVY_ATOMS =
-      ImmutableRibose.of().requiredAtoms().stream()
-          .filter(AtomName::isHeavy)
-          .collect(Collectors.toSet());
-  private static final Set<AtomName> BACKBONE_HEAVY_ATOMS =
-      ImmutableBackbone.of().requiredAtoms().stream()
-          .filter(AtomName::isHeavy)
-          .collect(Collectors.toSet());
+  private static final int MAX_CACHE_SIZE = 4096;
+
+  private static final Map<String, ResidueInformationProvider> PROVIDERS_BY_ALIAS =
+      ResidueTypeDetector.createProvidersByAlias();
+  private static final Map<CacheKey, ResidueInformationProvider> CACHE = new ConcurrentHashMap<>();
+  private static final LongAdder NAME_HITS = new LongAdder();
+  private static final LongAdder CACHE_HITS = new LongAdder();
+  private static final LongAdder CACHE_MISSES = new LongAdder();
+
+  private static final AtomNameSet RIBOSE_HEAVY_ATOMS =
+      AtomNameSet.copyOf(ImmutableRibose.of().requiredAtoms()).heavyAtoms();
+  private static final AtomNameSet BACKBONE_HEAVY_ATOMS =
+      AtomNameSet.copyOf(ImmutableBackbone.of().requiredAtoms()).heavyAtoms();
+  private static final AtomNameSet[] NUCLEOBASE_ATOMS =
+      Arrays.stream(Nucleotide.values())
+          .map(nucleotide -> AtomNameSet.copyOf(nucleotide.nucleobase().requiredAtoms()))
+          .toArray(AtomNameSet[]::new);
+  private static final AtomNameSet[] SIDECHAIN_ATOMS =
+      Arrays.stream(AminoAcid.values())
+          .map(aminoAcid -> AtomNameSet.copyOf(aminoAcid.sidechain().requiredAtoms()))
+          .toArray(AtomNameSet[]::new);
+  private static final Map<ResidueInformationProvider, AtomNameSet> EXPECTED_HEAVY_ATOMS =
+      new ConcurrentHashMap<>();
 
   private ResidueTypeDetector() {
     super();
@@ -39,67 +62,157 @@ public final class ResidueTypeDetector {
   public static ResidueInformationProvider detectResidueType(
       final String residueName, final Set<AtomName> atomNames) {
     final ResidueInformationProvider provider =
-        ResidueTypeDetector.detectResidueTypeFromResidueName(residueName);
-    if (provider.moleculeType() != MoleculeType.UNKNOWN) {
+        ResidueTypeDetector.PROVIDERS_BY_ALIAS.get(residueName);
+    if ((provider != null) && (provider.moleculeType() != MoleculeType.UNKNOWN)) {
+      ResidueTypeDetector.NAME_HITS.increment();
       return provider;
     }
-    return ResidueTypeDetector.detectResidueTypeFromAtoms(atomNames, residueName);
+
+    final AtomNameSet atomNameSet = AtomNameSet.copyOf(atomNames);
+    final CacheKey key = new CacheKey(residueName, atomNameSet);
+    final ResidueInformationProvider cached = ResidueTypeDetector.CACHE.get(key);
+    if (cached != null) {
+      ResidueTypeDetector.CACHE_HITS.increment();
+      return cached;
+    }
+
+    ResidueTypeDetector.CACHE_MISSES.increment();
+    final ResidueInformationProvider detected =
+        ResidueTypeDetector.detectResidueTypeFromAtoms(atomNameSet, residueName);
+    if (ResidueTypeDetector.CACHE.size() >= ResidueTypeDetector.MAX_CACHE_SIZE) {
+      ResidueTypeDetector.CACHE.clear();
+    }
+    ResidueTypeDetector.CACHE.put(key, detected);
+    return detected;
+  }
+
+  /**
+   * @return The current usage statistics of the cache of detected residue types.
+   */
+  public static ResidueTypeCacheStatistics cacheStatistics() {
+    return ImmutableResidueTypeCacheStatistics.of(
+        ResidueTypeDetector.NAME_HITS.sum(),
+        ResidueTypeDetector.CACHE_HITS.sum(),
+        ResidueTypeDetector.CACHE_MISSES.sum(),
+        ResidueTypeDetector.CACHE.size());
   }
 
-  private static ResidueInformationProvider detectResidueTypeFromResidueName(
-      final String residueName) {
-    final Stream<ResidueInformationProvider> stream =
-        Stream.concat(Arrays.stream(Nucleotide.values()), Arrays.stream(AminoAcid.values()));
-    return stream
-        .filter(provider -> provider.aliases().contains(residueName))
-        .findFirst()
-        .orElse(ImmutableInvalidResidueInformationProvider.of(residueName));
+  /** Removes all cached residue types and resets the statistics. */
+  public static void clearCache() {
+    ResidueTypeDetector.CACHE.clear();
+    ResidueTypeDetector.NAME_HITS.reset();
+    ResidueTypeDetector.CACHE_HITS.reset();
+    ResidueTypeDetector.CACHE_MISSES.reset();
+  }
+
+  private static Map<String, ResidueInformationProvider> createProvidersByAlias() {
+    final Map<String, ResidueInformationProvider> providers = new HashMap<>();
+    // the first provider with a given alias wins, so nucleotides take precedence
+    Stream.concat(Arrays.stream(Nucleotide.values()), Arrays.stream(AminoAcid.values()))
+        .forEach(
+            provider ->
+                provider.aliases().forEach(alias -> providers.putIfAbsent(alias, provider)));
+    return Collections.unmodifiableMap(providers);
+  }
+
+  /**
+   * Collects heavy atoms from all components of a residue type. The result for nucleotides and
+   * amino acids is computed once and then remembered.
+   *
+   * @param provider The residue type.
+   * @return The set of heavy atoms expected in a residue of the given type.
+   */
+  static AtomNameSet expectedHeavyAtoms(final ResidueInformationProvider provider) {
+    if (provider instanceof Enum) {
+      return ResidueTypeDetector.EXPECTED_HEAVY_ATOMS.computeIfAbsent(
+          provider, ResidueTypeDetector::collectHeavyAtoms);
+    }
+    return ResidueTypeDetector.collectHeavyAtoms(provider);
+  }
+
+  private static AtomNameSet collectHeavyAtoms(final ResidueInformationProvider provider) {
+    AtomNameSet atoms = AtomNameSet.empty();
+    for (final ResidueComponent component : provider.moleculeComponents()) {
+      atoms = atoms.union(AtomNameSet.copyOf(component.requiredAtoms()));
+    }
+    return atoms.heavyAtoms();
   }
 
   private static ResidueInformationProvider detectResidueTypeFromAtoms(
-      final Set<AtomName> actual, final String residueName) {
+      final AtomNameSet actual, final String residueName) {
     if (actual.size() > 1) {
       if (ResidueTypeDetector.isNucleotide(actual)) {
-        return Arrays.stream(Nucleotide.values())
-            .max(
-                Comparator.comparingDouble(
-                    nucleotide ->
-                        ResidueTypeDetector.intersectionRatio(
-                            actual, nucleotide.nucleobase().requiredAtoms())))
-            .orElseThrow(
-                () ->
-                    new IllegalArgumentException(
-                        "Failed to match any nucleobase to provided atom names"));
+        return Nucleotide.values()[
+            ResidueTypeDetector.mostSimilar(actual, ResidueTypeDetector.NUCLEOBASE_ATOMS)];
       }
 
       if (ResidueTypeDetector.isAminoAcid(actual)) {
-        return Arrays.stream(AminoAcid.values())
-            .max(
-                Comparator.comparingDouble(
-                    aminoAcid ->
-                        ResidueTypeDetector.intersectionRatio(
-                            actual, aminoAcid.sidechain().requiredAtoms())))
-            .orElseThrow(
-                () ->
-                    new IllegalArgumentException(
-                        "Failed to match any sidechain to provided atom names"));
+        return AminoAcid.values()[
+            ResidueTypeDetector.mostSimilar(actual, ResidueTypeDetector.SIDECHAIN_ATOMS)];
       }
     }
     return ImmutableInvalidResidueInformationProvider.of(residueName);
   }
 
-  private static boolean isNucleotide(final Set<AtomName> actual) {
+  /**
+   * @param actual The set of actual atoms.
+   * @param candidates Sets of expected atoms.
+   * @return The index of the first candidate with the highest intersection ratio.
+   */
+  private static int mostSimilar(final AtomNameSet actual, final AtomNameSet[] candidates) {
+    int best = 0;
+    double bestRatio = ResidueTypeDetector.intersectionRatio(actual, candidates[0]);
+    for (int i = 1; i < candidates.length; i++) {
+      final double ratio = ResidueTypeDetector.intersectionRatio(actual, candidates[i]);
+      if (ratio > bestRatio) {
+        best = i;
+        bestRatio = ratio;
+      }
+    }
+    return best;
+  }
+
+  private static boolean isNucleotide(final AtomNameSet actual) {
     return ResidueTypeDetector.intersectionRatio(actual, ResidueTypeDetector.RIBOSE_HEAVY_ATOMS)
         >= 0.5;
   }
 
-  private static double intersectionRatio(
-      final Set<AtomName> actual, final Set<AtomName> expected) {
-    return (double) SetUtils.intersection(actual, expected).size() / expected.size();
+  private static double intersectionRatio(final AtomNameSet actual, final AtomNameSet expected) {
+    return (double) actual.intersectionSize(expected) / expected.size();
   }
 
-  private static boolean isAminoAcid(final Set<AtomName> actual) {
+  private static boolean isAminoAcid(final AtomNameSet actual) {
     return ResidueTypeDetector.intersectionRatio(actual, ResidueTypeDetector.BACKBONE_HEAVY_ATOMS)
         >= 0.5;
   }
+
+  /** A residue name with a set of atom names. */
+  private static final class CacheKey {
+    private final String residueName;
+    private final AtomNameSet atomNames;
+
+    private CacheKey(final String residueName, final AtomNameSet atomNames) {
+      super();
+      this.residueName = residueName;
+      this.atomNames = atomNames;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if ((o == null) || (getClass() != o.getClass())) {
+        return false;
+      }
+      final CacheKey other = (CacheKey) o;
+      return Objects.equals(residueName, other.residueName)
+          && Objects.equals(atomNames, other.atomNames);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(residueName, atomNames);
+    }
+  }
 }
@@ -0,0 +1,74 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A column of real numbers with a fixed number of decimal places (e.g. coordinates in PDB files
+ * have three), stored as integers scaled by a power of ten. As soon as a value cannot be restored
+ * exactly from such a representation, the whole column is switched to doubles. Values are appended
+ * one by one, so the column may be filled straight from a parser.
+ */
+final class ScaledColumn implements Serializable {
+  private final double scale;
+  private int[] scaled = new int[16];
+  private double[] values;
+  private int size;
+
+  /**
+   * Creates an empty column.
+   *
+   * @param decimalPlaces The expected number of decimal places.
+   */
+  ScaledColumn(final int decimalPlaces) {
+    super();
+    scale = Math.pow(10.0, decimalPlaces);
+  }
+
+  /**
+   * Appends a value to the column.
+   *
+   * @param value A value.
+   */
+  void add(final double value) {
+    if (scaled != null) {
+      final double rounded = Math.rint(value * scale);
+      if ((Math.abs(rounded) < Integer.MAX_VALUE)
+          && (Double.compare((int) rounded / scale, value) == 0)) {
+        if (size == scaled.length) {
+          scaled = Arrays.copyOf(scaled, size * 2);
+        }
+        scaled[size++] = (int) rounded;
+        return;
+      }
+
+      values = new double[scaled.length];
+      for (int i = 0; i < size; i++) {
+        values[i] = scaled[i] / scale;
+      }
+      scaled = null;
+    }
+
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size++] = value;
+  }
+
+  /** Releases the spare capacity left after appending values. */
+  void trimToSize() {
+    if (scaled != null) {
+      scaled = Arrays.copyOf(scaled, size);
+    } else {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  /**
+   * @param index An index of a row.
+   * @return The value in the row.
+   */
+  double get(final int index) {
+    return (scaled != null) ? (scaled[index] / scale) : values[index];
+  }
+}
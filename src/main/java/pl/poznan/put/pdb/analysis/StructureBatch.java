@@ -0,0 +1,192 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A stream of results of parsing many files in parallel (see {@link BatchStructureLoader}). Results
+ * are delivered in the order of completion. At most a bounded number of files is parsed or waiting
+ * for the consumer at any time, so a slow consumer slows down reading and parsing instead of
+ * exhausting memory. A failure to parse one file is reported as a failed {@link BatchResult} and
+ * does not stop processing of the others. The results may be iterated only once.
+ */
+public final class StructureBatch implements Iterable<BatchResult>, Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StructureBatch.class);
+  private static final BatchResult END =
+      ImmutableBatchResult.of("", Collections.emptyList(), Optional.empty());
+
+  private final BlockingQueue<BatchResult> results = new LinkedBlockingQueue<>();
+  private final AtomicLong parsedFiles = new AtomicLong();
+  private final AtomicLong failedFiles = new AtomicLong();
+  private final AtomicLong listingFailures = new AtomicLong();
+  private final AtomicLong atoms = new AtomicLong();
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final Parser parser;
+  private final Thread producerThread;
+  private final long startNanos;
+
+  private volatile long endNanos;
+  private volatile boolean closed;
+
+  StructureBatch(
+      final ExecutorService executor,
+      final int capacity,
+      final Producer producer,
+      final Parser parser) {
+    super();
+    this.executor = executor;
+    this.parser = parser;
+    permits = new Semaphore(capacity);
+    startNanos = System.nanoTime();
+    producerThread = new Thread(() -> produce(producer), "structure-batch-producer");
+    producerThread.setDaemon(true);
+    producerThread.start();
+  }
+
+  /**
+   * @return A sequential stream of results, which stops the processing when closed.
+   */
+  public Stream<BatchResult> stream() {
+    return StreamSupport.stream(spliterator(), false).onClose(this::close);
+  }
+
+  @Override
+  public Iterator<BatchResult> iterator() {
+    return new ResultIterator();
+  }
+
+  /**
+   * @return The current throughput statistics (or the final ones when processing has finished).
+   */
+  public BatchStatistics statistics() {
+    final long end = (endNanos == 0L) ? System.nanoTime() : endNanos;
+    return ImmutableBatchStatistics.of(
+        parsedFiles.get(), failedFiles.get(), listingFailures.get(), atoms.get(), end - startNanos);
+  }
+
+  /** Stops reading new files and interrupts parsing of those in progress. */
+  @Override
+  public void close() {
+    closed = true;
+    producerThread.interrupt();
+    executor.shutdownNow();
+  }
+
+  private void produce(final Producer producer) {
+    try {
+      producer.produce(this::submit);
+    } catch (final RejectedExecutionException e) {
+      // the executor is shut down only by close(), so the consumer is no longer interested
+      StructureBatch.LOGGER.debug("Stopped listing input files after close", e);
+    } catch (final IOException | RuntimeException e) {
+      if (closed) {
+        // an I/O operation, which ignores interrupts, failed because of close()
+        StructureBatch.LOGGER.debug("Stopped listing input files after close", e);
+      } else {
+        StructureBatch.LOGGER.warn("Failed to list input files", e);
+        listingFailures.incrementAndGet();
+        results.add(ImmutableBatchResult.of("", Collections.emptyList(), Optional.of(e)));
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+      try {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      endNanos = System.nanoTime();
+      results.add(StructureBatch.END);
+    }
+  }
+
+  private void submit(final String name, final Callable<byte[]> content)
+      throws InterruptedException {
+    permits.acquire();
+    try {
+      executor.execute(() -> results.add(parse(name, content)));
+    } catch (final RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private BatchResult parse(final String name, final Callable<byte[]> content) {
+    try {
+      final List<PdbModel> models = parser.parse(name, content.call());
+      final BatchResult result = ImmutableBatchResult.of(name, models, Optional.empty());
+      parsedFiles.incrementAndGet();
+      atoms.addAndGet(result.atomCount());
+      return result;
+    } catch (final Exception e) {
+      StructureBatch.LOGGER.warn("Failed to parse: {}", name, e);
+      failedFiles.incrementAndGet();
+      return ImmutableBatchResult.of(name, Collections.emptyList(), Optional.of(e));
+    }
+  }
+
+  /** A source of files to parse, which hands them one by one to a sink. */
+  @FunctionalInterface
+  interface Producer {
+    void produce(Sink sink) throws IOException, InterruptedException;
+  }
+
+  /** A receiver of files to parse. It blocks when too many results await the consumer. */
+  @FunctionalInterface
+  interface Sink {
+    void accept(String name, Callable<byte[]> content) throws InterruptedException;
+  }
+
+  /** A parser of file content into a list of models. */
+  @FunctionalInterface
+  interface Parser {
+    List<PdbModel> parse(String name, byte[] content) throws IOException;
+  }
+
+  private final class ResultIterator implements Iterator<BatchResult> {
+    private BatchResult next;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        try {
+          next = results.take();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for results", e);
+        }
+      }
+      return next != StructureBatch.END;
+    }
+
+    @Override
+    public BatchResult next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final BatchResult result = next;
+      next = null;
+      permits.release();
+      return result;
+    }
+  }
+}
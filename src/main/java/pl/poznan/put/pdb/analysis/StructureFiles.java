@@ -0,0 +1,127 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A collection of methods to read structure files (PDB or mmCIF), which may be compressed with gzip
+ * as in wwPDB mirrors. Compression is detected from the content, not from the file name. Files are
+ * memory-mapped, so their content is never copied as a whole into the Java heap.
+ */
+public final class StructureFiles {
+  private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+  // BinaryCIF is a MessagePack map of three entries (encoder, version, dataBlocks)
+  private static final int BINARY_CIF_MAGIC = 0x83;
+
+  private StructureFiles() {
+    super();
+  }
+
+  /**
+   * Opens a structure file for reading. An uncompressed file is read straight from the mapping and
+   * a gzip-compressed one is inflated on the fly.
+   *
+   * @param path Path to a file, possibly compressed with gzip.
+   * @return A stream of uncompressed content of the file.
+   * @throws IOException When mapping of the file fails.
+   */
+  public static InputStream open(final Path path) throws IOException {
+    final ByteBuffer buffer = StructureFiles.map(path);
+    final InputStream stream = new ByteBufferInputStream(buffer);
+    return StructureFiles.isGzip(buffer)
+        ? new GZIPInputStream(stream, StructureFiles.GZIP_BUFFER_SIZE)
+        : stream;
+  }
+
+  /**
+   * Reads the whole content of a structure file as characters. An uncompressed file is not copied,
+   * but viewed through its mapping. A gzip-compressed one has to be inflated in memory.
+   *
+   * @param path Path to a file, possibly compressed with gzip.
+   * @return The uncompressed content of the file.
+   * @throws IOException When reading of the file fails.
+   */
+  public static CharSequence read(final Path path) throws IOException {
+    final ByteBuffer buffer = StructureFiles.map(path);
+    if (!StructureFiles.isGzip(buffer)) {
+      return new ByteBufferCharSequence(buffer);
+    }
+    try (final InputStream stream =
+        new GZIPInputStream(new ByteBufferInputStream(buffer), StructureFiles.GZIP_BUFFER_SIZE)) {
+      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * @param path Path to a file.
+   * @return True if the file starts with the gzip magic number.
+   * @throws IOException When mapping of the file fails.
+   */
+  public static boolean isCompressed(final Path path) throws IOException {
+    return StructureFiles.isGzip(StructureFiles.map(path));
+  }
+
+  /**
+   * Wraps a stream to inflate it on the fly if its content starts with the gzip magic number.
+   *
+   * @param stream A stream, possibly compressed with gzip.
+   * @return A stream of uncompressed content.
+   * @throws IOException When reading from the stream fails.
+   */
+  static InputStream decompressed(final InputStream stream) throws IOException {
+    final InputStream buffered = stream.markSupported() ? stream : new BufferedInputStream(stream);
+    buffered.mark(2);
+    final byte[] magic = new byte[2];
+    final int read = buffered.readNBytes(magic, 0, magic.length);
+    buffered.reset();
+    return StructureFiles.isGzip(ByteBuffer.wrap(magic, 0, read))
+        ? new GZIPInputStream(buffered, StructureFiles.GZIP_BUFFER_SIZE)
+        : buffered;
+  }
+
+  /**
+   * @param bytes The content of a file.
+   * @return The content inflated, if it starts with the gzip magic number, or the same array.
+   * @throws IOException When inflating fails.
+   */
+  static byte[] decompressed(final byte[] bytes) throws IOException {
+    if (!StructureFiles.isGzip(ByteBuffer.wrap(bytes))) {
+      return bytes;
+    }
+    try (final InputStream stream =
+        new GZIPInputStream(new ByteArrayInputStream(bytes), StructureFiles.GZIP_BUFFER_SIZE)) {
+      return stream.readAllBytes();
+    }
+  }
+
+  /**
+   * @param bytes The uncompressed content of a file.
+   * @return True if the content is in BinaryCIF format, as detected by the CIF reader.
+   */
+  static boolean isBinaryCif(final byte[] bytes) {
+    return bytes.length > 0 && (bytes[0] & 0xFF) == StructureFiles.BINARY_CIF_MAGIC;
+  }
+
+  private static ByteBuffer map(final Path path) throws IOException {
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to be mapped: " + path);
+      }
+      // the mapping stays valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+    }
+  }
+
+  private static boolean isGzip(final ByteBuffer buffer) {
+    return buffer.limit() >= 2 && (buffer.get(0) & 0xFF) == 0x1F && (buffer.get(1) & 0xFF) == 0x8B;
+  }
+}
@@ -0,0 +1,282 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.circular.Angle;
+import pl.poznan.put.circular.Geometry;
+import pl.poznan.put.circular.ImmutableAngle;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.rna.NucleotideTorsionAngle;
+import pl.poznan.put.rna.PseudophasePuckerType;
+import pl.poznan.put.torsion.AtomBasedTorsionAngleType;
+import pl.poznan.put.torsion.ImmutableTorsionAngleValue;
+import pl.poznan.put.torsion.TorsionAngleType;
+import pl.poznan.put.torsion.TorsionAngleValue;
+import pl.poznan.put.utility.FutureUtils;
+
+/**
+ * Calculates torsion angles of all residues in a collection at once. Coordinates of atoms used by
+ * any {@link AtomBasedTorsionAngleType} are gathered into a single array first (each atom is looked
+ * up once), then all angle values are computed from that array. The results are the same as from
+ * {@link ResidueTorsionAngles#calculate(List, int)} called for each residue. Work may be split by
+ * chains and run on an {@link Executor}.
+ */
+public final class TorsionAngleCalculator {
+  private static final AtomName[] ATOM_NAMES = AtomName.values();
+  private static final List<AtomBasedTorsionAngleType> NU_ANGLE_TYPES =
+      Stream.of(
+              NucleotideTorsionAngle.NU0,
+              NucleotideTorsionAngle.NU1,
+              NucleotideTorsionAngle.NU2,
+              NucleotideTorsionAngle.NU3,
+              NucleotideTorsionAngle.NU4)
+          .map(angle -> (AtomBasedTorsionAngleType) angle.angleTypes().get(0))
+          .collect(Collectors.toList());
+
+  private final List<PdbResidue> residues;
+  private final Map<ResidueInformationProvider, ResidueAngleTypes> typesByProvider =
+      new IdentityHashMap<>();
+  private final Map<AtomBasedTorsionAngleType, CompiledAngleType> compiled =
+      new IdentityHashMap<>();
+  private final ResidueAngleTypes[] residueAngleTypes;
+  private final int[] slots = new int[TorsionAngleCalculator.ATOM_NAMES.length];
+  private final List<AtomName> slotAtomNames = new ArrayList<>();
+  private final int slotCount;
+  private final double[] coordinates;
+  private final boolean[] present;
+  private final ResidueTorsionAngles[] results;
+
+  private TorsionAngleCalculator(final List<PdbResidue> residues) {
+    super();
+    this.residues = residues;
+    Arrays.fill(slots, -1);
+
+    residueAngleTypes = new ResidueAngleTypes[residues.size()];
+    for (int i = 0; i < residueAngleTypes.length; i++) {
+      residueAngleTypes[i] =
+          typesByProvider.computeIfAbsent(
+              residues.get(i).residueInformationProvider(), this::compile);
+    }
+
+    slotCount = slotAtomNames.size();
+    present = new boolean[residues.size() * slotCount];
+    coordinates = new double[3 * present.length];
+    results = new ResidueTorsionAngles[residues.size()];
+  }
+
+  /**
+   * Calculates torsion angles' values in all residues.
+   *
+   * @param collection A collection of residues.
+   * @return A list of torsion angles' values, one entry per residue.
+   */
+  public static List<ResidueTorsionAngles> calculate(final ResidueCollection collection) {
+    return TorsionAngleCalculator.calculate(collection, Runnable::run);
+  }
+
+  /**
+   * Calculates torsion angles' values in all residues. Each chain (a run of consecutive residues
+   * with the same chain identifier) is processed as a separate task on the given executor.
+   *
+   * @param collection A collection of residues.
+   * @param executor The executor to run tasks on.
+   * @return A list of torsion angles' values, one entry per residue.
+   */
+  public static List<ResidueTorsionAngles> calculate(
+      final ResidueCollection collection, final Executor executor) {
+    final List<PdbResidue> residues = collection.residues();
+    final TorsionAngleCalculator calculator = new TorsionAngleCalculator(residues);
+    final List<int[]> chainRanges = TorsionAngleCalculator.chainRanges(residues);
+
+    // angles use atoms of neighbouring residues (also across chains), so all coordinates must be
+    // gathered before any angle is calculated
+    TorsionAngleCalculator.runAll(chainRanges, calculator::gatherCoordinates, executor);
+    TorsionAngleCalculator.runAll(chainRanges, calculator::calculateAngles, executor);
+    return Arrays.asList(calculator.results);
+  }
+
+  private static List<int[]> chainRanges(final List<PdbResidue> residues) {
+    final List<int[]> ranges = new ArrayList<>();
+    int begin = 0;
+    for (int i = 1; i <= residues.size(); i++) {
+      if ((i == residues.size())
+          || !residues.get(i).chainIdentifier().equals(residues.get(begin).chainIdentifier())) {
+        ranges.add(new int[] {begin, i});
+        begin = i;
+      }
+    }
+    return ranges;
+  }
+
+  private static void runAll(
+      final Iterable<int[]> ranges, final IntConsumer task, final Executor executor) {
+    final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (final int[] range : ranges) {
+      futures.add(
+          CompletableFuture.runAsync(
+              () -> {
+                for (int i = range[0]; i < range[1]; i++) {
+                  task.accept(i);
+                }
+              },
+              executor));
+    }
+
+    FutureUtils.join(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])));
+  }
+
+  private ResidueAngleTypes compile(final ResidueInformationProvider provider) {
+    final List<TorsionAngleType> types = provider.torsionAngleTypes();
+    final CompiledAngleType[] compiledTypes = new CompiledAngleType[types.size()];
+    final int[] nuIndices = new int[TorsionAngleCalculator.NU_ANGLE_TYPES.size()];
+    Arrays.fill(nuIndices, -1);
+
+    for (int i = 0; i < compiledTypes.length; i++) {
+      final TorsionAngleType type = types.get(i);
+      if (type instanceof AtomBasedTorsionAngleType) {
+        compiledTypes[i] = compile((AtomBasedTorsionAngleType) type);
+        final int nuIndex = TorsionAngleCalculator.NU_ANGLE_TYPES.indexOf(type);
+        if (nuIndex != -1) {
+          nuIndices[nuIndex] = i;
+        }
+      } else if (type instanceof PseudophasePuckerType) {
+        TorsionAngleCalculator.NU_ANGLE_TYPES.forEach(this::compile);
+      }
+    }
+
+    return new ResidueAngleTypes(types, compiledTypes, nuIndices);
+  }
+
+  private CompiledAngleType compile(final AtomBasedTorsionAngleType type) {
+    return compiled.computeIfAbsent(
+        type,
+        key -> {
+          final int[] atomSlots = new int[4];
+          final int[] offsets = new int[4];
+          for (int i = 0; i < 4; i++) {
+            final AtomName atomName = key.atoms().get(i);
+            if (slots[atomName.ordinal()] == -1) {
+              slots[atomName.ordinal()] = slotAtomNames.size();
+              slotAtomNames.add(atomName);
+            }
+            atomSlots[i] = slots[atomName.ordinal()];
+            offsets[i] = key.residueRule().get(i);
+          }
+          return new CompiledAngleType(atomSlots, offsets);
+        });
+  }
+
+  private void gatherCoordinates(final int index) {
+    final PdbResidue residue = residues.get(index);
+
+    for (int slot = 0; slot < slotCount; slot++) {
+      final AtomName atomName = slotAtomNames.get(slot);
+      if (residue.hasAtom(atomName)) {
+        final PdbAtomLine atom = residue.findAtom(atomName);
+        final int position = index * slotCount + slot;
+        present[position] = true;
+        coordinates[3 * position] = atom.x();
+        coordinates[3 * position + 1] = atom.y();
+        coordinates[3 * position + 2] = atom.z();
+      }
+    }
+  }
+
+  private void calculateAngles(final int index) {
+    final ResidueAngleTypes angleTypes = residueAngleTypes[index];
+    final List<TorsionAngleType> types = angleTypes.types;
+    final List<TorsionAngleValue> values = new ArrayList<>(types.size());
+
+    for (int i = 0; i < types.size(); i++) {
+      final TorsionAngleType type = types.get(i);
+      if (angleTypes.compiled[i] != null) {
+        values.add(ImmutableTorsionAngleValue.of(type, value(angleTypes.compiled[i], index)));
+      } else if (type instanceof PseudophasePuckerType) {
+        final Angle[] nus = new Angle[angleTypes.nuIndices.length];
+        for (int j = 0; j < nus.length; j++) {
+          // nu angles are usually calculated already, because they precede the pucker
+          final int nuIndex = angleTypes.nuIndices[j];
+          nus[j] =
+              (nuIndex != -1 && nuIndex < i)
+                  ? values.get(nuIndex).value()
+                  : value(compiled.get(TorsionAngleCalculator.NU_ANGLE_TYPES.get(j)), index);
+        }
+        values.add(
+            ((PseudophasePuckerType) type).calculate(nus[0], nus[1], nus[2], nus[3], nus[4]));
+      } else {
+        values.add(type.calculate(residues, index));
+      }
+    }
+
+    results[index] = ImmutableResidueTorsionAngles.of(residues.get(index).identifier(), values);
+  }
+
+  private Angle value(final CompiledAngleType compiledType, final int index) {
+    final int[] positions = new int[4];
+
+    for (int i = 0; i < 4; i++) {
+      final int residueIndex = index + compiledType.offsets[i];
+      if ((residueIndex < 0) || (residueIndex >= residues.size())) {
+        return ImmutableAngle.of(Double.NaN);
+      }
+
+      final int position = residueIndex * slotCount + compiledType.slots[i];
+      if (!present[position]) {
+        return ImmutableAngle.of(Double.NaN);
+      }
+      positions[i] = 3 * position;
+    }
+
+    final double[] c = coordinates;
+    return ImmutableAngle.of(
+        Geometry.torsionAngle(
+            c[positions[0]],
+            c[positions[0] + 1],
+            c[positions[0] + 2],
+            c[positions[1]],
+            c[positions[1] + 1],
+            c[positions[1] + 2],
+            c[positions[2]],
+            c[positions[2] + 1],
+            c[positions[2] + 2],
+            c[positions[3]],
+            c[positions[3] + 1],
+            c[positions[3] + 2]));
+  }
+
+  private static final class ResidueAngleTypes {
+    private final List<TorsionAngleType> types;
+    private final CompiledAngleType[] compiled;
+    private final int[] nuIndices;
+
+    private ResidueAngleTypes(
+        final List<TorsionAngleType> types,
+        final CompiledAngleType[] compiled,
+        final int[] nuIndices) {
+      super();
+      this.types = types;
+      this.compiled = compiled;
+      this.nuIndices = nuIndices;
+    }
+  }
+
+  private static final class CompiledAngleType {
+    private final int[] slots;
+    private final int[] offsets;
+
+    private CompiledAngleType(final int[] slots, final int[] offsets) {
+      super();
+      this.slots = slots;
+      this.offsets = offsets;
+    }
+  }
+}
@@ -1,10 +1,9 @@
 package pl.poznan.put.protein;
 
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 
 /** A backbone in a protein. */
@@ -12,7 +11,7 @@ import pl.poznan.put.pdb.analysis.ResidueComponent;
 public interface Backbone extends ResidueComponent {
   @Override
   default Set<AtomName> requiredAtoms() {
-    return Stream.of(AtomName.N, AtomName.HN, AtomName.CA, AtomName.HA, AtomName.C, AtomName.O)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.N, AtomName.HN, AtomName.CA, AtomName.HA, AtomName.C, AtomName.O);
   }
 }
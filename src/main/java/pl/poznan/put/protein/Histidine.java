@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -40,19 +41,18 @@ abstract class Histidine implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB1,
-            AtomName.HB2,
-            AtomName.ND1,
-            AtomName.HD1,
-            AtomName.CG,
-            AtomName.CE1,
-            AtomName.HE1,
-            AtomName.NE2,
-            AtomName.HE2,
-            AtomName.CD2,
-            AtomName.HD2)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB1,
+        AtomName.HB2,
+        AtomName.ND1,
+        AtomName.HD1,
+        AtomName.CG,
+        AtomName.CE1,
+        AtomName.HE1,
+        AtomName.NE2,
+        AtomName.HE2,
+        AtomName.CD2,
+        AtomName.HD2);
   }
 }
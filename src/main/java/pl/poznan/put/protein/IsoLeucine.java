@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -41,20 +42,19 @@ abstract class IsoLeucine implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB,
-            AtomName.CG1,
-            AtomName.HG11,
-            AtomName.HG12,
-            AtomName.CG2,
-            AtomName.HG21,
-            AtomName.HG22,
-            AtomName.HG23,
-            AtomName.CD1,
-            AtomName.HD11,
-            AtomName.HD12,
-            AtomName.HD13)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB,
+        AtomName.CG1,
+        AtomName.HG11,
+        AtomName.HG12,
+        AtomName.CG2,
+        AtomName.HG21,
+        AtomName.HG22,
+        AtomName.HG23,
+        AtomName.CD1,
+        AtomName.HD11,
+        AtomName.HD12,
+        AtomName.HD13);
   }
 }
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -42,21 +43,20 @@ abstract class Phenylalanine implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB1,
-            AtomName.HB2,
-            AtomName.CG,
-            AtomName.CD1,
-            AtomName.HD1,
-            AtomName.CE1,
-            AtomName.HE1,
-            AtomName.CZ,
-            AtomName.HZ,
-            AtomName.CD2,
-            AtomName.HD2,
-            AtomName.CE2,
-            AtomName.HE2)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB1,
+        AtomName.HB2,
+        AtomName.CG,
+        AtomName.CD1,
+        AtomName.HD1,
+        AtomName.CE1,
+        AtomName.HE1,
+        AtomName.CZ,
+        AtomName.HZ,
+        AtomName.CD2,
+        AtomName.HD2,
+        AtomName.CE2,
+        AtomName.HE2);
   }
 }
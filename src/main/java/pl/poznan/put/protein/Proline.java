@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -41,16 +42,15 @@ abstract class Proline implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB1,
-            AtomName.HB2,
-            AtomName.CD,
-            AtomName.HD1,
-            AtomName.HD2,
-            AtomName.CG,
-            AtomName.HG1,
-            AtomName.HG2)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB1,
+        AtomName.HB2,
+        AtomName.CD,
+        AtomName.HD1,
+        AtomName.HD2,
+        AtomName.CG,
+        AtomName.HG1,
+        AtomName.HG2);
   }
 }
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -40,15 +41,14 @@ abstract class Threonine implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB,
-            AtomName.OG1,
-            AtomName.HG1,
-            AtomName.CG2,
-            AtomName.HG21,
-            AtomName.HG22,
-            AtomName.HG23)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB,
+        AtomName.OG1,
+        AtomName.HG1,
+        AtomName.CG2,
+        AtomName.HG21,
+        AtomName.HG22,
+        AtomName.HG23);
   }
 }
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -41,25 +42,24 @@ abstract class Tryptophan implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB1,
-            AtomName.HB2,
-            AtomName.CG,
-            AtomName.CD1,
-            AtomName.HD1,
-            AtomName.NE1,
-            AtomName.HE1,
-            AtomName.CE2,
-            AtomName.CD2,
-            AtomName.CE3,
-            AtomName.HE3,
-            AtomName.CZ3,
-            AtomName.HZ3,
-            AtomName.CZ2,
-            AtomName.HZ2,
-            AtomName.CH2,
-            AtomName.HH2)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB1,
+        AtomName.HB2,
+        AtomName.CG,
+        AtomName.CD1,
+        AtomName.HD1,
+        AtomName.NE1,
+        AtomName.HE1,
+        AtomName.CE2,
+        AtomName.CD2,
+        AtomName.CE3,
+        AtomName.HE3,
+        AtomName.CZ3,
+        AtomName.HZ3,
+        AtomName.CZ2,
+        AtomName.HZ2,
+        AtomName.CH2,
+        AtomName.HH2);
   }
 }
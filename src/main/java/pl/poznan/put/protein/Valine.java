@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 import pl.poznan.put.torsion.TorsionAngleType;
 
@@ -40,17 +41,16 @@ abstract class Valine implements Sidechain {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.CB,
-            AtomName.HB,
-            AtomName.CG1,
-            AtomName.HG11,
-            AtomName.HG12,
-            AtomName.HG13,
-            AtomName.CG2,
-            AtomName.HG21,
-            AtomName.HG22,
-            AtomName.HG23)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.CB,
+        AtomName.HB,
+        AtomName.CG1,
+        AtomName.HG11,
+        AtomName.HG12,
+        AtomName.HG13,
+        AtomName.CG2,
+        AtomName.HG21,
+        AtomName.HG22,
+        AtomName.HG23);
   }
 }
@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 
 @Value.Immutable(singleton = true)
@@ -28,22 +29,21 @@ abstract class Adenine implements Purine {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.N9,
-            AtomName.C5,
-            AtomName.N7,
-            AtomName.C8,
-            AtomName.H8,
-            AtomName.N1,
-            AtomName.C2,
-            AtomName.H2,
-            AtomName.N3,
-            AtomName.C4,
-            AtomName.C6,
-            AtomName.N6,
-            AtomName.H61,
-            AtomName.H62)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.N9,
+        AtomName.C5,
+        AtomName.N7,
+        AtomName.C8,
+        AtomName.H8,
+        AtomName.N1,
+        AtomName.C2,
+        AtomName.H2,
+        AtomName.N3,
+        AtomName.C4,
+        AtomName.C6,
+        AtomName.N6,
+        AtomName.H61,
+        AtomName.H62);
   }
 
   @Override
@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 
 @Value.Immutable(singleton = true)
@@ -29,23 +30,22 @@ abstract class Guanine implements Purine {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.N9,
-            AtomName.C4,
-            AtomName.N2,
-            AtomName.H21,
-            AtomName.H22,
-            AtomName.N3,
-            AtomName.C2,
-            AtomName.N1,
-            AtomName.H1,
-            AtomName.C6,
-            AtomName.O6,
-            AtomName.C5,
-            AtomName.N7,
-            AtomName.C8,
-            AtomName.H8)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.N9,
+        AtomName.C4,
+        AtomName.N2,
+        AtomName.H21,
+        AtomName.H22,
+        AtomName.N3,
+        AtomName.C2,
+        AtomName.N1,
+        AtomName.H1,
+        AtomName.C6,
+        AtomName.O6,
+        AtomName.C5,
+        AtomName.N7,
+        AtomName.C8,
+        AtomName.H8);
   }
 
   @Override
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.stream.Stream;
 import org.apache.commons.math3.util.FastMath;
 import org.immutables.value.Value;
+import pl.poznan.put.circular.Angle;
 import pl.poznan.put.circular.ImmutableAngle;
 import pl.poznan.put.pdb.analysis.MoleculeType;
 import pl.poznan.put.pdb.analysis.PdbResidue;
@@ -56,18 +57,29 @@ public abstract class PseudophasePuckerType implements TorsionAngleType {
     final TorsionAngleValue nu4 =
         NucleotideTorsionAngle.NU4.angleTypes().get(0).calculate(residues, currentIndex);
 
-    if (Stream.of(nu0, nu1, nu2, nu3, nu4)
-        .map(TorsionAngleValue::value)
-        .anyMatch(angle -> !angle.isValid())) {
+    return calculate(nu0.value(), nu1.value(), nu2.value(), nu3.value(), nu4.value());
+  }
+
+  /**
+   * Calculates the value of pseudophase pucker from already known values of nu0-nu4 angles.
+   *
+   * @param nu0 The value of nu0.
+   * @param nu1 The value of nu1.
+   * @param nu2 The value of nu2.
+   * @param nu3 The value of nu3.
+   * @param nu4 The value of nu4.
+   * @return The value of pseudophase pucker angle.
+   */
+  public final TorsionAngleValue calculate(
+      final Angle nu0, final Angle nu1, final Angle nu2, final Angle nu3, final Angle nu4) {
+    if (Stream.of(nu0, nu1, nu2, nu3, nu4).anyMatch(angle -> !angle.isValid())) {
       return ImmutableTorsionAngleValue.of(this, ImmutableAngle.of(Double.NaN));
     }
 
     final double scale =
         2.0 * (FastMath.sin(FastMath.toRadians(36.0)) + FastMath.sin(FastMath.toRadians(72.0)));
-    final double y =
-        (nu1.value().radians() + nu4.value().radians())
-            - (nu0.value().radians() + nu3.value().radians());
-    final double x = nu2.value().radians() * scale;
+    final double y = (nu1.radians() + nu4.radians()) - (nu0.radians() + nu3.radians());
+    final double x = nu2.radians() * scale;
     return ImmutableTorsionAngleValue.of(this, ImmutableAngle.of(FastMath.atan2(y, x)));
   }
 }
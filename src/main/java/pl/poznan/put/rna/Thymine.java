@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.atom.AtomNameSet;
 import pl.poznan.put.pdb.analysis.ResidueComponent;
 
 @Value.Immutable(singleton = true)
@@ -27,22 +28,21 @@ abstract class Thymine implements Pyrimidine {
 
   @Override
   public final Set<AtomName> requiredAtoms() {
-    return Stream.of(
-            AtomName.N1,
-            AtomName.C6,
-            AtomName.H6,
-            AtomName.C2,
-            AtomName.O2,
-            AtomName.N3,
-            AtomName.H3,
-            AtomName.C4,
-            AtomName.O4,
-            AtomName.C5,
-            AtomName.C5M,
-            AtomName.H51,
-            AtomName.H52,
-            AtomName.H53)
-        .collect(Collectors.toSet());
+    return AtomNameSet.of(
+        AtomName.N1,
+        AtomName.C6,
+        AtomName.H6,
+        AtomName.C2,
+        AtomName.O2,
+        AtomName.N3,
+        AtomName.H3,
+        AtomName.C4,
+        AtomName.O4,
+        AtomName.C5,
+        AtomName.C5M,
+        AtomName.H51,
+        AtomName.H52,
+        AtomName.H53);
   }
 
   @Override
@@ -3,9 +3,9 @@ package pl.poznan.put.structure;
 import java.io.Serializable;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.builder.CompareToBuilder;
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.circular.Geometry;
 import pl.poznan.put.pdb.PdbAtomLine;
 import pl.poznan.put.pdb.PdbNamedResidueIdentifier;
 import pl.poznan.put.pdb.analysis.PdbResidue;
@@ -122,9 +122,14 @@ public abstract class BasePair implements Serializable, Comparable<BasePair> {
     final PdbAtomLine c8 = purine.findAtom(AtomName.C8);
     final PdbAtomLine n1 = purine.findAtom(AtomName.N1);
 
-    final Vector3D v1 = n3.toVector3D().subtract(c6.toVector3D());
-    final Vector3D v2 = n1.toVector3D().subtract(c8.toVector3D());
-    final double dotProduct = v1.dotProduct(v2);
+    final double dotProduct =
+        Geometry.dotProduct(
+            n3.x() - c6.x(),
+            n3.y() - c6.y(),
+            n3.z() - c6.z(),
+            n1.x() - c8.x(),
+            n1.y() - c8.y(),
+            n1.z() - c8.z());
     return dotProduct < 0.0;
   }
 
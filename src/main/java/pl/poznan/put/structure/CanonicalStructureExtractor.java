@@ -2,10 +2,16 @@ package pl.poznan.put.structure;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
+import pl.poznan.put.atom.AtomName;
 import pl.poznan.put.pdb.PdbNamedResidueIdentifier;
+import pl.poznan.put.pdb.analysis.AtomSpatialIndex;
 import pl.poznan.put.pdb.analysis.ImmutableDefaultResidueCollection;
 import pl.poznan.put.pdb.analysis.MoleculeType;
 import pl.poznan.put.pdb.analysis.PdbResidue;
@@ -14,6 +20,12 @@ import pl.poznan.put.structure.formats.BpSeq;
 
 /** A set of methods to analyze 3D data to extract the canonical 2D structure. */
 public final class CanonicalStructureExtractor {
+  // every canonical pair has purine N1 close to pyrimidine N3 (A-U, C-G) or O2 (G-U)
+  private static final Set<AtomName> ANCHOR_ATOMS =
+      EnumSet.of(AtomName.N1, AtomName.N3, AtomName.O2);
+  // must not be lower than any of the respective hydrogen bond cutoffs in BasePair
+  private static final double ANCHOR_DISTANCE = 3.5;
+
   private CanonicalStructureExtractor() {
     super();
     // empty constructor
@@ -44,13 +56,16 @@ public final class CanonicalStructureExtractor {
   public static Collection<ClassifiedBasePair> basePairs(
       final ResidueCollection residueCollection) {
     final List<PdbResidue> residues = residueCollection.residues();
+    final List<SortedSet<Integer>> candidates =
+        CanonicalStructureExtractor.candidatePartners(residueCollection);
     final Collection<ClassifiedBasePair> basePairs = new ArrayList<>();
     final Collection<PdbNamedResidueIdentifier> paired = new HashSet<>();
 
     for (int i = 0; i < residues.size(); i++) {
       final PdbResidue left = residues.get(i);
 
-      for (int j = i + 1; j < residues.size(); j++) {
+      // partners are visited in increasing order, exactly as in a scan over all pairs
+      for (final int j : candidates.get(i)) {
         final PdbResidue right = residues.get(j);
 
         if (BasePair.isCanonicalPair(left, right)) {
@@ -68,4 +83,34 @@ public final class CanonicalStructureExtractor {
 
     return basePairs;
   }
+
+  /*
+   * Finds pairs of residues (i, j), i < j, which have any anchor atoms close enough to form a
+   * canonical base pair.
+   */
+  private static List<SortedSet<Integer>> candidatePartners(
+      final ResidueCollection residueCollection) {
+    final AtomSpatialIndex index =
+        new AtomSpatialIndex(
+            residueCollection,
+            atom -> CanonicalStructureExtractor.ANCHOR_ATOMS.contains(atom.detectAtomName()),
+            CanonicalStructureExtractor.ANCHOR_DISTANCE);
+
+    final List<SortedSet<Integer>> candidates = new ArrayList<>();
+    for (int i = 0; i < residueCollection.residues().size(); i++) {
+      candidates.add(new TreeSet<>());
+    }
+
+    index.forEachPairWithin(
+        CanonicalStructureExtractor.ANCHOR_DISTANCE,
+        (first, second, distance) -> {
+          final int left = index.residueIndex(first);
+          final int right = index.residueIndex(second);
+          if (left != right) {
+            // atoms are ordered by residues, so left < right
+            candidates.get(left).add(right);
+          }
+        });
+    return candidates;
+  }
 }
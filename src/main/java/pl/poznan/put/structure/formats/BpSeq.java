@@ -169,17 +169,26 @@ public abstract class BpSeq implements Serializable {
    * @return The sequence of nucleotides stored in this object.
    */
   public final String sequence() {
-    return entries().stream().map(e -> String.valueOf(e.seq())).collect(Collectors.joining());
+    return cachedSequence();
   }
 
   /**
    * @return The set of paired BPSEQ entries without duplicates. For example, pair (4, 15) will not
-   *     be repeated as (15, 4).
+   *     be repeated as (15, 4). The set is a new copy, so the caller may modify it.
    */
   public final SortedSet<Entry> paired() {
-    return entries().stream()
-        .filter(entry -> entry.index() < entry.pair())
-        .collect(Collectors.toCollection(TreeSet::new));
+    return new TreeSet<>(cachedPaired());
+  }
+
+  /**
+   * Finds the partner of a residue in O(1) time.
+   *
+   * @param index The index of a residue (1-based, like in BPSEQ entries).
+   * @return The index of the paired residue or 0 if it is unpaired.
+   */
+  public final int pair(final int index) {
+    Objects.checkIndex(index - 1, size());
+    return pairTable()[index];
   }
 
   /**
@@ -207,12 +216,7 @@ public abstract class BpSeq implements Serializable {
             .filter(region -> region.length() == 1)
             .map(region -> region.entries().get(0))
             .collect(Collectors.toList());
-
-    BpSeq result = ImmutableBpSeq.copyOf(this);
-    for (final BpSeq.Entry entry : toRemove) {
-      result = result.withoutPair(entry);
-    }
-    return result;
+    return withoutPairs(toRemove);
   }
 
   /**
@@ -222,23 +226,34 @@ public abstract class BpSeq implements Serializable {
    * @return A copy of this instance without the given pair.
    */
   public final BpSeq withoutPair(final BpSeq.Entry entry) {
-    if (!entry.isPaired()) {
-      return ImmutableBpSeq.copyOf(this);
-    }
+    return withoutPairs(Collections.singletonList(entry));
+  }
 
-    final SortedSet<Entry> entriesCopy = new TreeSet<>(entries());
-    entriesCopy.remove(entry);
-    entriesCopy.add(ImmutableEntry.copyOf(entry).withPair(0));
+  /**
+   * Creates a copy of this instance, but with all the given pairs removed. The result is the same
+   * as when calling {@link #withoutPair(Entry)} for each entry in turn, but the copy is made only
+   * once.
+   *
+   * @param entriesToRemove The pairs to remove.
+   * @return A copy of this instance without the given pairs.
+   */
+  public final BpSeq withoutPairs(final Iterable<Entry> entriesToRemove) {
+    final Entry[] updated = entries().toArray(new Entry[0]);
+    boolean isModified = false;
 
-    final Optional<Entry> paired =
-        entries().stream().filter(e -> e.index() == entry.pair()).findFirst();
+    for (final Entry entry : entriesToRemove) {
+      if (!entry.isPaired()) {
+        continue;
+      }
 
-    if (paired.isPresent()) {
-      entriesCopy.remove(paired.get());
-      entriesCopy.add(ImmutableEntry.copyOf(paired.get()).withPair(0));
+      updated[entry.index() - 1] = ImmutableEntry.copyOf(entry).withPair(0);
+      if ((entry.pair() > 0) && (entry.pair() <= updated.length)) {
+        updated[entry.pair() - 1] = ImmutableEntry.copyOf(updated[entry.pair() - 1]).withPair(0);
+      }
+      isModified = true;
     }
 
-    return ImmutableBpSeq.of(entriesCopy);
+    return isModified ? ImmutableBpSeq.of(Arrays.asList(updated)) : ImmutableBpSeq.copyOf(this);
   }
 
   @Override
@@ -246,10 +261,48 @@ public abstract class BpSeq implements Serializable {
     return entries().stream().map(e -> e + System.lineSeparator()).collect(Collectors.joining());
   }
 
+  /**
+   * @return The sequence of nucleotides, computed once.
+   */
+  @Value.Lazy
+  String cachedSequence() {
+    final char[] sequence = new char[entries().size()];
+    int i = 0;
+    for (final Entry entry : entries()) {
+      sequence[i] = entry.seq();
+      i += 1;
+    }
+    return new String(sequence);
+  }
+
+  /**
+   * @return The unmodifiable set of paired entries, computed once (see {@link #paired()}).
+   */
+  @Value.Lazy
+  SortedSet<Entry> cachedPaired() {
+    return Collections.unmodifiableSortedSet(
+        entries().stream()
+            .filter(entry -> entry.index() < entry.pair())
+            .collect(Collectors.toCollection(TreeSet::new)));
+  }
+
+  /**
+   * @return The pair column indexed by residue index (1-based, the element at 0 is unused).
+   */
+  @Value.Lazy
+  int[] pairTable() {
+    final int[] pairTable = new int[entries().size() + 1];
+    for (final Entry entry : entries()) {
+      if ((entry.index() > 0) && (entry.index() < pairTable.length)) {
+        pairTable[entry.index()] = entry.pair();
+      }
+    }
+    return pairTable;
+  }
+
   @Value.Check
   protected void validate() {
-    final Map<Integer, Integer> map =
-        entries().stream().collect(Collectors.toMap(Entry::index, Entry::pair));
+    final int[] pairTable = pairTable();
 
     int previous = 0;
     for (final Entry entry : entries()) {
@@ -264,21 +317,21 @@ public abstract class BpSeq implements Serializable {
           entry.index());
 
       previous = entry.index();
-      final int pair = map.get(entry.index());
+      final int pair = entry.pair();
 
       if (pair != 0) {
         Validate.isTrue(
-            map.containsKey(pair),
+            (pair > 0) && (pair < pairTable.length),
             "Inconsistency in BPSEQ format: (%d -> %d)",
             entry.index(),
             pair);
         Validate.isTrue(
-            (map.get(pair) == entry.index()),
+            (pairTable[pair] == entry.index()),
             "Inconsistency in BPSEQ format: (%d -> %d) and (%d -> %d)",
             entry.index(),
             pair,
             pair,
-            map.get(pair));
+            pairTable[pair]);
       }
     }
   }
@@ -2,14 +2,16 @@ package pl.poznan.put.structure.formats;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.apache.commons.lang3.builder.CompareToBuilder;
 import org.immutables.value.Value;
 import pl.poznan.put.structure.pseudoknots.PseudoknotFinder;
 import pl.poznan.put.structure.pseudoknots.elimination.ImmutableMinGain;
+import pl.poznan.put.utility.FutureUtils;
 
 /**
  * A default converter from BPSEQ to dot-bracket which iteratively (1) finds non-pseudoknots and
@@ -36,7 +38,7 @@ public abstract class DefaultConverter implements Converter {
     Optional<State> current = state.parent();
 
     while (current.isPresent()) {
-      for (final BpSeq.Entry pairs : current.get().bpSeq().paired()) {
+      for (final BpSeq.Entry pairs : current.get().bpSeq().cachedPaired()) {
         final int i = pairs.index();
         final int j = pairs.pair();
 
@@ -90,14 +92,42 @@ public abstract class DefaultConverter implements Converter {
     return ImmutableDefaultDotBracket.of(bpSeq.sequence(), structure);
   }
 
-  private List<State> processStates(final Collection<State> states) {
+  /**
+   * @return The executor to find pseudoknots in independent states on (by default, states are
+   *     processed one by one in the calling thread).
+   */
+  @Value.Default
+  @Value.Auxiliary
+  public Executor executor() {
+    return Runnable::run;
+  }
+
+  private List<State> processStates(final List<State> states) {
+    final List<CompletableFuture<List<BpSeq>>> futures = new ArrayList<>(states.size());
     final List<State> nextStates = new ArrayList<>(states.size());
-    for (final State state : states) {
-      for (final BpSeq bpSeq : pseudoknotFinder().findPseudoknots(state.bpSeq())) {
+
+    for (int i = 0; i < states.size(); i++) {
+      // states are submitted ahead only while the last submitted task is still running (so a
+      // synchronous executor processes them one by one) and no further than the number of
+      // solutions still needed, assuming each state yields at least one
+      while ((futures.size() < states.size())
+          && ((futures.size() == i)
+              || (((futures.size() - i) <= (maxSolutions() - nextStates.size()))
+                  && !futures.get(futures.size() - 1).isDone()))) {
+        final BpSeq bpSeq = states.get(futures.size()).bpSeq();
+        futures.add(
+            CompletableFuture.supplyAsync(
+                () -> pseudoknotFinder().findPseudoknots(bpSeq), executor()));
+      }
+
+      final State state = states.get(i);
+      for (final BpSeq bpSeq : FutureUtils.join(futures.get(i))) {
         final State nextState = ImmutableState.of(Optional.of(state), bpSeq, state.level() + 1);
         nextStates.add(nextState);
 
         if (nextStates.size() > maxSolutions()) {
+          // tasks which have not started yet will not run
+          futures.subList(i + 1, futures.size()).forEach(future -> future.cancel(false));
           return nextStates;
         }
       }
@@ -118,7 +148,7 @@ public abstract class DefaultConverter implements Converter {
 
     @Value.Lazy
     public int score() {
-      return bpSeq().paired().size();
+      return bpSeq().cachedPaired().size();
     }
 
     @Override
@@ -1,19 +1,19 @@
 package pl.poznan.put.structure.pseudoknots;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.math3.util.CombinatoricsUtils;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.immutables.value.Value;
 import pl.poznan.put.structure.pseudoknots.dp.ConflictClique;
 import pl.poznan.put.structure.pseudoknots.dp.ImmutableConflictClique;
@@ -113,39 +113,38 @@ public abstract class ConflictGraph {
 
   /**
    * Searches for connected components (named conflict cliques, although they are not real cliques).
+   * Components are found with union-find over the conflicts, so this takes linear time.
    *
    * @return The list of conflict cliques.
    */
   public final List<ConflictClique> conflictCliques() {
-    final List<ConflictClique> conflictCliques = new ArrayList<>();
-    final Collection<Region> seen = new HashSet<>();
-
-    for (final Region region : conflicts().keySet()) {
-      if (seen.contains(region)) {
-        continue;
-      }
-
-      final Collection<Region> todo = new HashSet<>();
-      todo.add(region);
-      final Set<Region> done = new HashSet<>();
-
-      while (!CollectionUtils.isEqualCollection(todo, done)) {
-        final Collection<Region> next = new ArrayList<>();
-        for (final Region r : todo) {
-          next.addAll(conflicts().get(r));
-          done.add(r);
-        }
-        todo.addAll(next);
-      }
+    final List<Region> conflicted = new ArrayList<>(conflicts().keySet());
+    final Map<Region, Integer> indices = new HashMap<>();
+    for (int i = 0; i < conflicted.size(); i++) {
+      indices.put(conflicted.get(i), i);
+    }
 
-      if (done.size() > 1) {
-        conflictCliques.add(ImmutableConflictClique.of(done));
+    final int[] parents = IntStream.range(0, conflicted.size()).toArray();
+    for (int i = 0; i < conflicted.size(); i++) {
+      for (final Region other : conflicts().get(conflicted.get(i))) {
+        final int leftRoot = ConflictGraph.findRoot(parents, i);
+        final int rightRoot = ConflictGraph.findRoot(parents, indices.get(other));
+        // the smaller index is the root, so components are ordered by their first region
+        parents[Math.max(leftRoot, rightRoot)] = Math.min(leftRoot, rightRoot);
       }
+    }
 
-      seen.addAll(done);
+    final Map<Integer, Set<Region>> components = new LinkedHashMap<>();
+    for (int i = 0; i < conflicted.size(); i++) {
+      components
+          .computeIfAbsent(ConflictGraph.findRoot(parents, i), key -> new HashSet<>())
+          .add(conflicted.get(i));
     }
 
-    return conflictCliques;
+    return components.values().stream()
+        .filter(component -> component.size() > 1)
+        .map(ImmutableConflictClique::of)
+        .collect(Collectors.toList());
   }
 
   /**
@@ -153,54 +152,158 @@ public abstract class ConflictGraph {
    * fully embedded into the bigger ones, if both the small and big region have exactly the same
    * conflicts.
    *
+   * <p>Regions with exactly the same conflicts never conflict with each other, so each such group
+   * is a family of nested or disjoint regions. Merging a pair does not change which other regions
+   * have equal conflicts, therefore all merges are done in a single pass: in each group, every
+   * outermost region absorbs all regions embedded in it.
+   *
    * @return A simplified instance of this conflict graph.
    */
   public final ConflictGraph simplified() {
-    final Collection<Region> toRemove = new ArrayList<>();
-    final Collection<Region> toAdd = new ArrayList<>();
-
-    ConflictGraph result = ImmutableConflictGraph.copyOf(this);
-    do {
-      final List<Region> conflicted = new ArrayList<>(result.regionsWithConflicts());
-      toRemove.clear();
-      toAdd.clear();
-
-      for (int i = 0; i < conflicted.size(); i++) {
-        final Region ri = conflicted.get(i);
-        final int riBegin = ri.begin();
-        final int riEnd = ri.end();
-
-        for (int j = i + 1; j < conflicted.size(); j++) {
-          final Region rj = conflicted.get(j);
-          final int rjBegin = rj.begin();
-          final int rjEnd = rj.end();
-
-          final boolean b1 = (riBegin <= rjBegin) && (riEnd >= rjEnd);
-          final boolean b2 = (rjBegin <= riBegin) && (rjEnd >= riEnd);
-          if ((b1 || b2)
-              && CollectionUtils.isEqualCollection(
-                  result.conflictsWith(ri), result.conflictsWith(rj))) {
-            toRemove.add(ri);
-            toRemove.add(rj);
-            toAdd.add(Region.merge(ri, rj));
-            break;
+    final Map<Set<Region>, List<Region>> groups = new HashMap<>();
+    for (final Map.Entry<Region, Set<Region>> entry : conflicts().entrySet()) {
+      groups.computeIfAbsent(entry.getValue(), key -> new ArrayList<>()).add(entry.getKey());
+    }
+
+    final Set<Region> toRemove = new HashSet<>();
+    final Map<Region, Region> mergedByOutermost = new HashMap<>();
+    for (final List<Region> group : groups.values()) {
+      if (group.size() < 2) {
+        continue;
+      }
+
+      group.sort(
+          Comparator.comparingInt(Region::begin)
+              .thenComparing(Comparator.comparingInt(Region::end).reversed()));
+
+      int outermost = 0;
+      for (int i = 1; i <= group.size(); i++) {
+        if ((i == group.size()) || (group.get(i).end() > group.get(outermost).end())) {
+          if (i - outermost > 1) {
+            final List<Region> nested = group.subList(outermost, i);
+            toRemove.addAll(nested);
+            mergedByOutermost.put(
+                group.get(outermost), Region.merge(nested.toArray(new Region[0])));
           }
+          outermost = i;
         }
+      }
+    }
+
+    if (toRemove.isEmpty()) {
+      return ImmutableConflictGraph.copyOf(this);
+    }
+
+    final List<Region> regionsCopy = new ArrayList<>();
+    final List<Region> merged = new ArrayList<>();
+    for (final Region region : regions()) {
+      if (!toRemove.contains(region)) {
+        regionsCopy.add(region);
+      } else if (mergedByOutermost.containsKey(region)) {
+        merged.add(mergedByOutermost.get(region));
+      }
+    }
+    regionsCopy.addAll(merged);
+    return ImmutableConflictGraph.of(regionsCopy);
+  }
 
-        if (!toRemove.isEmpty()) {
-          break;
+  private static int findRoot(final int[] parents, final int index) {
+    int current = index;
+    while (parents[current] != current) {
+      parents[current] = parents[parents[current]];
+      current = parents[current];
+    }
+    return current;
+  }
+
+  /**
+   * Finds all pairs of conflicting regions with a sweep line. Regions are visited in the order of
+   * their beginnings, while the ones still open are kept ordered by their ends. A region (b, e)
+   * conflicts exactly with those open regions which began earlier and end in (b, e), so only the
+   * conflicting pairs are ever visited. The result is the same as checking {@link
+   * #isConflicting(Region, Region)} for all pairs, but takes O(n log n + k) time for k conflicts.
+   *
+   * @param regions The list of regions.
+   * @return The adjacency lists of the conflict graph, indexed as the input list (sorted
+   *     ascending).
+   */
+  static int[][] conflictAdjacency(final List<Region> regions) {
+    final int size = regions.size();
+    final int[] begins = new int[size];
+    final int[] ends = new int[size];
+    for (int i = 0; i < size; i++) {
+      begins[i] = regions.get(i).begin();
+      ends[i] = regions.get(i).end();
+    }
+
+    final int[] order =
+        IntStream.range(0, size)
+            .boxed()
+            .sorted(Comparator.comparingInt(i -> begins[i]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+    // open regions encoded as (end, index) in a single long to keep them ordered by end
+    final NavigableSet<Long> open = new TreeSet<>();
+    final int[] degrees = new int[size];
+    int[] firsts = new int[16];
+    int[] seconds = new int[16];
+    int count = 0;
+
+    int groupStart = 0;
+    while (groupStart < size) {
+      final int begin = begins[order[groupStart]];
+      int groupEnd = groupStart;
+      while ((groupEnd < size) && (begins[order[groupEnd]] == begin)) {
+        groupEnd += 1;
+      }
+
+      // regions ending before or at this point will never conflict again
+      open.headSet(ConflictGraph.encode(begin, Integer.MAX_VALUE), true).clear();
+
+      // regions with equal beginnings do not conflict, so all are queried before any is opened
+      for (int k = groupStart; k < groupEnd; k++) {
+        final int current = order[k];
+        for (final long encoded : open.headSet(ConflictGraph.encode(ends[current], 0), false)) {
+          if (count == firsts.length) {
+            firsts = Arrays.copyOf(firsts, 2 * count);
+            seconds = Arrays.copyOf(seconds, 2 * count);
+          }
+          final int other = (int) encoded;
+          firsts[count] = other;
+          seconds[count] = current;
+          count += 1;
+          degrees[other] += 1;
+          degrees[current] += 1;
         }
       }
 
-      if (!toRemove.isEmpty()) {
-        final List<Region> regionsCopy = new ArrayList<>(regions());
-        regionsCopy.removeAll(toRemove);
-        regionsCopy.addAll(toAdd);
-        result = ImmutableConflictGraph.of(regionsCopy);
+      for (int k = groupStart; k < groupEnd; k++) {
+        final int current = order[k];
+        if (ends[current] > begin) {
+          open.add(ConflictGraph.encode(ends[current], current));
+        }
       }
-    } while (!toRemove.isEmpty());
+      groupStart = groupEnd;
+    }
+
+    final int[][] adjacency = new int[size][];
+    for (int i = 0; i < size; i++) {
+      adjacency[i] = new int[degrees[i]];
+      degrees[i] = 0;
+    }
+    for (int i = 0; i < count; i++) {
+      adjacency[firsts[i]][degrees[firsts[i]]++] = seconds[i];
+      adjacency[seconds[i]][degrees[seconds[i]]++] = firsts[i];
+    }
+    for (final int[] neighbours : adjacency) {
+      Arrays.sort(neighbours);
+    }
+    return adjacency;
+  }
 
-    return result;
+  private static long encode(final int end, final int index) {
+    return ((long) end << 32) | (index & 0xFFFFFFFFL);
   }
 
   @Value.Lazy
@@ -209,20 +312,19 @@ public abstract class ConflictGraph {
       return Collections.emptyMap();
     }
 
+    final List<Region> regions = regions();
+    final int[][] adjacency = ConflictGraph.conflictAdjacency(regions);
     final Map<Region, Set<Region>> map = new HashMap<>();
 
-    final Iterator<int[]> iterator = CombinatoricsUtils.combinationsIterator(regions().size(), 2);
-    final Iterable<int[]> iterable = () -> iterator;
-    StreamSupport.stream(iterable.spliterator(), false)
-        .map(ints -> Pair.of(regions().get(ints[0]), regions().get(ints[1])))
-        .filter(pair -> ConflictGraph.isConflicting(pair.getLeft(), pair.getRight()))
-        .flatMap(pair -> Stream.of(pair, Pair.of(pair.getRight(), pair.getLeft())))
-        .distinct()
-        .forEach(
-            pair -> {
-              map.putIfAbsent(pair.getLeft(), new HashSet<>());
-              map.get(pair.getLeft()).add(pair.getRight());
-            });
+    for (int i = 0; i < adjacency.length; i++) {
+      if (adjacency[i].length == 0) {
+        continue;
+      }
+      final Set<Region> conflicting = map.computeIfAbsent(regions.get(i), key -> new HashSet<>());
+      for (final int j : adjacency[i]) {
+        conflicting.add(regions.get(j));
+      }
+    }
 
     return map;
   }
@@ -4,124 +4,35 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.Validate;
 import org.immutables.value.Value;
 import pl.poznan.put.structure.formats.BpSeq;
-import pl.poznan.put.structure.formats.ImmutableBpSeq;
 import pl.poznan.put.structure.pseudoknots.ConflictGraph;
 import pl.poznan.put.structure.pseudoknots.ImmutableConflictGraph;
 import pl.poznan.put.structure.pseudoknots.Region;
 import pl.poznan.put.structure.pseudoknots.elimination.RegionRemover;
+import pl.poznan.put.utility.FutureUtils;
 
 /**
  * Java implementation of OPT ALL algorithm as presented in: Smit, S. et al., 2008. From knotted to
  * nested RNA structures: A variety of computational methods for pseudoknot removal. RNA, 14,
  * pp.410–416.
+ *
+ * <p>Only the best scores are kept in the dynamic programming table (as primitive integers). The
+ * optimal solutions are reconstructed afterwards by following every choice which attains the best
+ * score, so the table takes memory quadratic in the clique size regardless of how many co-optimal
+ * solutions there are.
  */
 @Value.Immutable(singleton = true)
 public abstract class DynamicProgrammingAll implements DynamicProgramming {
-  private static SubSolution[] solveSingleCase(
-      final SubSolution[][][] matrix,
-      final ConflictClique conflictClique,
-      final int i,
-      final int j) {
-    final int size = conflictClique.endpointCount();
-    final Collection<SubSolution> candidates = new HashSet<>(size);
-
-    // add solutions from the left
-    if (matrix[i][j - 1].length > 0) {
-      candidates.addAll(Arrays.asList(matrix[i][j - 1]));
-    }
-
-    // add solutions from the bottom
-    if (matrix[i + 1][j].length > 0) {
-      candidates.addAll(Arrays.asList(matrix[i + 1][j]));
-    }
-
-    // if there is a region from i to j, then add it and all from
-    // the bottom left
-    final Optional<Region> region =
-        conflictClique.findRegion(conflictClique.endpoint(i), conflictClique.endpoint(j));
-    if (region.isPresent()) {
-      final SubSolution current = ImmutableSubSolution.of(Collections.singletonList(region.get()));
-
-      if (matrix[i + 1][j - 1].length > 0) {
-        for (final SubSolution subSolution : matrix[i + 1][j - 1]) {
-          candidates.add(SubSolution.merge(subSolution, current));
-        }
-      } else {
-        candidates.add(current);
-      }
-    }
-
-    // merge solution from next-row, previous-column
-    candidates.addAll(DynamicProgrammingAll.merge(matrix, conflictClique, i, j));
-
-    // select all candidates with highest score
-    final List<SubSolution> bestCandidates = DynamicProgrammingAll.selectBestCandidates(candidates);
-    return bestCandidates.toArray(new SubSolution[0]);
-  }
-
-  private static Collection<SubSolution> merge(
-      final SubSolution[][][] matrix,
-      final ConflictClique conflictClique,
-      final int i,
-      final int j) {
-    final SubSolution[] left = matrix[i][j - 1];
-    final SubSolution[] below = matrix[i + 1][j];
-
-    if ((left.length == 0) || (below.length == 0)) {
-      return Collections.emptyList();
-    }
-
-    final Collection<SubSolution> result = new ArrayList<>();
-
-    for (final SubSolution leftSub : left) {
-      final int highestEndpoint = leftSub.highestEndpoint();
-
-      for (final SubSolution belowSub : below) {
-        final int lowestEndpoint = belowSub.lowestEndpoint();
-
-        if (highestEndpoint < lowestEndpoint) {
-          result.add(SubSolution.merge(leftSub, belowSub));
-          continue;
-        }
-
-        final int begin = conflictClique.indexOfEndpoint(lowestEndpoint) - 1;
-        final int end = conflictClique.indexOfEndpoint(highestEndpoint) + 1;
-
-        for (int k = begin; k < end; k++) {
-          for (final SubSolution s1 : matrix[i][k]) {
-            for (final SubSolution s2 : matrix[k + 1][j]) {
-              result.add(SubSolution.merge(s1, s2));
-            }
-          }
-        }
-      }
-    }
-
-    return result;
-  }
-
-  private static List<SubSolution> selectBestCandidates(final Collection<SubSolution> candidates) {
-    if (candidates.isEmpty()) {
-      return Collections.emptyList();
-    }
-
-    final SortedMap<Integer, List<SubSolution>> map = new TreeMap<>();
-    candidates.forEach(
-        subSolution -> {
-          final int score = subSolution.score();
-          map.putIfAbsent(score, new ArrayList<>());
-          map.get(score).add(subSolution);
-        });
-    return map.get(map.lastKey());
-  }
-
   /**
    * @return An optional region remover to be used if a clique size exceeds {@code maxCliqueSize()}.
    */
@@ -129,16 +40,10 @@ public abstract class DynamicProgrammingAll implements DynamicProgramming {
 
   @Override
   public final List<SubSolution> findOptimalSolutions(final ConflictClique conflictClique) {
-    final int size = conflictClique.endpointCount();
-    final SubSolution[][][] matrix = new SubSolution[size][size][0];
-
-    for (int j = 1; j < size; j++) {
-      for (int i = j - 1; i >= 0; i--) {
-        matrix[i][j] = DynamicProgrammingAll.solveSingleCase(matrix, conflictClique, i, j);
-      }
-    }
-
-    return Arrays.asList(matrix[0][size - 1]);
+    final ScoreTable scoreTable = new ScoreTable(conflictClique, maxSolutions());
+    return scoreTable.solutions(0, conflictClique.endpointCount() - 1).stream()
+        .map(ImmutableSubSolution::of)
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -168,35 +73,34 @@ public abstract class DynamicProgrammingAll implements DynamicProgramming {
       } while (max > maxCliqueSize());
     }
 
-    List<List<BpSeq.Entry>> results = new ArrayList<>();
-    results.add(nonConflicting);
     final List<ConflictClique> conflictCliques = conflictGraph.conflictCliques();
-
-    for (final ConflictClique conflictClique : conflictCliques) {
-      final List<List<BpSeq.Entry>> nextResults = new ArrayList<>();
-      final List<SubSolution> solutions = findOptimalSolutions(conflictClique);
-
-      for (final SubSolution solution : solutions) {
-        for (final List<BpSeq.Entry> previousResult : results) {
-          final List<BpSeq.Entry> nextResult = new ArrayList<>(previousResult);
-          for (final Region region : solution.regions()) {
-            nextResult.addAll(region.entries());
-          }
-          nextResults.add(nextResult);
-        }
-      }
-
-      results = nextResults;
+    final List<List<SubSolution>> solutions = findOptimalSolutions(conflictCliques);
+    if (solutions.stream().anyMatch(List::isEmpty)) {
+      return Collections.emptyList();
     }
 
+    // combine solutions of cliques one by one (the first clique changes fastest), until the limit
     final List<BpSeq> bpSeqs = new ArrayList<>();
-
-    for (final List<BpSeq.Entry> result : results) {
-      BpSeq nextBpSeq = ImmutableBpSeq.copyOf(bpSeq);
-      for (final BpSeq.Entry entry : result) {
-        nextBpSeq = nextBpSeq.withoutPair(entry);
+    final int[] choices = new int[solutions.size()];
+    boolean hasNext = true;
+
+    while (hasNext && (bpSeqs.size() < maxSolutions())) {
+      final List<BpSeq.Entry> result = new ArrayList<>(nonConflicting);
+      for (int i = 0; i < choices.length; i++) {
+        for (final Region region : solutions.get(i).get(choices[i]).regions()) {
+          result.addAll(region.entries());
+        }
+      }
+      bpSeqs.add(bpSeq.withoutPairs(result));
+
+      hasNext = false;
+      for (int i = 0; (i < choices.length) && !hasNext; i++) {
+        choices[i] += 1;
+        hasNext = choices[i] < solutions.get(i).size();
+        if (!hasNext) {
+          choices[i] = 0;
+        }
       }
-      bpSeqs.add(nextBpSeq);
     }
 
     return bpSeqs;
@@ -211,4 +115,157 @@ public abstract class DynamicProgrammingAll implements DynamicProgramming {
   protected int maxCliqueSize() {
     return Integer.MAX_VALUE;
   }
+
+  /**
+   * @return The maximum number of co-optimal solutions reported for a single conflict clique and
+   *     for the whole structure. All are reported by default, but their number may grow
+   *     exponentially with the clique size and the number of cliques.
+   */
+  @Value.Default
+  protected int maxSolutions() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * @return The executor to solve independent conflict cliques on (by default, they are solved one
+   *     by one in the calling thread).
+   */
+  @Value.Default
+  @Value.Auxiliary
+  protected Executor executor() {
+    return Runnable::run;
+  }
+
+  @Value.Check
+  protected void validate() {
+    Validate.isTrue(
+        maxSolutions() >= 1, "At least one solution must be allowed: %d", maxSolutions());
+  }
+
+  private List<List<SubSolution>> findOptimalSolutions(
+      final Collection<ConflictClique> conflictCliques) {
+    final List<CompletableFuture<List<SubSolution>>> futures =
+        conflictCliques.stream()
+            .map(
+                conflictClique ->
+                    CompletableFuture.supplyAsync(
+                        () -> findOptimalSolutions(conflictClique), executor()))
+            .collect(Collectors.toList());
+
+    return futures.stream().map(FutureUtils::join).collect(Collectors.toList());
+  }
+
+  /**
+   * The best scores of non-conflicting subsets of regions for each range of endpoints in a clique.
+   * The best solution in range [i, j] either skips the region beginning at endpoint i or keeps it
+   * together with the best solutions inside and after it. Both options are checked again during
+   * reconstruction, so no back-pointers need to be stored. Solutions reconstructed for a range are
+   * memoized, because the same range may be reached through many co-optimal choices.
+   */
+  private static final class ScoreTable {
+    private final int[] partners;
+    private final Region[] regions;
+    // row i holds scores for ranges [i, i], [i, i + 1], ..., [i, size - 1]
+    private final int[][] scores;
+    private final int limit;
+    // solutions of range [i, j] under key i * size + j, filled only for ranges visited
+    private final Map<Long, List<List<Region>>> reconstructed = new HashMap<>();
+
+    private ScoreTable(final ConflictClique conflictClique, final int limit) {
+      super();
+      this.limit = limit;
+      final int size = conflictClique.endpointCount();
+      partners = new int[size];
+      regions = new Region[size];
+      Arrays.fill(partners, -1);
+
+      final int[] endpoints = IntStream.range(0, size).map(conflictClique::endpoint).toArray();
+      for (final Region region : conflictClique.regions()) {
+        final int begin = Arrays.binarySearch(endpoints, region.begin());
+        partners[begin] = Arrays.binarySearch(endpoints, region.end());
+        regions[begin] = region;
+      }
+
+      scores = new int[size][];
+      for (int i = size - 1; i >= 0; i--) {
+        scores[i] = new int[size - i];
+        for (int j = i; j < size; j++) {
+          scores[i][j - i] = Math.max(score(i + 1, j), keepScore(i, j));
+        }
+      }
+    }
+
+    private int score(final int i, final int j) {
+      return (i > j) ? 0 : scores[i][j - i];
+    }
+
+    // the best score in [i, j] if the region beginning at i is kept, or -1 if it cannot be kept
+    private int keepScore(final int i, final int j) {
+      final int partner = partners[i];
+      if ((partner == -1) || (partner > j)) {
+        return -1;
+      }
+      return regions[i].length() + score(i + 1, partner - 1) + score(partner + 1, j);
+    }
+
+    /**
+     * Reconstructs optimal solutions in range [i, j]. Each solution is generated once, because at
+     * every endpoint its region is either kept or skipped. At most {@code limit} solutions are kept
+     * for each range and they are computed once, so the cost is bounded by the number of visited
+     * ranges times {@code limit} solutions, each copied in time linear in its length.
+     *
+     * @param i The first endpoint index.
+     * @param j The last endpoint index.
+     * @return An unmodifiable list of optimal solutions, each being a list of regions.
+     */
+    private List<List<Region>> solutions(final int i, final int j) {
+      final long key = (long) i * partners.length + j;
+      List<List<Region>> result = reconstructed.get(key);
+      if (result == null) {
+        result = Collections.unmodifiableList(reconstruct(i, j));
+        reconstructed.put(key, result);
+      }
+      return result;
+    }
+
+    private List<List<Region>> reconstruct(final int i, final int j) {
+      final List<List<Region>> result = new ArrayList<>();
+      final int best = score(i, j);
+
+      // skipped endpoints are followed in a loop to keep the recursion shallow
+      int current = i;
+      while (current <= j) {
+        if (keepScore(current, j) == best) {
+          final int partner = partners[current];
+          final List<List<Region>> inside = solutions(current + 1, partner - 1);
+          final List<List<Region>> after = solutions(partner + 1, j);
+
+          for (final List<Region> insideSolution : inside) {
+            for (final List<Region> afterSolution : after) {
+              if (result.size() == limit) {
+                return result;
+              }
+              final List<Region> solution =
+                  new ArrayList<>(1 + insideSolution.size() + afterSolution.size());
+              solution.add(regions[current]);
+              solution.addAll(insideSolution);
+              solution.addAll(afterSolution);
+              result.add(solution);
+            }
+          }
+        }
+
+        if (score(current + 1, j) != best) {
+          return result;
+        }
+        current += 1;
+      }
+
+      // all endpoints were skipped, which is optimal only for an empty range or score
+      if (result.size() < limit) {
+        result.add(Collections.emptyList());
+      }
+      return result;
+    }
+  }
 }
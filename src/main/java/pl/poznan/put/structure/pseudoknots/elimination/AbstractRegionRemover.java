@@ -6,7 +6,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 import pl.poznan.put.structure.formats.BpSeq;
-import pl.poznan.put.structure.formats.ImmutableBpSeq;
 import pl.poznan.put.structure.pseudoknots.ConflictGraph;
 import pl.poznan.put.structure.pseudoknots.ImmutableConflictGraph;
 import pl.poznan.put.structure.pseudoknots.Region;
@@ -69,10 +68,6 @@ public abstract class AbstractRegionRemover implements RegionRemover {
             .flatMap(Collection::stream)
             .collect(Collectors.toList());
 
-    BpSeq result = ImmutableBpSeq.copyOf(bpSeq);
-    for (final BpSeq.Entry entry : nonPseudoknotted) {
-      result = result.withoutPair(entry);
-    }
-    return Collections.singletonList(result);
+    return Collections.singletonList(bpSeq.withoutPairs(nonPseudoknotted));
   }
 }
@@ -9,14 +9,18 @@ import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.immutables.value.Value;
 import pl.poznan.put.atom.AtomName;
 import pl.poznan.put.circular.Angle;
+import pl.poznan.put.circular.Geometry;
 import pl.poznan.put.circular.ImmutableAngle;
 import pl.poznan.put.pdb.PdbAtomLine;
 import pl.poznan.put.pdb.analysis.MoleculeType;
 import pl.poznan.put.pdb.analysis.PdbResidue;
 import pl.poznan.put.types.Quadruple;
 
-/** A torsion angle which is defined upon four atomic coordinates. */
-@Value.Immutable
+/**
+ * A torsion angle which is defined upon four atomic coordinates. The hash code is computed once,
+ * because instances are used as keys when looking up angle values.
+ */
+@Value.Immutable(prehash = true)
 public interface AtomBasedTorsionAngleType extends TorsionAngleType {
   @Override
   @Value.Parameter(order = 1)
@@ -32,19 +36,16 @@ public interface AtomBasedTorsionAngleType extends TorsionAngleType {
    */
   @Override
   default TorsionAngleValue calculate(final List<PdbResidue> residues, final int currentIndex) {
-    final List<AtomPair> atomPairs = findAtomPairs(residues, currentIndex);
+    final PdbAtomLine a1 = findAtom(residues, currentIndex, 0);
+    final PdbAtomLine a2 = findAtom(residues, currentIndex, 1);
+    final PdbAtomLine a3 = findAtom(residues, currentIndex, 2);
+    final PdbAtomLine a4 = findAtom(residues, currentIndex, 3);
 
-    if (atomPairs.size() != 3) {
+    if ((a1 == null) || (a2 == null) || (a3 == null) || (a4 == null)) {
       return ImmutableTorsionAngleValue.of(this, ImmutableAngle.of(Double.NaN));
     }
 
-    return ImmutableTorsionAngleValue.of(
-        this,
-        Angle.torsionAngle(
-            atomPairs.get(0).leftAtom().toVector3D(),
-            atomPairs.get(1).leftAtom().toVector3D(),
-            atomPairs.get(2).leftAtom().toVector3D(),
-            atomPairs.get(2).rightAtom().toVector3D()));
+    return calculate(a1, a2, a3, a4);
   }
 
   @Override
@@ -100,7 +101,10 @@ public interface AtomBasedTorsionAngleType extends TorsionAngleType {
       final PdbAtomLine a1, final PdbAtomLine a2, final PdbAtomLine a3, final PdbAtomLine a4) {
     return ImmutableTorsionAngleValue.of(
         this,
-        Angle.torsionAngle(a1.toVector3D(), a2.toVector3D(), a3.toVector3D(), a4.toVector3D()));
+        ImmutableAngle.of(
+            Geometry.torsionAngle(
+                a1.x(), a1.y(), a1.z(), a2.x(), a2.y(), a2.z(), a3.x(), a3.y(), a3.z(), a4.x(),
+                a4.y(), a4.z())));
   }
 
   /**
@@ -115,21 +119,35 @@ public interface AtomBasedTorsionAngleType extends TorsionAngleType {
     final List<PdbAtomLine> foundAtoms = new ArrayList<>(4);
 
     for (int i = 0; i < 4; i++) {
-      final int index = currentIndex + residueRule().get(i);
-      if ((index < 0) || (index >= residues.size())) {
-        return Collections.emptyList();
-      }
-
-      final PdbResidue residue = residues.get(index);
-      if (!residue.hasAtom(atoms().get(i))) {
+      final PdbAtomLine atom = findAtom(residues, currentIndex, i);
+      if (atom == null) {
         return Collections.emptyList();
       }
-
-      foundAtoms.add(residue.findAtom(atoms().get(i)));
+      foundAtoms.add(atom);
     }
 
     return IntStream.range(1, 4)
         .mapToObj(i -> ImmutableAtomPair.of(foundAtoms.get(i - 1), foundAtoms.get(i)))
         .collect(Collectors.toList());
   }
+
+  /**
+   * Applies {@code residueRule()} to find a single atom of this torsion angle type.
+   *
+   * @param residues The list of residues.
+   * @param currentIndex Index of the current residue.
+   * @param position Position of the atom in the quadruple (0-3).
+   * @return The atom or null if it is missing.
+   */
+  private PdbAtomLine findAtom(
+      final List<PdbResidue> residues, final int currentIndex, final int position) {
+    final int index = currentIndex + residueRule().get(position);
+    if ((index < 0) || (index >= residues.size())) {
+      return null;
+    }
+
+    final PdbResidue residue = residues.get(index);
+    final AtomName atomName = atoms().get(position);
+    return residue.hasAtom(atomName) ? residue.findAtom(atomName) : null;
+  }
 }
@@ -0,0 +1,31 @@
+package pl.poznan.put.utility;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/** A class with helpers to wait for {@link CompletableFuture} results. */
+public final class FutureUtils {
+  private FutureUtils() {
+    super();
+  }
+
+  /**
+   * Waits for the result of a future. If its task failed with a runtime exception, that exception
+   * is rethrown as it is (not wrapped in {@link CompletionException}), so a task run on an executor
+   * fails in the same way as when run directly.
+   *
+   * @param future The future to wait for.
+   * @param <T> The type of result.
+   * @return The result of the future.
+   */
+  public static <T> T join(final CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
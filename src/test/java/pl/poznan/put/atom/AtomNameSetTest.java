@@ -0,0 +1,74 @@
+package pl.poznan.put.atom;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.collections4.SetUtils;
+import org.junit.Test;
+
+public class AtomNameSetTest {
+  private static Set<AtomName> randomSet(final Random random) {
+    final Set<AtomName> set = EnumSet.noneOf(AtomName.class);
+    final int count = random.nextInt(20);
+    for (int i = 0; i < count; i++) {
+      set.add(AtomName.values()[random.nextInt(AtomName.values().length)]);
+    }
+    return set;
+  }
+
+  @Test
+  public final void testSameAsEnumSet() {
+    final Random random = new Random(17);
+
+    for (int i = 0; i < 1000; i++) {
+      final Set<AtomName> left = AtomNameSetTest.randomSet(random);
+      final Set<AtomName> right = AtomNameSetTest.randomSet(random);
+      final AtomNameSet leftSet = AtomNameSet.copyOf(left);
+      final AtomNameSet rightSet = AtomNameSet.copyOf(new ArrayList<>(right));
+
+      assertThat(leftSet, is(left));
+      assertThat(left, is(leftSet));
+      assertThat(leftSet.hashCode(), is(left.hashCode()));
+      assertThat(leftSet.size(), is(left.size()));
+      assertThat(new ArrayList<>(leftSet), is(new ArrayList<>(left)));
+      assertThat(leftSet.intersection(rightSet), is(SetUtils.intersection(left, right)));
+      assertThat(leftSet.union(rightSet), is(SetUtils.union(left, right)));
+      assertThat(leftSet.intersectionSize(rightSet), is(SetUtils.intersection(left, right).size()));
+      assertThat(leftSet.containsAll(rightSet), is(left.containsAll(right)));
+      assertThat(leftSet.containsAll(leftSet.intersection(rightSet)), is(true));
+      assertThat(leftSet.equals(rightSet), is(left.equals(right)));
+      assertThat(
+          leftSet.heavyAtoms(),
+          is(left.stream().filter(AtomName::isHeavy).collect(Collectors.toSet())));
+      assertThat(
+          leftSet.hasAnyHydrogen(), is(left.stream().anyMatch(atomName -> !atomName.isHeavy())));
+    }
+  }
+
+  @Test
+  public final void testAllAndNone() {
+    final List<AtomName> all = Arrays.asList(AtomName.values());
+    final AtomNameSet allSet = AtomNameSet.copyOf(all);
+    assertThat(allSet.size(), is(all.size()));
+    assertThat(new ArrayList<>(allSet), is(all));
+    assertThat(allSet.containsAll(AtomNameSet.empty()), is(true));
+    assertThat(AtomNameSet.empty().isEmpty(), is(true));
+    assertThat(AtomNameSet.empty().iterator().hasNext(), is(false));
+    assertThat(AtomNameSet.of(AtomName.P, AtomName.P).size(), is(1));
+    assertThat(AtomNameSet.of(AtomName.P).contains("P"), is(false));
+    assertThat(new HashSet<>(allSet).equals(allSet), is(true));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public final void testImmutable() {
+    AtomNameSet.of(AtomName.P).add(AtomName.C1p);
+  }
+}
@@ -0,0 +1,76 @@
+package pl.poznan.put.circular;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.pdb.analysis.PdbParser;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class GeometryBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeometryBenchmark.class);
+
+  @Test
+  public final void benchmarkGeometryVersusVector3D() throws Exception {
+    final List<PdbAtomLine> atoms =
+        new PdbParser().parse(ResourcesHelper.loadResource("1EHZ.pdb")).get(0).atoms();
+    final int repeats = 200;
+
+    long bytes = GeometryBenchmark.allocatedBytes();
+    long start = System.nanoTime();
+    double vectorSum = 0.0;
+    for (int r = 0; r < repeats; r++) {
+      for (int i = 3; i < atoms.size(); i++) {
+        vectorSum +=
+            GeometryTest.referenceTorsion(
+                atoms.get(i - 3).toVector3D(),
+                atoms.get(i - 2).toVector3D(),
+                atoms.get(i - 1).toVector3D(),
+                atoms.get(i).toVector3D());
+      }
+    }
+    final long vectorTime = System.nanoTime() - start;
+    final long vectorBytes = GeometryBenchmark.allocatedBytes() - bytes;
+
+    bytes = GeometryBenchmark.allocatedBytes();
+    start = System.nanoTime();
+    double geometrySum = 0.0;
+    for (int r = 0; r < repeats; r++) {
+      for (int i = 3; i < atoms.size(); i++) {
+        final PdbAtomLine a = atoms.get(i - 3);
+        final PdbAtomLine b = atoms.get(i - 2);
+        final PdbAtomLine c = atoms.get(i - 1);
+        final PdbAtomLine d = atoms.get(i);
+        geometrySum +=
+            Geometry.torsionAngle(
+                a.x(), a.y(), a.z(), b.x(), b.y(), b.z(), c.x(), c.y(), c.z(), d.x(), d.y(), d.z());
+      }
+    }
+    final long geometryTime = System.nanoTime() - start;
+    final long geometryBytes = GeometryBenchmark.allocatedBytes() - bytes;
+
+    assertThat(geometrySum, is(vectorSum));
+    GeometryBenchmark.LOGGER.info(
+        "{} torsion angles: Vector3D {} ms and {} KiB allocated, Geometry {} ms and {} KiB"
+            + " allocated",
+        repeats * (atoms.size() - 3),
+        vectorTime / 1_000_000L,
+        vectorBytes / 1024L,
+        geometryTime / 1_000_000L,
+        geometryBytes / 1024L);
+  }
+
+  private static long allocatedBytes() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0L;
+  }
+}
@@ -0,0 +1,65 @@
+package pl.poznan.put.circular;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Random;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.junit.Test;
+
+public class GeometryTest {
+  // the original implementations based on Vector3D
+  static double referenceTorsion(
+      final Vector3D a, final Vector3D b, final Vector3D c, final Vector3D d) {
+    final Vector3D v1 = b.subtract(a);
+    final Vector3D v2 = c.subtract(b);
+    final Vector3D v3 = d.subtract(c);
+    final Vector3D tmp1 = v1.crossProduct(v2);
+    final Vector3D tmp2 = v2.crossProduct(v3);
+    final Vector3D tmp3 = v1.scalarMultiply(v2.getNorm());
+    return FastMath.atan2(tmp3.dotProduct(tmp2), tmp1.dotProduct(tmp2));
+  }
+
+  private static double referenceAngle(final Vector3D a, final Vector3D b, final Vector3D c) {
+    return Vector3D.angle(b.subtract(a), b.subtract(c));
+  }
+
+  private static Vector3D randomPoint(final Random random) {
+    return new Vector3D(
+        (random.nextDouble() - 0.5) * 100.0,
+        (random.nextDouble() - 0.5) * 100.0,
+        (random.nextDouble() - 0.5) * 100.0);
+  }
+
+  @Test
+  public final void testSameAsVector3D() {
+    final Random random = new Random(18);
+
+    for (int i = 0; i < 100_000; i++) {
+      final Vector3D a = GeometryTest.randomPoint(random);
+      final Vector3D b = GeometryTest.randomPoint(random);
+      final Vector3D c = GeometryTest.randomPoint(random);
+      // nearly collinear points exercise the special case in angle()
+      final Vector3D d =
+          (i % 10 == 0) ? b.add(1.0e-3, c.subtract(b)) : GeometryTest.randomPoint(random);
+
+      assertThat(
+          Geometry.torsionAngle(
+              a.getX(), a.getY(), a.getZ(), b.getX(), b.getY(), b.getZ(), c.getX(), c.getY(),
+              c.getZ(), d.getX(), d.getY(), d.getZ()),
+          is(GeometryTest.referenceTorsion(a, b, c, d)));
+      assertThat(
+          Geometry.angle(
+              b.getX(), b.getY(), b.getZ(), c.getX(), c.getY(), c.getZ(), d.getX(), d.getY(),
+              d.getZ()),
+          is(GeometryTest.referenceAngle(b, c, d)));
+      assertThat(
+          Geometry.distance(a.getX(), a.getY(), a.getZ(), b.getX(), b.getY(), b.getZ()),
+          is(a.distance(b)));
+      assertThat(
+          Geometry.dotProduct(a.getX(), a.getY(), a.getZ(), b.getX(), b.getY(), b.getZ()),
+          is(a.dotProduct(b)));
+    }
+  }
+}
@@ -3,8 +3,16 @@ package pl.poznan.put.pdb;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
+import pl.poznan.put.utility.ResourcesHelper;
 
 public class PdbAtomLineTest {
   // @formatter:off
@@ -59,4 +67,188 @@ public class PdbAtomLineTest {
     final String atomLineString = atomLine.toString();
     assertThat(PdbAtomLineTest.VALID_LINE_WITH_FOUR_LETTER_ATOM, is(atomLineString));
   }
+
+  @Test
+  public final void testFixedColumnsMatchSubstringParsing() throws Exception {
+    for (final String resource :
+        Arrays.asList("1EHZ.pdb", "2MIY.pdb", "PKB300.pdb", "amber.pdb", "148L.pdb")) {
+      final List<String> lines =
+          Arrays.stream(ResourcesHelper.loadResource(resource).split("\n"))
+              .filter(line -> line.startsWith("ATOM") || line.startsWith("HETATM"))
+              .collect(Collectors.toList());
+      for (final String line : lines) {
+        PdbAtomLineTest.assertParsedIdentically(line, true);
+        PdbAtomLineTest.assertParsedIdentically(line, false);
+      }
+    }
+  }
+
+  @Test
+  public final void testFixedColumnsUnusualNumbers() {
+    assertThat(FixedColumns.parseDouble("  -0.000", 0, 8), is(-0.0));
+    assertThat(FixedColumns.parseDouble("  +1.5  ", 0, 8), is(1.5));
+    assertThat(FixedColumns.parseDouble(" 1.5e2  ", 0, 8), is(150.0));
+    assertThat(FixedColumns.parseDouble("   12.  ", 0, 8), is(12.0));
+    assertThat(FixedColumns.parseDouble("    .125", 0, 8), is(0.125));
+    assertThat(FixedColumns.parseInt("  -42", 0, 5), is(-42));
+    assertThat(FixedColumns.parseInt("  +42", 0, 5), is(42));
+    assertThat(FixedColumns.text("  C1' ", 0, 6), is("C1'"));
+    assertThat(FixedColumns.text("      ", 0, 6), is(""));
+  }
+
+  @Test
+  public final void testToPdbMatchesFormat() throws Exception {
+    for (final String resource :
+        Arrays.asList("1EHZ.pdb", "2MIY.pdb", "PKB300.pdb", "amber.pdb", "148L.pdb")) {
+      for (final String line : ResourcesHelper.loadResource(resource).split("\n")) {
+        if (line.startsWith("ATOM") || line.startsWith("HETATM")) {
+          final PdbAtomLine atom = PdbAtomLine.parse(line, false);
+          assertThat(atom.toPdb(), is(PdbAtomLineTest.formatWithFormatter(atom)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public final void testFixedColumnsFormatUnusualNumbers() {
+    final Random random = new Random(2022);
+    final List<Double> values =
+        new ArrayList<>(
+            Arrays.asList(
+                0.0,
+                -0.0,
+                -0.0001,
+                -0.0005,
+                0.0005,
+                1.0005,
+                0.125,
+                -1234.5675,
+                99999.9999,
+                1.0e10,
+                -1.0e10,
+                Double.NaN,
+                Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY));
+    for (int i = 0; i < 100_000; i++) {
+      values.add((random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(8)));
+      values.add(Math.round((random.nextDouble() - 0.5) * 2.0e7) / 1000.0 + 0.0005);
+    }
+
+    for (final double value : values) {
+      final StringBuilder builder = new StringBuilder();
+      FixedColumns.appendReal(builder, value, 8, 3);
+      assertThat(builder.toString(), is(String.format(Locale.US, "%8.3f", value)));
+
+      builder.setLength(0);
+      FixedColumns.appendReal(builder, value, 6, 2);
+      assertThat(builder.toString(), is(String.format(Locale.US, "%6.2f", value)));
+    }
+
+    for (final int value : new int[] {0, 7, -7, 99999, 123456, -1000, Integer.MIN_VALUE}) {
+      final StringBuilder builder = new StringBuilder();
+      FixedColumns.appendInt(builder, value, 5);
+      assertThat(builder.toString(), is(String.format(Locale.US, "%5d", value)));
+    }
+
+    final StringBuilder builder = new StringBuilder();
+    FixedColumns.appendText(builder, "C1'", 4, true);
+    FixedColumns.appendText(builder, "U", 3, false);
+    FixedColumns.appendText(builder, "LONG", 2, false);
+    assertThat(builder.toString(), is("C1'   ULONG"));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public final void testFixedColumnsInvalidNumber() {
+    FixedColumns.parseDouble("   -.  ", 0, 7);
+  }
+
+  // the original implementation of PdbAtomLine.toPdb()
+  private static String formatWithFormatter(final PdbAtomLine atom) {
+    final String format =
+        (atom.atomName().length() == 4)
+            ? "ATOM  %5d %-4s%c%3s %c%4d%c   %8.3f%8.3f%8.3f%6.2f%6.2f          %2s%2s"
+            : "ATOM  %5d  %-3s%c%3s %c%4d%c   %8.3f%8.3f%8.3f%6.2f%6.2f          %2s%2s";
+    return String.format(
+        Locale.US,
+        format,
+        atom.serialNumber(),
+        atom.atomName(),
+        atom.alternateLocation().orElse(" ").charAt(0),
+        atom.residueName(),
+        atom.chainIdentifier().charAt(0),
+        atom.residueNumber(),
+        atom.insertionCode().orElse(" ").charAt(0),
+        atom.x(),
+        atom.y(),
+        atom.z(),
+        atom.occupancy(),
+        atom.temperatureFactor(),
+        atom.elementSymbol(),
+        atom.charge());
+  }
+
+  private static void assertParsedIdentically(final String line, final boolean strictMode) {
+    final PdbAtomLine expected;
+    try {
+      expected = PdbAtomLineTest.parseWithSubstrings(line, strictMode);
+    } catch (final RuntimeException e) {
+      try {
+        PdbAtomLine.parse(line, strictMode);
+      } catch (final PdbParsingException ignored) {
+        return;
+      }
+      throw new AssertionError("Expected parsing to fail for: " + line, e);
+    }
+
+    final PdbAtomLine actual = PdbAtomLine.parse(line, strictMode);
+    assertThat(actual.serialNumber(), is(expected.serialNumber()));
+    assertThat(actual.atomName(), is(expected.atomName()));
+    assertThat(actual.alternateLocation(), is(expected.alternateLocation()));
+    assertThat(actual.residueName(), is(expected.residueName()));
+    assertThat(actual.chainIdentifier(), is(expected.chainIdentifier()));
+    assertThat(actual.residueNumber(), is(expected.residueNumber()));
+    assertThat(actual.insertionCode(), is(expected.insertionCode()));
+    assertThat(
+        Double.doubleToRawLongBits(actual.x()), is(Double.doubleToRawLongBits(expected.x())));
+    assertThat(
+        Double.doubleToRawLongBits(actual.y()), is(Double.doubleToRawLongBits(expected.y())));
+    assertThat(
+        Double.doubleToRawLongBits(actual.z()), is(Double.doubleToRawLongBits(expected.z())));
+    assertThat(
+        Double.doubleToRawLongBits(actual.occupancy()),
+        is(Double.doubleToRawLongBits(expected.occupancy())));
+    assertThat(
+        Double.doubleToRawLongBits(actual.temperatureFactor()),
+        is(Double.doubleToRawLongBits(expected.temperatureFactor())));
+    assertThat(actual.elementSymbol(), is(expected.elementSymbol()));
+    assertThat(actual.charge(), is(expected.charge()));
+  }
+
+  // the original substring-based implementation, kept as a reference
+  private static PdbAtomLine parseWithSubstrings(final String line, final boolean strictMode) {
+    if (line.length() < (strictMode ? 80 : 54)) {
+      throw new PdbParsingException("PDB ATOM line is too short");
+    }
+    final String alternateLocation = Character.toString(line.charAt(16));
+    final String insertionCode = Character.toString(line.charAt(26));
+    return ImmutablePdbAtomLine.of(
+        Integer.parseInt(line.substring(6, 11).trim()),
+        line.substring(12, 16).trim(),
+        " ".equals(alternateLocation) ? Optional.empty() : Optional.of(alternateLocation),
+        line.substring(17, 20).trim(),
+        Character.toString(line.charAt(21)),
+        Integer.parseInt(line.substring(22, 26).trim()),
+        " ".equals(insertionCode) ? Optional.empty() : Optional.of(insertionCode),
+        Double.parseDouble(line.substring(30, 38).trim()),
+        Double.parseDouble(line.substring(38, 46).trim()),
+        Double.parseDouble(line.substring(46, 54).trim()),
+        ((line.length() >= 60) && StringUtils.isNotBlank(line.substring(54, 60)))
+            ? Double.parseDouble(line.substring(54, 60).trim())
+            : 0,
+        ((line.length() >= 66) && StringUtils.isNotBlank(line.substring(60, 66)))
+            ? Double.parseDouble(line.substring(60, 66).trim())
+            : 0,
+        (line.length() >= 78) ? line.substring(76, 78).trim() : "",
+        (line.length() >= 80) ? line.substring(78, 80).trim() : "");
+  }
 }
@@ -0,0 +1,127 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class AtomSpatialIndexTest {
+  private PdbModel model;
+  private AtomSpatialIndex index;
+
+  @Before
+  public final void setUp() throws Exception {
+    model = new PdbParser().parse(ResourcesHelper.loadResource("1EHZ.pdb")).get(0);
+    index = new AtomSpatialIndex(model);
+  }
+
+  @Test
+  public final void testWithin() {
+    assertThat(
+        index.size(), is((int) model.residues().stream().mapToLong(r -> r.atoms().size()).sum()));
+
+    for (int i = 0; i < index.size(); i += 7) {
+      final PdbAtomLine center = index.atom(i);
+      for (final double radius : new double[] {0.0, 1.6, 3.5, 9.0, 25.0}) {
+        final int[] expected =
+            IntStream.range(0, index.size())
+                .filter(j -> index.atom(j).distanceTo(center) <= radius)
+                .toArray();
+        assertThat(index.within(center.x(), center.y(), center.z(), radius), is(expected));
+      }
+    }
+  }
+
+  @Test
+  public final void testResiduesWithin() {
+    final PdbAtomLine center = model.residues().get(10).findAtom(AtomName.P);
+    final List<PdbResidue> expected = new ArrayList<>();
+    for (final PdbResidue residue : model.residues()) {
+      if (residue.atoms().stream().anyMatch(atom -> atom.distanceTo(center) <= 8.0)) {
+        expected.add(residue);
+      }
+    }
+    assertThat(index.residuesWithin(center, 8.0), is(expected));
+  }
+
+  @Test
+  public final void testNearest() {
+    for (int i = 0; i < index.size(); i += 11) {
+      final PdbAtomLine center = index.atom(i);
+      for (final int k : new int[] {1, 5, 40, index.size() + 1}) {
+        final int[] expected =
+            IntStream.range(0, index.size())
+                .boxed()
+                .sorted(
+                    Comparator.<Integer>comparingDouble(
+                            j -> AtomSpatialIndexTest.squaredDistance(index.atom(j), center))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertThat(index.nearest(center.x(), center.y(), center.z(), k), is(expected));
+      }
+    }
+    assertThat(index.nearest(0.0, 0.0, 0.0, 0).length, is(0));
+  }
+
+  @Test
+  public final void testNearestOutsideBoundingBox() {
+    // rings around such points are mostly outside the grid, so they are clipped
+    for (final double[] point :
+        new double[][] {{200.0, -150.0, 90.0}, {-60.0, 0.0, 0.0}, {0.0, 0.0, 300.0}}) {
+      final int[] expected =
+          IntStream.range(0, index.size())
+              .boxed()
+              .sorted(
+                  Comparator.<Integer>comparingDouble(
+                          j -> {
+                            final double dx = index.atom(j).x() - point[0];
+                            final double dy = index.atom(j).y() - point[1];
+                            final double dz = index.atom(j).z() - point[2];
+                            return dx * dx + dy * dy + dz * dz;
+                          })
+                      .thenComparing(Comparator.naturalOrder()))
+              .limit(7)
+              .mapToInt(Integer::intValue)
+              .toArray();
+      assertThat(index.nearest(point[0], point[1], point[2], 7), is(expected));
+    }
+  }
+
+  @Test
+  public final void testForEachPairWithin() {
+    final List<int[]> expected = new ArrayList<>();
+    for (int i = 0; i < index.size(); i++) {
+      for (int j = i + 1; j < index.size(); j++) {
+        if (index.atom(i).distanceTo(index.atom(j)) <= 2.0) {
+          expected.add(new int[] {i, j});
+        }
+      }
+    }
+
+    final List<int[]> actual = new ArrayList<>();
+    index.forEachPairWithin(
+        2.0, (first, second, distance) -> actual.add(new int[] {first, second}));
+
+    assertThat(actual.size(), is(expected.size()));
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(actual.get(i), is(expected.get(i)));
+    }
+  }
+
+  private static double squaredDistance(final PdbAtomLine first, final PdbAtomLine second) {
+    final double dx = first.x() - second.x();
+    final double dy = first.y() - second.y();
+    final double dz = first.z() - second.z();
+    return dx * dx + dy * dy + dz * dz;
+  }
+}
@@ -0,0 +1,186 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class BatchStructureLoaderTest {
+  private static final List<String> NAMES =
+      Arrays.asList("1EHZ.pdb", "2MIY.pdb", "148L.pdb", "100D.cif", "3P49.cif");
+
+  private final Map<String, Long> expectedAtoms = new HashMap<>();
+  private Path directory;
+
+  @Before
+  public final void setUp() throws IOException {
+    directory = Files.createTempDirectory("batch");
+    for (final String name : BatchStructureLoaderTest.NAMES) {
+      final String content = ResourcesHelper.loadResource(name);
+      final List<? extends PdbModel> models =
+          name.endsWith(".cif") ? new CifParser().parse(content) : new PdbParser().parse(content);
+      expectedAtoms.put(name, models.stream().mapToLong(model -> model.atoms().size()).sum());
+      Files.writeString(directory.resolve(name), content);
+    }
+  }
+
+  @After
+  public final void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public final void testLoadDirectory() throws IOException {
+    // a corrupted file must not affect the others
+    Files.write(directory.resolve("broken.pdb.gz"), new byte[] {0x1F, (byte) 0x8B, 0x08, 0x00});
+    Files.writeString(directory.resolve("notes.txt"), "ignored");
+
+    final Map<String, Long> atoms = new HashMap<>();
+    int failed = 0;
+    try (final StructureBatch batch = new BatchStructureLoader(2, 2, true).load(directory)) {
+      for (final BatchResult result : batch) {
+        if (result.isSuccessful()) {
+          atoms.put(Path.of(result.name()).getFileName().toString(), result.atomCount());
+        } else {
+          failed++;
+        }
+      }
+
+      assertThat(atoms, is(expectedAtoms));
+      assertThat(failed, is(1));
+
+      final BatchStatistics statistics = batch.statistics();
+      assertThat(statistics.parsedFiles(), is(5L));
+      assertThat(statistics.failedFiles(), is(1L));
+      assertThat(
+          statistics.atoms(), is(expectedAtoms.values().stream().mapToLong(Long::longValue).sum()));
+    }
+  }
+
+  @Test
+  public final void testLoadGlob() throws IOException {
+    try (final StructureBatch batch = new BatchStructureLoader().load(directory, "*.cif")) {
+      assertThat(batch.stream().filter(BatchResult::isSuccessful).count(), is(2L));
+    }
+  }
+
+  @Test
+  public final void testLoadRenamedGzip() throws IOException {
+    // compression is detected from the content, as when parsing a single file
+    final Path renamed = Files.createDirectory(directory.resolve("renamed"));
+    for (final String name : Arrays.asList("1EHZ.pdb", "2MIY")) {
+      try (final OutputStream stream =
+          new GZIPOutputStream(Files.newOutputStream(renamed.resolve(name)))) {
+        stream.write(ResourcesHelper.loadResource("2MIY.pdb").getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    final long expected =
+        new PdbParser()
+            .parse(renamed.resolve("2MIY")).stream().mapToLong(model -> model.atoms().size()).sum();
+    assertThat(expected, is(expectedAtoms.get("2MIY.pdb")));
+
+    try (final StructureBatch batch = new BatchStructureLoader().load(renamed, "*")) {
+      for (final BatchResult result : batch) {
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.atomCount(), is(expected));
+      }
+      assertThat(batch.statistics().parsedFiles(), is(2L));
+    }
+  }
+
+  @Test
+  public final void testLoadBinaryCif() throws IOException {
+    final CifModel model = new CifParser().parse(ResourcesHelper.loadResource("3P49.cif")).get(0);
+    final byte[] binary = model.toBinaryCif();
+    final long expected = new CifParser().parse(binary).get(0).atoms().size();
+    Files.write(directory.resolve("3P49.bcif"), binary);
+
+    // an archive entry without extension must be detected as BinaryCIF as well
+    final Path archive = directory.resolve("binary.tar");
+    try (final TarArchiveOutputStream tar =
+        new TarArchiveOutputStream(Files.newOutputStream(archive))) {
+      final TarArchiveEntry entry = new TarArchiveEntry("3P49");
+      entry.setSize(binary.length);
+      tar.putArchiveEntry(entry);
+      tar.write(binary);
+      tar.closeArchiveEntry();
+    }
+
+    for (final StructureBatch batch :
+        Arrays.asList(
+            new BatchStructureLoader().load(directory, "*.bcif"),
+            new BatchStructureLoader().load(archive))) {
+      try (batch) {
+        for (final BatchResult result : batch) {
+          assertThat(result.isSuccessful(), is(true));
+          assertThat(result.atomCount(), is(expected));
+        }
+        assertThat(batch.statistics().parsedFiles(), is(1L));
+      }
+    }
+  }
+
+  @Test
+  public final void testLoadBrokenArchive() throws IOException {
+    // a failure to list the content is not a failure of any file
+    final Path archive = directory.resolve("broken.tar");
+    Files.write(archive, new byte[] {0x1F, (byte) 0x8B, 0x08, 0x00});
+
+    try (final StructureBatch batch = new BatchStructureLoader().load(archive)) {
+      assertThat(batch.stream().filter(result -> !result.isSuccessful()).count(), is(1L));
+
+      final BatchStatistics statistics = batch.statistics();
+      assertThat(statistics.parsedFiles(), is(0L));
+      assertThat(statistics.failedFiles(), is(0L));
+      assertThat(statistics.listingFailures(), is(1L));
+    }
+  }
+
+  @Test
+  public final void testLoadArchive() throws IOException {
+    testLoadArchive(true);
+    // an uncompressed archive with a misleading name
+    testLoadArchive(false);
+  }
+
+  private void testLoadArchive(final boolean compressed) throws IOException {
+    final Path archive = directory.resolve("structures.tar.gz");
+    final OutputStream file = Files.newOutputStream(archive);
+    try (final OutputStream stream = compressed ? new GZIPOutputStream(file) : file;
+        final TarArchiveOutputStream tar = new TarArchiveOutputStream(stream)) {
+      for (final String name : BatchStructureLoaderTest.NAMES) {
+        final byte[] bytes = ResourcesHelper.loadResource(name).getBytes(StandardCharsets.UTF_8);
+        final TarArchiveEntry entry = new TarArchiveEntry("structures/" + name);
+        entry.setSize(bytes.length);
+        tar.putArchiveEntry(entry);
+        tar.write(bytes);
+        tar.closeArchiveEntry();
+      }
+    }
+
+    final Map<String, Long> atoms = new HashMap<>();
+    try (final StructureBatch batch = new BatchStructureLoader(3).load(archive)) {
+      for (final BatchResult result : batch) {
+        atoms.put(result.name().replace("structures/", ""), result.atomCount());
+      }
+    }
+    assertThat(atoms, is(expectedAtoms));
+  }
+}
@@ -0,0 +1,41 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.structure.BasePair;
+
+public class CifConverterBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CifConverterBenchmark.class);
+
+  @Test
+  public final void benchmarkUnionFindVersusPairwiseMerging() {
+    final Random random = new Random(500);
+    final List<String> chains = CifConverterTest.syntheticChains(500);
+    final List<BasePair> contacts = CifConverterTest.syntheticContacts(random, chains, 400);
+
+    long start = System.nanoTime();
+    final List<Set<String>> expected =
+        CifConverterTest.referencePackGroups(
+            CifConverterTest.referenceGroupContactingChains(chains, contacts), 62);
+    final long referenceTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final List<Set<String>> actual =
+        CifConverter.packGroups(CifConverter.groupContactingChains(chains, contacts), 62);
+    final long unionFindTime = System.nanoTime() - start;
+
+    assertThat(actual, is(expected));
+    CifConverterBenchmark.LOGGER.info(
+        "{} chains: pairwise merging {} ms, union-find {} ms",
+        chains.size(),
+        referenceTime / 1_000_000L,
+        unionFindTime / 1_000_000L);
+  }
+}
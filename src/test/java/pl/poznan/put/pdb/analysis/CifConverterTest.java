@@ -0,0 +1,193 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import pl.poznan.put.pdb.ImmutablePdbNamedResidueIdentifier;
+import pl.poznan.put.structure.BasePair;
+import pl.poznan.put.structure.ImmutableBasePair;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class CifConverterTest {
+  @Test
+  public final void testStreamingSameAsTemporaryFiles() throws Exception {
+    final DefaultCifModel model =
+        (DefaultCifModel)
+            new CifParser().parse(ResourcesHelper.loadResource("1a73-assembly-1.cif")).get(0);
+
+    final Set<String> expected = new HashSet<>();
+    final Set<BidiMap<String, String>> expectedChainMaps = new HashSet<>();
+    try (final ModelContainer container = CifConverter.convert(model)) {
+      for (final File pdbFile : container.pdbFiles()) {
+        expected.add(FileUtils.readFileToString(pdbFile, Charset.defaultCharset()));
+        expectedChainMaps.add(((CifContainer) container).fileChainMap().get(pdbFile));
+      }
+    }
+    assertThat(expected.isEmpty(), is(false));
+
+    final List<ByteArrayOutputStream> outputs = new ArrayList<>();
+    final List<BidiMap<String, String>> chainMaps =
+        CifConverter.convert(
+            model,
+            index -> {
+              assertThat(index, is(outputs.size()));
+              final ByteArrayOutputStream output = new ByteArrayOutputStream();
+              outputs.add(output);
+              return output;
+            });
+    assertThat(chainMaps.size(), is(outputs.size()));
+    assertThat(new HashSet<>(chainMaps), is(expectedChainMaps));
+
+    final Set<String> actual = new HashSet<>();
+    for (final ByteArrayOutputStream output : outputs) {
+      actual.add(output.toString(Charset.defaultCharset()));
+    }
+    assertThat(actual, is(expected));
+
+    final Path directory = Files.createTempDirectory("cif2pdb");
+    try {
+      final Map<Path, BidiMap<String, String>> files =
+          CifConverter.convertToPaths(model, index -> directory.resolve(index + ".pdb"));
+      assertThat(new ArrayList<>(files.values()), is(chainMaps));
+      for (final Path path : files.keySet()) {
+        assertThat(expected.contains(Files.readString(path, Charset.defaultCharset())), is(true));
+      }
+    } finally {
+      FileUtils.deleteDirectory(directory.toFile());
+    }
+  }
+
+  @Test
+  public final void testGroupingSameAsReference() {
+    final Random random = new Random(500);
+
+    for (int iteration = 0; iteration < 20; iteration++) {
+      final List<String> chains = CifConverterTest.syntheticChains(200);
+      final List<BasePair> contacts = CifConverterTest.syntheticContacts(random, chains, 150);
+
+      final List<Set<String>> expected =
+          CifConverterTest.referenceGroupContactingChains(chains, contacts);
+      assertThat(CifConverter.groupContactingChains(chains, contacts), is(expected));
+
+      for (final int capacity : new int[] {1, 5, 62}) {
+        final List<Set<String>> copy = new ArrayList<>();
+        expected.forEach(group -> copy.add(new HashSet<>(group)));
+        assertThat(
+            CifConverter.packGroups(expected, capacity),
+            is(CifConverterTest.referencePackGroups(copy, capacity)));
+      }
+    }
+  }
+
+  @Test
+  public final void testMaxChainsPerFile() throws Exception {
+    final CifModel model =
+        new CifParser().parse(ResourcesHelper.loadResource("1a73-assembly-1.cif")).get(0);
+    final List<BidiMap<String, String>> chainMaps =
+        CifConverter.convert(model, index -> new ByteArrayOutputStream(), 1);
+    for (final BidiMap<String, String> chainMap : chainMaps) {
+      assertThat(chainMap.size(), is(1));
+    }
+  }
+
+  static List<String> syntheticChains(final int count) {
+    return IntStream.range(0, count).mapToObj(i -> "C" + i).collect(Collectors.toList());
+  }
+
+  static List<BasePair> syntheticContacts(
+      final Random random, final List<String> chains, final int count) {
+    final List<BasePair> contacts = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final String left = chains.get(random.nextInt(chains.size()));
+      final String right = chains.get(random.nextInt(chains.size()));
+      contacts.add(
+          ImmutableBasePair.of(
+              ImmutablePdbNamedResidueIdentifier.of(left, i, Optional.empty(), 'G'),
+              ImmutablePdbNamedResidueIdentifier.of(right, i, Optional.empty(), 'C')));
+    }
+    return contacts;
+  }
+
+  // the original implementation, which rescans all pairs of groups after each merge
+  static List<Set<String>> referenceGroupContactingChains(
+      final List<String> chains, final Iterable<BasePair> contacts) {
+    final List<Set<String>> chainGroups =
+        chains.stream()
+            .map(chain -> new HashSet<>(Collections.singleton(chain)))
+            .collect(Collectors.toList());
+    final Map<String, Set<String>> chainContacts = new HashMap<>();
+    for (final BasePair basePair : contacts) {
+      final String left = basePair.left().chainIdentifier();
+      final String right = basePair.right().chainIdentifier();
+      chainContacts.computeIfAbsent(left, k -> new HashSet<>()).add(right);
+      chainContacts.computeIfAbsent(right, k -> new HashSet<>()).add(left);
+    }
+
+    int i = 0;
+    while ((chainGroups.size() > 1) && (i < chainGroups.size())) {
+      final Set<String> groupL = chainGroups.get(i);
+      int toMerge = -1;
+
+      for (int j = i + 1; (toMerge == -1) && (j < chainGroups.size()); j++) {
+        final Set<String> groupR = chainGroups.get(j);
+        if (groupL.stream()
+            .filter(chainContacts::containsKey)
+            .map(chainContacts::get)
+            .anyMatch(contactsL -> CollectionUtils.containsAny(contactsL, groupR))) {
+          toMerge = j;
+        }
+      }
+
+      if (toMerge == -1) {
+        i += 1;
+      } else {
+        groupL.addAll(chainGroups.get(toMerge));
+        chainGroups.remove(toMerge);
+        i = 0;
+      }
+    }
+    return chainGroups;
+  }
+
+  // the original implementation, which scans all bins for each group
+  static List<Set<String>> referencePackGroups(
+      final List<Set<String>> chainGroups, final int capacity) {
+    chainGroups.sort((t, t1) -> -Integer.compare(t.size(), t1.size()));
+    final List<Set<String>> packed = new ArrayList<>();
+
+    for (final Set<String> group : chainGroups) {
+      boolean flag = true;
+      for (final Set<String> bin : packed) {
+        if ((bin.size() + group.size()) <= capacity) {
+          bin.addAll(group);
+          flag = false;
+          break;
+        }
+      }
+      if (flag) {
+        packed.add(new HashSet<>(group));
+      }
+    }
+    return packed;
+  }
+}
@@ -2,14 +2,21 @@ package pl.poznan.put.pdb.analysis;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 import org.junit.Test;
 import pl.poznan.put.pdb.ExperimentalTechnique;
+import pl.poznan.put.pdb.ImmutablePdbAtomLine;
 import pl.poznan.put.pdb.ImmutablePdbResidueIdentifier;
+import pl.poznan.put.pdb.PdbAtomLine;
 import pl.poznan.put.pdb.PdbResidueIdentifier;
 import pl.poznan.put.utility.ResourcesHelper;
 
@@ -94,4 +101,46 @@ public class CifParserTest {
         model.residues().stream().map(PdbResidueIdentifier::from).collect(Collectors.toSet());
     assertThat(model.residues().size(), is(unique.size()));
   }
+
+  @Test
+  public final void testBinaryCif() throws Exception {
+    final PdbModel model = new PdbParser().parse(ResourcesHelper.loadResource("1EHZ.pdb")).get(0);
+    final String text = model.toCif();
+    final byte[] binary = model.toBinaryCif();
+    assertThat(binary.length < text.length(), is(true));
+
+    final List<CifModel> fromText = new CifParser().parse(text);
+    final List<CifModel> fromBinary = new CifParser().parse(binary);
+    assertThat(fromBinary.size(), is(1));
+    CifParserTest.assertSameAtoms(fromBinary.get(0), fromText.get(0));
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (final OutputStream stream = new GZIPOutputStream(compressed)) {
+      stream.write(binary);
+    }
+    assertThat(new CifParser().parse(compressed.toByteArray()), is(fromBinary));
+    assertThat(new CifParser().parse(text.getBytes(StandardCharsets.UTF_8)), is(fromText));
+  }
+
+  // BinaryCIF stores coordinates as scaled integers, so decoded doubles may differ in the last bit
+  private static void assertSameAtoms(final PdbModel actual, final PdbModel expected) {
+    assertThat(actual.atoms().size(), is(expected.atoms().size()));
+    for (int i = 0; i < expected.atoms().size(); i++) {
+      final PdbAtomLine actualAtom = actual.atoms().get(i);
+      final PdbAtomLine expectedAtom = expected.atoms().get(i);
+      assertThat(
+          ImmutablePdbAtomLine.copyOf(actualAtom)
+              .withX(expectedAtom.x())
+              .withY(expectedAtom.y())
+              .withZ(expectedAtom.z())
+              .withOccupancy(expectedAtom.occupancy())
+              .withTemperatureFactor(expectedAtom.temperatureFactor()),
+          is(expectedAtom));
+      assertThat(actualAtom.x(), closeTo(expectedAtom.x(), 1.0e-6));
+      assertThat(actualAtom.y(), closeTo(expectedAtom.y(), 1.0e-6));
+      assertThat(actualAtom.z(), closeTo(expectedAtom.z(), 1.0e-6));
+      assertThat(actualAtom.occupancy(), closeTo(expectedAtom.occupancy(), 1.0e-6));
+      assertThat(actualAtom.temperatureFactor(), closeTo(expectedAtom.temperatureFactor(), 1.0e-6));
+    }
+  }
 }
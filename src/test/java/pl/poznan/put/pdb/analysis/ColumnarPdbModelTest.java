@@ -0,0 +1,146 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class ColumnarPdbModelTest {
+  @Test
+  public final void testSameAsDefault() throws Exception {
+    final List<PdbModel> models = new ArrayList<>();
+    for (final String name : Arrays.asList("1EHZ.pdb", "2Z74.pdb", "1XPO.pdb", "148L.pdb")) {
+      models.add(new PdbParser().parse(ResourcesHelper.loadResource(name)).get(0));
+    }
+    models.add(new CifParser().parse(ResourcesHelper.loadResource("3P49.cif")).get(0));
+
+    // atoms of the first residue split into two runs
+    final PdbModel model = models.get(0);
+    final List<PdbAtomLine> interleaved = new ArrayList<>(model.atoms());
+    interleaved.add(interleaved.remove(0));
+    models.add(ImmutableDefaultPdbModel.copyOf((DefaultPdbModel) model).withAtoms(interleaved));
+
+    for (final PdbModel expected : models) {
+      final ColumnarPdbModel actual = ColumnarPdbModel.of(expected);
+
+      assertThat(actual.header(), is(expected.header()));
+      assertThat(actual.modelNumber(), is(expected.modelNumber()));
+      assertThat(actual.missingResidues(), is(expected.missingResidues()));
+      assertThat(actual.modifiedResidues(), is(expected.modifiedResidues()));
+      assertThat(actual.chainTerminatedAfter(), is(expected.chainTerminatedAfter()));
+      assertThat(actual.atoms(), is(expected.atoms()));
+      for (int i = 0; i < expected.atoms().size(); i++) {
+        final PdbAtomLine expectedAtom = expected.atoms().get(i);
+        final PdbAtomLine actualAtom = actual.atoms().get(i);
+        // auxiliary attributes are not compared by equals()
+        assertThat(actualAtom.serialNumber(), is(expectedAtom.serialNumber()));
+        assertThat(actualAtom.alternateLocation(), is(expectedAtom.alternateLocation()));
+        assertThat(actualAtom.occupancy(), is(expectedAtom.occupancy()));
+        assertThat(actualAtom.temperatureFactor(), is(expectedAtom.temperatureFactor()));
+        assertThat(actualAtom.elementSymbol(), is(expectedAtom.elementSymbol()));
+        assertThat(actualAtom.charge(), is(expectedAtom.charge()));
+        assertThat(actual.x(i), is(expectedAtom.x()));
+      }
+
+      assertThat(actual.residues(), is(expected.residues()));
+      assertThat(actual.chains(), is(expected.chains()));
+      assertThat(actual.sequence(), is(expected.sequence()));
+      if (expected.containsAny(MoleculeType.RNA)) {
+        assertThat(
+            actual.filteredNewInstance(MoleculeType.RNA).atoms(),
+            is(expected.filteredNewInstance(MoleculeType.RNA).atoms()));
+      }
+      for (final PdbResidue residue : expected.residues()) {
+        assertThat(actual.findResidue(residue), is(residue));
+      }
+    }
+  }
+
+  @Test
+  public final void testParseColumnar() throws Exception {
+    for (final String name : Arrays.asList("1EHZ.pdb", "2Z74.pdb", "1XPO.pdb", "148L.pdb")) {
+      final String content = ResourcesHelper.loadResource(name);
+      final List<PdbModel> expected = new PdbParser().parse(content);
+      final List<ColumnarPdbModel> actual = new PdbParser().parseColumnar(content);
+
+      assertThat(actual.size(), is(expected.size()));
+      for (int i = 0; i < expected.size(); i++) {
+        assertThat(actual.get(i).modelNumber(), is(expected.get(i).modelNumber()));
+        assertThat(actual.get(i).atoms(), is(expected.get(i).atoms()));
+        assertThat(actual.get(i).residues(), is(expected.get(i).residues()));
+        assertThat(actual.get(i).chains(), is(expected.get(i).chains()));
+        assertThat(
+            actual.get(i).chainTerminatedAfter(), is(expected.get(i).chainTerminatedAfter()));
+      }
+    }
+  }
+
+  @Test
+  public final void testSerialization() throws Exception {
+    final ColumnarPdbModel expected =
+        new PdbParser().parseColumnar(ResourcesHelper.loadResource("1EHZ.pdb")).get(0);
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+      stream.writeObject(expected);
+    }
+    final Object actual;
+    try (final ObjectInputStream stream =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      actual = stream.readObject();
+    }
+
+    assertThat(actual, is(expected));
+    final ColumnarPdbModel model = (ColumnarPdbModel) actual;
+    assertThat(model.header(), is(expected.header()));
+    assertThat(model.missingResidues(), is(expected.missingResidues()));
+    assertThat(model.chainTerminatedAfter(), is(expected.chainTerminatedAfter()));
+    assertThat(model.residues(), is(expected.residues()));
+    assertThat(model.chains(), is(expected.chains()));
+    assertThat(
+        model.atoms().get(0).alternateLocation(), is(expected.atoms().get(0).alternateLocation()));
+  }
+
+  @Test
+  public final void testRetainsLessHeap() throws Exception {
+    final String content = ResourcesHelper.loadResource("1XPO.pdb");
+
+    long before = ColumnarPdbModelTest.usedHeap();
+    final PdbModel defaultModel = new PdbParser().parse(content).get(0);
+    final int defaultResidues = defaultModel.residues().size();
+    final int defaultChains = defaultModel.chains().size();
+    final long defaultRetained = ColumnarPdbModelTest.usedHeap() - before;
+
+    before = ColumnarPdbModelTest.usedHeap();
+    final PdbModel columnarModel = new PdbParser().parseColumnar(content).get(0);
+    final int columnarResidues = columnarModel.residues().size();
+    final int columnarChains = columnarModel.chains().size();
+    final long columnarRetained = ColumnarPdbModelTest.usedHeap() - before;
+
+    // both models (with residues and chains already detected) must still be reachable here
+    assertThat(columnarResidues, is(defaultResidues));
+    assertThat(columnarChains, is(defaultChains));
+    assertThat(columnarModel.atoms().size(), is(defaultModel.atoms().size()));
+    assertThat(
+        String.format("columnar: %d B, default: %d B", columnarRetained, defaultRetained),
+        columnarRetained < defaultRetained / 2,
+        is(true));
+  }
+
+  private static long usedHeap() {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,108 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class ConcurrentParsingTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentParsingTest.class);
+  private static final int ITERATIONS = 8;
+
+  @Test
+  public final void testSharedPdbParser() throws Exception {
+    final PdbParser parser = new PdbParser();
+    final List<String> contents = new ArrayList<>();
+    final List<List<PdbModel>> expected = new ArrayList<>();
+    for (final String name : Arrays.asList("1EHZ.pdb", "2MIY.pdb", "2Z74.pdb", "3P49.pdb")) {
+      final String content = ResourcesHelper.loadResource(name);
+      contents.add(content);
+      expected.add(new PdbParser().parse(content));
+    }
+
+    ConcurrentParsingTest.stress(
+        "PdbParser",
+        () -> {
+          for (int i = 0; i < contents.size(); i++) {
+            assertThat(parser.parse(contents.get(i)), is(expected.get(i)));
+          }
+          return null;
+        });
+  }
+
+  @Test
+  public final void testSharedCifParser() throws Exception {
+    final CifParser parser = new CifParser();
+    final List<String> contents = new ArrayList<>();
+    final List<List<CifModel>> expected = new ArrayList<>();
+    for (final String name : Arrays.asList("100D.cif", "148L.cif", "5A93.cif", "3P49.cif")) {
+      final String content = ResourcesHelper.loadResource(name);
+      contents.add(content);
+      expected.add(new CifParser().parse(content));
+    }
+
+    ConcurrentParsingTest.stress(
+        "CifParser",
+        () -> {
+          for (int i = 0; i < contents.size(); i++) {
+            final List<CifModel> models = parser.parse(contents.get(i));
+            assertThat(models, is(expected.get(i)));
+            for (int j = 0; j < models.size(); j++) {
+              assertThat(models.get(j).basePairs(), is(expected.get(i).get(j).basePairs()));
+              assertThat(
+                  models.get(j).missingResidues(), is(expected.get(i).get(j).missingResidues()));
+            }
+          }
+          return null;
+        });
+  }
+
+  private static void stress(final String name, final Callable<Void> task) throws Exception {
+    final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    final long sequentialTime = ConcurrentParsingTest.run(1, task);
+    final long concurrentTime = ConcurrentParsingTest.run(threads, task);
+
+    // each thread does the same amount of work as the single one, so ideal scaling keeps time equal
+    ConcurrentParsingTest.LOGGER.info(
+        "{}: 1 thread {} ms, {} threads {} ms, speedup {}",
+        name,
+        sequentialTime,
+        threads,
+        concurrentTime,
+        String.format("%.2f", (double) threads * sequentialTime / Math.max(1L, concurrentTime)));
+  }
+
+  private static long run(final int threads, final Callable<Void> task) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final long start = System.nanoTime();
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < ConcurrentParsingTest.ITERATIONS; j++) {
+                    task.call();
+                  }
+                  return null;
+                }));
+      }
+      for (final Future<Void> future : futures) {
+        future.get();
+      }
+      return (System.nanoTime() - start) / 1_000_000L;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
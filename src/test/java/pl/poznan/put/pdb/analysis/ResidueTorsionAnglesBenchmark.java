@@ -0,0 +1,56 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.circular.Angle;
+import pl.poznan.put.rna.NucleotideTorsionAngle;
+import pl.poznan.put.torsion.MasterTorsionAngleType;
+
+public class ResidueTorsionAnglesBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResidueTorsionAnglesBenchmark.class);
+
+  @Test
+  public final void benchmarkIndexedVersusOriginalLookup() throws Exception {
+    final List<ResidueTorsionAngles> allAngles = ResidueTorsionAnglesTest.loadAngles("1EHZ.pdb");
+    final List<MasterTorsionAngleType> masterTypes = List.of(NucleotideTorsionAngle.values());
+    final int repeats = 100;
+
+    long start = System.nanoTime();
+    double originalSum = 0.0;
+    for (int i = 0; i < repeats; i++) {
+      for (final ResidueTorsionAngles angles : allAngles) {
+        for (final MasterTorsionAngleType masterType : masterTypes) {
+          final Angle angle = ResidueTorsionAnglesTest.valueOriginal(angles, masterType);
+          originalSum += angle.isValid() ? angle.degrees() : 0.0;
+        }
+      }
+    }
+    final long originalTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    double indexedSum = 0.0;
+    for (int i = 0; i < repeats; i++) {
+      for (final ResidueTorsionAngles angles : allAngles) {
+        for (final MasterTorsionAngleType masterType : masterTypes) {
+          final Angle angle = angles.value(masterType);
+          indexedSum += angle.isValid() ? angle.degrees() : 0.0;
+        }
+      }
+    }
+    final long indexedTime = System.nanoTime() - start;
+
+    assertThat(indexedSum, is(originalSum));
+    ResidueTorsionAnglesBenchmark.LOGGER.info(
+        "Lookup of {} angles in {} residues ({} times): original {} ms, indexed {} ms",
+        masterTypes.size(),
+        allAngles.size(),
+        repeats,
+        originalTime / 1_000_000L,
+        indexedTime / 1_000_000L);
+  }
+}
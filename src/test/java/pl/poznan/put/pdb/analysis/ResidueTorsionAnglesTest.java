@@ -0,0 +1,75 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.junit.Test;
+import pl.poznan.put.circular.Angle;
+import pl.poznan.put.circular.ImmutableAngle;
+import pl.poznan.put.protein.AminoAcidTorsionAngle;
+import pl.poznan.put.rna.NucleotideTorsionAngle;
+import pl.poznan.put.torsion.MasterTorsionAngleType;
+import pl.poznan.put.torsion.TorsionAngleType;
+import pl.poznan.put.torsion.TorsionAngleValue;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class ResidueTorsionAnglesTest {
+  // the original implementation of value(TorsionAngleType)
+  private static Angle valueOriginal(
+      final ResidueTorsionAngles angles, final TorsionAngleType type) {
+    return angles.values().stream()
+        .filter(angle -> Objects.equals(angle.angleType(), type))
+        .map(TorsionAngleValue::value)
+        .findFirst()
+        .orElse(ImmutableAngle.of(Double.NaN));
+  }
+
+  // the original implementation of value(MasterTorsionAngleType)
+  static Angle valueOriginal(
+      final ResidueTorsionAngles angles, final MasterTorsionAngleType masterType) {
+    return angles.values().stream()
+        .flatMap(
+            angleValue ->
+                masterType.angleTypes().stream()
+                    .map(type -> ResidueTorsionAnglesTest.valueOriginal(angles, type)))
+        .filter(Angle::isValid)
+        .findFirst()
+        .orElse(ImmutableAngle.of(Double.NaN));
+  }
+
+  static List<ResidueTorsionAngles> loadAngles(final String resource) throws Exception {
+    final PdbModel model = new PdbParser().parse(ResourcesHelper.loadResource(resource)).get(0);
+    return TorsionAngleCalculator.calculate(model);
+  }
+
+  private static List<MasterTorsionAngleType> masterTypes() {
+    final List<MasterTorsionAngleType> masterTypes = new ArrayList<>();
+    masterTypes.addAll(List.of(NucleotideTorsionAngle.values()));
+    masterTypes.addAll(List.of(AminoAcidTorsionAngle.values()));
+    return masterTypes;
+  }
+
+  @Test
+  public final void testSameAsOriginal() throws Exception {
+    final List<ResidueTorsionAngles> allAngles = new ArrayList<>();
+    allAngles.addAll(ResidueTorsionAnglesTest.loadAngles("1EHZ.pdb"));
+    allAngles.addAll(ResidueTorsionAnglesTest.loadAngles("148L.pdb"));
+
+    for (final ResidueTorsionAngles angles : allAngles) {
+      for (final MasterTorsionAngleType masterType : ResidueTorsionAnglesTest.masterTypes()) {
+        assertThat(
+            angles.value(masterType).radians(),
+            is(ResidueTorsionAnglesTest.valueOriginal(angles, masterType).radians()));
+
+        for (final TorsionAngleType type : masterType.angleTypes()) {
+          assertThat(
+              angles.value(type).radians(),
+              is(ResidueTorsionAnglesTest.valueOriginal(angles, type).radians()));
+        }
+      }
+    }
+  }
+}
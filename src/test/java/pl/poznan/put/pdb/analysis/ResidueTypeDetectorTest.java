@@ -0,0 +1,77 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.Test;
+import pl.poznan.put.atom.AtomName;
+import pl.poznan.put.protein.AminoAcid;
+import pl.poznan.put.rna.Nucleotide;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class ResidueTypeDetectorTest {
+  // the original lookup by name, which scans aliases of all nucleotides and amino acids
+  private static ResidueInformationProvider referenceByName(final String residueName) {
+    return Stream.<ResidueInformationProvider>concat(
+            Arrays.stream(Nucleotide.values()), Arrays.stream(AminoAcid.values()))
+        .filter(provider -> provider.aliases().contains(residueName))
+        .findFirst()
+        .orElse(ImmutableInvalidResidueInformationProvider.of(residueName));
+  }
+
+  @Test
+  public final void testSameAsUncached() throws Exception {
+    final List<PdbResidue> residues = new ArrayList<>();
+    for (final String name :
+        Arrays.asList("1EHZ.pdb", "148L.pdb", "2MIY.pdb", "3P49.pdb", "FrabaseExport.pdb")) {
+      residues.addAll(new PdbParser().parse(ResourcesHelper.loadResource(name)).get(0).residues());
+    }
+
+    for (final PdbResidue residue : residues) {
+      final String name = residue.modifiedResidueName();
+      final Set<AtomName> atomNames = residue.atomNames();
+
+      final ResidueInformationProvider byName = ResidueTypeDetectorTest.referenceByName(name);
+      if (byName.moleculeType() != MoleculeType.UNKNOWN) {
+        assertThat(ResidueTypeDetector.detectResidueType(name, atomNames), is(byName));
+      }
+
+      // the same residue with an unknown name must be detected from atoms
+      ResidueTypeDetector.clearCache();
+      final ResidueInformationProvider uncached =
+          ResidueTypeDetector.detectResidueType("X" + name, atomNames);
+      assertThat(ResidueTypeDetector.detectResidueType("X" + name, atomNames), is(uncached));
+      assertThat(
+          ResidueTypeDetector.detectResidueType("X" + name, new HashSet<>(atomNames)),
+          is(uncached));
+      assertThat(ResidueTypeDetector.cacheStatistics().cacheMisses(), is(1L));
+    }
+  }
+
+  @Test
+  public final void testCacheStatistics() {
+    ResidueTypeDetector.clearCache();
+    final Set<AtomName> atoms = EnumSet.of(AtomName.P, AtomName.O1P, AtomName.O2P);
+
+    for (int i = 0; i < 10; i++) {
+      ResidueTypeDetector.detectResidueType("A", Collections.emptySet());
+      ResidueTypeDetector.detectResidueType("UNKNOWN", atoms);
+      ResidueTypeDetector.detectResidueType("UNKNOWN", Collections.emptySet());
+    }
+
+    final ResidueTypeCacheStatistics statistics = ResidueTypeDetector.cacheStatistics();
+    assertThat(statistics.nameHits(), is(10L));
+    assertThat(statistics.cacheMisses(), is(2L));
+    assertThat(statistics.cacheHits(), is(18L));
+    assertThat(statistics.size(), is(2));
+    assertThat(statistics.hitRate(), is(0.9));
+  }
+}
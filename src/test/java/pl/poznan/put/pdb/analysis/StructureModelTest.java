@@ -2,16 +2,26 @@ package pl.poznan.put.pdb.analysis;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
-
+import static org.junit.Assert.assertThrows;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 import pl.poznan.put.atom.AtomName;
 import pl.poznan.put.pdb.ImmutablePdbResidueIdentifier;
 import pl.poznan.put.pdb.PdbAtomLine;
+import pl.poznan.put.pdb.PdbResidueIdentifier;
 import pl.poznan.put.structure.CanonicalStructureExtractor;
 import pl.poznan.put.structure.formats.BpSeq;
 import pl.poznan.put.utility.ResourcesHelper;
@@ -466,4 +476,185 @@ public class StructureModelTest {
     assertThat(model.chains().get(4).moleculeType(), is(MoleculeType.PROTEIN));
     assertThat(model.chains().get(5).moleculeType(), is(MoleculeType.PROTEIN));
   }
+
+  @Test
+  public final void testParseFromPath() throws Exception {
+    for (final String name : Arrays.asList("1EHZ.pdb", "2MIY.pdb", "2Z74.pdb")) {
+      final String content = ResourcesHelper.loadResource(name);
+      final Path path = ResourcesHelper.loadResourceFile(name).toPath();
+      final List<PdbModel> expected = new PdbParser().parse(content);
+      final List<PdbModel> actual = new PdbParser().parse(path);
+
+      assertThat(actual, is(expected));
+      for (int i = 0; i < expected.size(); i++) {
+        assertThat(actual.get(i).modelNumber(), is(expected.get(i).modelNumber()));
+        assertThat(actual.get(i).title(), is(expected.get(i).title()));
+        assertThat(actual.get(i).header(), is(expected.get(i).header()));
+        assertThat(actual.get(i).missingResidues(), is(expected.get(i).missingResidues()));
+        assertThat(
+            actual.get(i).chainTerminatedAfter(), is(expected.get(i).chainTerminatedAfter()));
+      }
+    }
+  }
+
+  @Test
+  public final void testParseLazily() throws Exception {
+    for (final String name : Arrays.asList("1EHZ.pdb", "2MIY.pdb", "2Z74.pdb", "1XPO.pdb")) {
+      final String content = ResourcesHelper.loadResource(name);
+      final Path path = ResourcesHelper.loadResourceFile(name).toPath();
+      final List<PdbModel> expected = new PdbParser().parse(content);
+      final List<PdbModel> fromString = new PdbParser().parseLazily(content);
+      final List<PdbModel> fromPath = new PdbParser().parseLazily(path);
+
+      assertThat(fromString.size(), is(expected.size()));
+      assertThat(fromPath.size(), is(expected.size()));
+      for (int i = expected.size() - 1; i >= 0; i--) {
+        for (final PdbModel actual : Arrays.asList(fromString.get(i), fromPath.get(i))) {
+          assertThat(actual, is(expected.get(i)));
+          assertThat(actual.modelNumber(), is(expected.get(i).modelNumber()));
+          assertThat(actual.title(), is(expected.get(i).title()));
+          assertThat(actual.header(), is(expected.get(i).header()));
+          assertThat(actual.resolution(), is(expected.get(i).resolution()));
+          assertThat(actual.modifiedResidues(), is(expected.get(i).modifiedResidues()));
+          assertThat(actual.missingResidues(), is(expected.get(i).missingResidues()));
+          assertThat(actual.chainTerminatedAfter(), is(expected.get(i).chainTerminatedAfter()));
+        }
+      }
+    }
+  }
+
+  @Test
+  public final void testParseLazilySameAsParse() throws Exception {
+    final String content =
+        StringUtils.rightPad("TITLE     ŁÓDŹ RIBOZYME", 80)
+            + "\n"
+            + "MODEL        1\n"
+            + "ATOM      1  OP3   G A   1      50.193  51.190  50.534  1.00 99.85           O  \n"
+            + "ENDMDL\n"
+            + "MODEL        2\n"
+            + "ATOM      1  OP3   G A   1      50.193  xx.xxx  50.534  1.00 99.85           O  \n"
+            + "ENDMDL\n"
+            + "MODEL        3\n"
+            + "ATOM      1  OP3   G A   1      50.193  xx.xxx  50.534  1.00 99.85           O  \n"
+            + "ATOM      2  P     G A   1      50.626  49.730  50.573  1.00100.19           P  \n"
+            + "ENDMDL\n";
+    final Path path = Files.createTempFile("structure", ".pdb");
+    try {
+      Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+      final List<PdbModel> expected = new PdbParser().parse(content);
+      assertThat(expected.size(), is(2));
+
+      for (final List<PdbModel> actual :
+          Arrays.asList(
+              new PdbParser().parse(path),
+              new PdbParser().parseLazily(content),
+              new PdbParser().parseLazily(path))) {
+        assertThat(new ArrayList<>(actual), is(expected));
+        assertThat(
+            actual.stream().map(PdbModel::modelNumber).collect(Collectors.toList()),
+            is(Arrays.asList(1, 3)));
+        assertThat(actual.get(0).title(), is(expected.get(0).title()));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public final void testParseCompressed() throws Exception {
+    for (final String name : Arrays.asList("1EHZ.pdb", "2MIY.pdb", "100D.cif", "3P49.cif")) {
+      final String content = ResourcesHelper.loadResource(name);
+      final Path path = Files.createTempFile("structure", name + ".gz");
+      try {
+        try (final OutputStream stream = new GZIPOutputStream(Files.newOutputStream(path))) {
+          stream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(StructureFiles.isCompressed(path), is(true));
+        assertThat(StructureFiles.read(path).toString(), is(content));
+
+        if (name.endsWith(".cif")) {
+          assertThat(new CifParser().parse(path), is(new CifParser().parse(content)));
+        } else {
+          final List<PdbModel> expected = new PdbParser().parse(content);
+          assertThat(new PdbParser().parse(path), is(expected));
+          assertThat(new ArrayList<>(new PdbParser().parseLazily(path)), is(expected));
+        }
+      } finally {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public final void testParseCifFromPath() throws Exception {
+    final Path path = ResourcesHelper.loadResourceFile("5A93.cif").toPath();
+    assertThat(StructureFiles.isCompressed(path), is(false));
+    assertThat(
+        new CifParser().parse(path),
+        is(new CifParser().parse(ResourcesHelper.loadResource("5A93.cif"))));
+  }
+
+  @Test
+  public final void testResidueIndex() throws Exception {
+    final PdbModel model = new PdbParser().parse(ResourcesHelper.loadResource("1XPO.pdb")).get(0);
+    final List<PdbModel> models =
+        Arrays.asList(
+            model,
+            model.filteredNewInstance(MoleculeType.RNA),
+            new CifParser().parse(ResourcesHelper.loadResource("3P49.cif")).get(0));
+
+    for (final PdbModel collection : models) {
+      final List<PdbResidue> residues = collection.residues();
+      final ResidueCollection copy = ImmutableDefaultResidueCollection.of(residues);
+      for (int i = 0; i < residues.size(); i++) {
+        final PdbResidueIdentifier identifier = PdbResidueIdentifier.from(residues.get(i));
+        for (final ResidueCollection tested : Arrays.asList(collection, copy)) {
+          assertThat(tested.hasResidue(identifier), is(true));
+          assertThat(tested.indexOf(identifier), is(i));
+          assertThat(tested.findResidue(identifier), is(residues.get(i)));
+        }
+      }
+    }
+
+    final PdbResidueIdentifier absent =
+        ImmutablePdbResidueIdentifier.of("A", 9999, Optional.empty());
+    assertThat(model.hasResidue(absent), is(false));
+    assertThrows(IllegalArgumentException.class, () -> model.findResidue(absent));
+    assertThrows(IllegalArgumentException.class, () -> model.indexOf(absent));
+  }
+
+  @Test
+  public final void testAtomIndex() throws Exception {
+    final PdbModel model = new PdbParser().parse(ResourcesHelper.loadResource("1EHZ.pdb")).get(0);
+
+    for (final PdbResidue residue : model.residues()) {
+      for (final AtomName atomName : AtomName.values()) {
+        final Optional<PdbAtomLine> expected =
+            residue.atoms().stream().filter(atom -> atom.detectAtomName() == atomName).findFirst();
+        assertThat(residue.hasAtom(atomName), is(expected.isPresent()));
+        if (expected.isPresent()) {
+          assertThat(residue.findAtom(atomName), is(expected.get()));
+        } else {
+          assertThrows(IllegalArgumentException.class, () -> residue.findAtom(atomName));
+        }
+      }
+      assertThat(
+          residue.atomNames(),
+          is(
+              residue.atoms().stream()
+                  .map(PdbAtomLine::detectAtomName)
+                  .collect(Collectors.toSet())));
+    }
+  }
+
+  @Test
+  public final void testWritePdb() throws Exception {
+    for (final String name : Arrays.asList("1EHZ.pdb", "2MIY.pdb", "148L.pdb")) {
+      for (final PdbModel model : new PdbParser().parse(ResourcesHelper.loadResource(name))) {
+        final StringWriter writer = new StringWriter();
+        model.writePdb(writer);
+        assertThat(writer.toString(), is(model.toPdb()));
+      }
+    }
+  }
 }
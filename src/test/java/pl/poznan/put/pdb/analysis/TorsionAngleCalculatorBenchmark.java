@@ -0,0 +1,61 @@
+package pl.poznan.put.pdb.analysis;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class TorsionAngleCalculatorBenchmark {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(TorsionAngleCalculatorBenchmark.class);
+
+  @Test
+  public final void benchmarkBatchVersusPerResidue() throws Exception {
+    final PdbModel model =
+        new CifParser().parse(ResourcesHelper.loadResource("1a73-assembly-1.cif")).get(0);
+    final int repeats = 100;
+
+    // warm up and make sure residue types are already detected
+    TorsionAngleCalculatorTest.calculateOriginal(model);
+    TorsionAngleCalculator.calculate(model);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < repeats; i++) {
+      TorsionAngleCalculatorTest.calculateOriginal(model);
+    }
+    final long originalTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < repeats; i++) {
+      TorsionAngleCalculator.calculate(model);
+    }
+    final long batchTime = System.nanoTime() - start;
+
+    final int threads = Runtime.getRuntime().availableProcessors();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final long parallelTime;
+    try {
+      TorsionAngleCalculator.calculate(model, executor);
+      start = System.nanoTime();
+      for (int i = 0; i < repeats; i++) {
+        TorsionAngleCalculator.calculate(model, executor);
+      }
+      parallelTime = System.nanoTime() - start;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    TorsionAngleCalculatorBenchmark.LOGGER.info(
+        "Torsion angles of {} residues in {} chains ({} times): per residue {} ms, batch {} ms,"
+            + " batch on {} threads {} ms",
+        model.residues().size(),
+        model.chains().size(),
+        repeats,
+        originalTime / 1_000_000L,
+        batchTime / 1_000_000L,
+        threads,
+        parallelTime / 1_000_000L);
+  }
+}
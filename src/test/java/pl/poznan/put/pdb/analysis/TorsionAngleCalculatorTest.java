@@ -0,0 +1,75 @@
+package pl.poznan.put.pdb.analysis;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import pl.poznan.put.torsion.TorsionAngleValue;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class TorsionAngleCalculatorTest {
+  // the original implementation, which calculates each residue separately
+  static List<ResidueTorsionAngles> calculateOriginal(final ResidueCollection collection) {
+    final List<PdbResidue> residues = collection.residues();
+    return IntStream.range(0, residues.size())
+        .mapToObj(i -> ResidueTorsionAngles.calculate(residues, i))
+        .collect(Collectors.toList());
+  }
+
+  // Angle.equals() is not reflexive for NaN, so values are compared bit by bit
+  private static void assertSameValues(
+      final List<ResidueTorsionAngles> actual, final List<ResidueTorsionAngles> expected) {
+    assertThat(actual.size(), is(expected.size()));
+    for (int i = 0; i < expected.size(); i++) {
+      final List<TorsionAngleValue> actualValues = actual.get(i).values();
+      final List<TorsionAngleValue> expectedValues = expected.get(i).values();
+      assertThat(actual.get(i).identifier(), is(expected.get(i).identifier()));
+      assertThat(actualValues.size(), is(expectedValues.size()));
+
+      for (int j = 0; j < expectedValues.size(); j++) {
+        assertThat(actualValues.get(j).angleType(), is(expectedValues.get(j).angleType()));
+        assertThat(
+            actualValues.get(j).value().radians(), is(expectedValues.get(j).value().radians()));
+      }
+    }
+  }
+
+  @Test
+  public final void testSameAsOriginal() throws Exception {
+    final PdbParser pdbParser = new PdbParser();
+    final CifParser cifParser = new CifParser();
+    final List<PdbModel> models =
+        List.of(
+            pdbParser.parse(ResourcesHelper.loadResource("1EHZ.pdb")).get(0),
+            pdbParser.parse(ResourcesHelper.loadResource("148L.pdb")).get(0),
+            pdbParser.parse(ResourcesHelper.loadResource("2MIY.pdb")).get(0),
+            cifParser.parse(ResourcesHelper.loadResource("1a73-assembly-1.cif")).get(0));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (final PdbModel model : models) {
+        final List<ResidueTorsionAngles> expected =
+            TorsionAngleCalculatorTest.calculateOriginal(model);
+        TorsionAngleCalculatorTest.assertSameValues(
+            TorsionAngleCalculator.calculate(model), expected);
+        TorsionAngleCalculatorTest.assertSameValues(
+            TorsionAngleCalculator.calculate(model, executor), expected);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public final void testEmpty() {
+    assertThat(
+        TorsionAngleCalculator.calculate(ImmutableDefaultResidueCollection.of(List.of())),
+        is(Collections.emptyList()));
+  }
+}
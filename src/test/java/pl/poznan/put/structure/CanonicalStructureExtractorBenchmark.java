@@ -0,0 +1,65 @@
+package pl.poznan.put.structure;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.pdb.analysis.CifParser;
+import pl.poznan.put.pdb.analysis.ImmutableDefaultResidueCollection;
+import pl.poznan.put.pdb.analysis.MoleculeType;
+import pl.poznan.put.pdb.analysis.PdbParser;
+import pl.poznan.put.pdb.analysis.PdbResidue;
+import pl.poznan.put.pdb.analysis.ResidueCollection;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class CanonicalStructureExtractorBenchmark {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CanonicalStructureExtractorBenchmark.class);
+
+  @Test
+  public final void benchmarkGridVersusAllPairs() throws Exception {
+    // a large input assembled from several structures, as no ribosome (e.g. 4UG0) is in resources
+    final List<PdbResidue> residues = new ArrayList<>();
+    for (final String name : Arrays.asList("1XPO.pdb", "3P49.pdb", "4A04.pdb", "1EHZ.pdb")) {
+      new PdbParser()
+          .parse(ResourcesHelper.loadResource(name)).get(0).residues().stream()
+              .filter(
+                  residue ->
+                      residue.residueInformationProvider().moleculeType() == MoleculeType.RNA)
+              .forEach(residues::add);
+    }
+    // all models of an NMR entry
+    new PdbParser()
+        .parse(ResourcesHelper.loadResource("2MIY.pdb")).stream()
+            .flatMap(model -> model.residues().stream())
+            .forEach(residues::add);
+    new CifParser()
+        .parse(ResourcesHelper.loadResource("3P49.cif")).get(0).residues().stream()
+            .filter(
+                residue -> residue.residueInformationProvider().moleculeType() == MoleculeType.RNA)
+            .forEach(residues::add);
+    final ResidueCollection collection = ImmutableDefaultResidueCollection.of(residues);
+
+    long start = System.nanoTime();
+    final Collection<ClassifiedBasePair> expected =
+        CanonicalStructureExtractorTest.allPairsBasePairs(collection);
+    final long allPairsTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final Collection<ClassifiedBasePair> actual = CanonicalStructureExtractor.basePairs(collection);
+    final long gridTime = System.nanoTime() - start;
+
+    assertThat(new ArrayList<>(actual), is(new ArrayList<>(expected)));
+    CanonicalStructureExtractorBenchmark.LOGGER.info(
+        "{} residues: all pairs {} ms, grid {} ms",
+        residues.size(),
+        allPairsTime / 1_000_000L,
+        gridTime / 1_000_000L);
+  }
+}
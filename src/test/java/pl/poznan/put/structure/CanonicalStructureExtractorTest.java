@@ -0,0 +1,60 @@
+package pl.poznan.put.structure;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+import pl.poznan.put.pdb.PdbNamedResidueIdentifier;
+import pl.poznan.put.pdb.analysis.PdbParser;
+import pl.poznan.put.pdb.analysis.PdbResidue;
+import pl.poznan.put.pdb.analysis.ResidueCollection;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class CanonicalStructureExtractorTest {
+  // the original implementation, which compares all pairs of residues
+  static Collection<ClassifiedBasePair> allPairsBasePairs(
+      final ResidueCollection residueCollection) {
+    final List<PdbResidue> residues = residueCollection.residues();
+    final Collection<ClassifiedBasePair> basePairs = new ArrayList<>();
+    final Collection<PdbNamedResidueIdentifier> paired = new HashSet<>();
+
+    for (int i = 0; i < residues.size(); i++) {
+      final PdbResidue left = residues.get(i);
+
+      for (int j = i + 1; j < residues.size(); j++) {
+        final PdbResidue right = residues.get(j);
+
+        if (BasePair.isCanonicalPair(left, right)) {
+          final PdbNamedResidueIdentifier leftId = left.namedResidueIdentifier();
+          final PdbNamedResidueIdentifier rightId = right.namedResidueIdentifier();
+
+          if (!paired.contains(leftId) && !paired.contains(rightId)) {
+            basePairs.add(ImmutableAnalyzedBasePair.of(ImmutableBasePair.of(leftId, rightId)));
+            paired.add(leftId);
+            paired.add(rightId);
+          }
+        }
+      }
+    }
+
+    return basePairs;
+  }
+
+  @Test
+  public final void testSameAsAllPairs() throws Exception {
+    for (final String name :
+        Arrays.asList("1EHZ.pdb", "1XPO.pdb", "2Z74.pdb", "2MIY.pdb", "3P49.pdb", "4A04.pdb")) {
+      final ResidueCollection model =
+          new PdbParser().parse(ResourcesHelper.loadResource(name)).get(0);
+      assertThat(
+          name,
+          new ArrayList<>(CanonicalStructureExtractor.basePairs(model)),
+          is(new ArrayList<>(CanonicalStructureExtractorTest.allPairsBasePairs(model))));
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package pl.poznan.put.structure.formats;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BpSeqBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BpSeqBenchmark.class);
+
+  @Test
+  public final void benchmarkBulkVersusOneByOneRemoval() {
+    final BpSeq bpSeq = BpSeqTest.randomBpSeq(new Random(21), 5_000);
+    final List<BpSeq.Entry> toRemove = new ArrayList<>(bpSeq.paired());
+
+    long start = System.nanoTime();
+    final BpSeq expected = BpSeqTest.withoutPairsOriginal(bpSeq, toRemove);
+    final long originalTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final BpSeq actual = bpSeq.withoutPairs(toRemove);
+    final long bulkTime = System.nanoTime() - start;
+
+    assertThat(actual, is(expected));
+    assertThat(actual.hasAnyPair(), is(false));
+    BpSeqBenchmark.LOGGER.info(
+        "Removal of {} pairs from {} nt: one by one {} ms, at once {} ms",
+        toRemove.size(),
+        bpSeq.size(),
+        originalTime / 1_000_000L,
+        bulkTime / 1_000_000L);
+  }
+}
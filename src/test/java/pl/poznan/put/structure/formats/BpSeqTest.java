@@ -4,8 +4,14 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Test;
 import pl.poznan.put.notation.LeontisWesthof;
@@ -178,4 +184,81 @@ public class BpSeqTest {
     final var bpSeq = BpSeq.fromBasePairs(residues, basePairs);
     assertThat(bpSeq.toString(), is("1 g 2\n2 C 1\n"));
   }
+
+  @Test
+  public final void testPairLookup() {
+    final BpSeq bpSeq = BpSeq.fromString(bpseq1DDYall);
+    for (final BpSeq.Entry entry : bpSeq.entries()) {
+      assertThat(bpSeq.pair(entry.index()), is(entry.pair()));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public final void testPairLookupOutOfRange() {
+    BpSeq.fromString(BpSeqTest.INPUT_GOOD_1).pair(5);
+  }
+
+  @Test
+  public final void testPairedIsModifiableCopy() {
+    final BpSeq bpSeq = BpSeq.fromString(BpSeqTest.INPUT_GOOD_1);
+    final SortedSet<BpSeq.Entry> paired = bpSeq.paired();
+    paired.clear();
+    assertThat(bpSeq.paired().size(), is(1));
+  }
+
+  @Test
+  public final void testWithoutPairsSameAsOriginal() {
+    final Random random = new Random(21);
+
+    for (int i = 0; i < 100; i++) {
+      final BpSeq bpSeq = BpSeqTest.randomBpSeq(random, 100);
+      final List<BpSeq.Entry> toRemove =
+          bpSeq.entries().stream()
+              .filter(entry -> random.nextBoolean())
+              .collect(Collectors.toList());
+      assertThat(bpSeq.withoutPairs(toRemove), is(BpSeqTest.withoutPairsOriginal(bpSeq, toRemove)));
+    }
+  }
+
+  // a random structure in which about 2/3 of residues are paired, possibly with pseudoknots
+  static BpSeq randomBpSeq(final Random random, final int size) {
+    final List<Integer> indices =
+        IntStream.rangeClosed(1, size).boxed().collect(Collectors.toList());
+    Collections.shuffle(indices, random);
+
+    final int[] pairs = new int[size + 1];
+    for (int i = 0; i + 2 < size; i += 3) {
+      pairs[indices.get(i)] = indices.get(i + 1);
+      pairs[indices.get(i + 1)] = indices.get(i);
+    }
+
+    final String bases = "ACGU";
+    return ImmutableBpSeq.of(
+        IntStream.rangeClosed(1, size)
+            .mapToObj(i -> ImmutableEntry.of(i, bases.charAt(random.nextInt(4)), pairs[i]))
+            .collect(Collectors.toList()));
+  }
+
+  // the original implementation, which removes pairs one by one
+  static BpSeq withoutPairsOriginal(final BpSeq bpSeq, final Iterable<BpSeq.Entry> entries) {
+    BpSeq result = bpSeq;
+    for (final BpSeq.Entry entry : entries) {
+      if (!entry.isPaired()) {
+        continue;
+      }
+
+      final SortedSet<BpSeq.Entry> entriesCopy = new TreeSet<>(result.entries());
+      entriesCopy.remove(entry);
+      entriesCopy.add(ImmutableEntry.copyOf(entry).withPair(0));
+
+      final Optional<BpSeq.Entry> paired =
+          result.entries().stream().filter(e -> e.index() == entry.pair()).findFirst();
+      if (paired.isPresent()) {
+        entriesCopy.remove(paired.get());
+        entriesCopy.add(ImmutableEntry.copyOf(paired.get()).withPair(0));
+      }
+      result = ImmutableBpSeq.of(entriesCopy);
+    }
+    return result;
+  }
 }
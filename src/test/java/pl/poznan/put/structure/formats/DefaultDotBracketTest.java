@@ -3,7 +3,14 @@ package pl.poznan.put.structure.formats;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
+import pl.poznan.put.structure.pseudoknots.PseudoknotFinder;
+import pl.poznan.put.structure.pseudoknots.dp.DynamicProgrammingAll;
+import pl.poznan.put.structure.pseudoknots.dp.ImmutableDynamicProgrammingAll;
+import pl.poznan.put.structure.pseudoknots.elimination.ImmutableMinGain;
 import pl.poznan.put.utility.ResourcesHelper;
 
 public class DefaultDotBracketTest {
@@ -71,6 +78,62 @@ public class DefaultDotBracketTest {
     assertThat(dotBracketFromBpSeq, is(dotBracketFromString));
   }
 
+  @Test
+  public final void fromBpSeqInParallel() throws Exception {
+    final String dotBracket4UG0 = ResourcesHelper.loadResource("4UG0-dotbracket.txt");
+    final BpSeq bpSeq = BpSeq.fromDotBracket(DefaultDotBracket.fromString(dotBracket4UG0));
+
+    final DynamicProgrammingAll pseudoknotFinder =
+        ImmutableDynamicProgrammingAll.builder().maxSolutions(4).build();
+    final Converter sequential =
+        ImmutableDefaultConverter.builder()
+            .pseudoknotFinder(pseudoknotFinder)
+            .maxSolutions(4)
+            .build();
+    final Converter parallel =
+        ImmutableDefaultConverter.builder()
+            .pseudoknotFinder(
+                ImmutableDynamicProgrammingAll.copyOf(pseudoknotFinder)
+                    .withExecutor(ForkJoinPool.commonPool()))
+            .maxSolutions(4)
+            .executor(ForkJoinPool.commonPool())
+            .build();
+
+    assertThat(parallel.convert(bpSeq), is(sequential.convert(bpSeq)));
+  }
+
+  @Test
+  public final void fromBpSeqStopsAtMaxSolutions() throws Exception {
+    final String dotBracket4UG0 = ResourcesHelper.loadResource("4UG0-dotbracket.txt");
+    final BpSeq bpSeq = BpSeq.fromDotBracket(DefaultDotBracket.fromString(dotBracket4UG0));
+    final PseudoknotFinder minGain = ImmutableMinGain.of();
+
+    final AtomicInteger singleCalls = new AtomicInteger();
+    final Converter single =
+        ImmutableDefaultConverter.builder()
+            .pseudoknotFinder(
+                input -> {
+                  singleCalls.incrementAndGet();
+                  return minGain.findPseudoknots(input);
+                })
+            .build();
+
+    // every state yields two solutions, so only the first state on each level is needed
+    final AtomicInteger doubledCalls = new AtomicInteger();
+    final Converter doubled =
+        ImmutableDefaultConverter.builder()
+            .pseudoknotFinder(
+                input -> {
+                  doubledCalls.incrementAndGet();
+                  final List<BpSeq> solutions = minGain.findPseudoknots(input);
+                  return List.of(solutions.get(0), solutions.get(0));
+                })
+            .build();
+
+    assertThat(doubled.convert(bpSeq), is(single.convert(bpSeq)));
+    assertThat(doubledCalls.get(), is(singleCalls.get()));
+  }
+
   @Test
   public final void testWithWindowsNewline() {
     final DefaultDotBracket dotBracket =
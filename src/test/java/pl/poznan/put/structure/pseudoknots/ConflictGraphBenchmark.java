@@ -0,0 +1,77 @@
+package pl.poznan.put.structure.pseudoknots;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.poznan.put.structure.pseudoknots.dp.ConflictClique;
+
+public class ConflictGraphBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConflictGraphBenchmark.class);
+
+  @Test
+  public final void benchmarkSweepLineVersusAllPairs() throws Exception {
+    final List<Region> regions = ConflictGraphTest.loadRegions();
+
+    // warm up both implementations first
+    ConflictGraphTest.conflictsOriginal(regions);
+    ImmutableConflictGraph.of(regions).conflicts();
+
+    Map<Region, Set<Region>> expected = null;
+    long start = System.nanoTime();
+    for (int i = 0; i < 10; i++) {
+      expected = ConflictGraphTest.conflictsOriginal(regions);
+    }
+    final long originalTime = System.nanoTime() - start;
+
+    Map<Region, Set<Region>> actual = null;
+    start = System.nanoTime();
+    for (int i = 0; i < 10; i++) {
+      actual = ImmutableConflictGraph.of(regions).conflicts();
+    }
+    final long sweepTime = System.nanoTime() - start;
+
+    assertThat(actual, is(expected));
+    ConflictGraphBenchmark.LOGGER.info(
+        "Conflicts between {} regions of 4UG0 and CRW_00528 (10 runs): all pairs {} ms, sweep line"
+            + " {} ms",
+        regions.size(),
+        originalTime / 1_000_000L,
+        sweepTime / 1_000_000L);
+  }
+
+  @Test
+  public final void benchmarkSinglePassVersusPairByPairSimplification() {
+    final List<Region> regions = ConflictGraphTest.knottedRegions(new Random(23), 3_000);
+    final ConflictGraph conflictGraph = ImmutableConflictGraph.of(regions);
+
+    long start = System.nanoTime();
+    final ConflictGraph expected = ConflictGraphTest.simplifiedOriginal(conflictGraph);
+    final List<Set<Region>> expectedCliques = ConflictGraphTest.conflictCliquesOriginal(expected);
+    final long originalTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final ConflictGraph actual = conflictGraph.simplified();
+    final List<ConflictClique> actualCliques = actual.conflictCliques();
+    final long newTime = System.nanoTime() - start;
+
+    assertThat(
+        ConflictGraphTest.pairSets(actual.regions()),
+        is(ConflictGraphTest.pairSets(expected.regions())));
+    assertThat(actualCliques.size(), is(expectedCliques.size()));
+    ConflictGraphBenchmark.LOGGER.info(
+        "Simplification of {} regions to {} and search for {} conflict cliques: pair by pair {} ms,"
+            + " single pass {} ms",
+        regions.size(),
+        actual.regions().size(),
+        actualCliques.size(),
+        originalTime / 1_000_000L,
+        newTime / 1_000_000L);
+  }
+}
@@ -0,0 +1,243 @@
+package pl.poznan.put.structure.pseudoknots;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.collections4.CollectionUtils;
+import org.junit.Test;
+import pl.poznan.put.structure.formats.BpSeq;
+import pl.poznan.put.structure.formats.Ct;
+import pl.poznan.put.structure.formats.DefaultDotBracket;
+import pl.poznan.put.structure.formats.ImmutableBpSeq;
+import pl.poznan.put.structure.formats.ImmutableEntry;
+import pl.poznan.put.structure.pseudoknots.dp.ConflictClique;
+import pl.poznan.put.utility.ResourcesHelper;
+
+public class ConflictGraphTest {
+  // the original breadth-first search for connected components
+  static List<Set<Region>> conflictCliquesOriginal(final ConflictGraph conflictGraph) {
+    final List<Set<Region>> conflictCliques = new ArrayList<>();
+    final Collection<Region> seen = new HashSet<>();
+
+    for (final Region region : conflictGraph.regionsWithConflicts()) {
+      if (seen.contains(region)) {
+        continue;
+      }
+
+      final Collection<Region> todo = new HashSet<>();
+      todo.add(region);
+      final Set<Region> done = new HashSet<>();
+
+      while (!CollectionUtils.isEqualCollection(todo, done)) {
+        final Collection<Region> next = new ArrayList<>();
+        for (final Region r : todo) {
+          next.addAll(conflictGraph.conflictsWith(r));
+          done.add(r);
+        }
+        todo.addAll(next);
+      }
+
+      if (done.size() > 1) {
+        conflictCliques.add(done);
+      }
+
+      seen.addAll(done);
+    }
+
+    return conflictCliques;
+  }
+
+  // the original simplification, which merges one pair at a time and rebuilds the graph (unlike
+  // the original, it builds upon the previous result, otherwise it does not stop on many inputs)
+  static ConflictGraph simplifiedOriginal(final ConflictGraph conflictGraph) {
+    final Collection<Region> toRemove = new ArrayList<>();
+    final Collection<Region> toAdd = new ArrayList<>();
+
+    ConflictGraph result = conflictGraph;
+    do {
+      final List<Region> conflicted = new ArrayList<>(result.regionsWithConflicts());
+      toRemove.clear();
+      toAdd.clear();
+
+      for (int i = 0; i < conflicted.size() && toRemove.isEmpty(); i++) {
+        final Region ri = conflicted.get(i);
+        for (int j = i + 1; j < conflicted.size(); j++) {
+          final Region rj = conflicted.get(j);
+          final boolean b1 = (ri.begin() <= rj.begin()) && (ri.end() >= rj.end());
+          final boolean b2 = (rj.begin() <= ri.begin()) && (rj.end() >= ri.end());
+          if ((b1 || b2)
+              && CollectionUtils.isEqualCollection(
+                  result.conflictsWith(ri), result.conflictsWith(rj))) {
+            toRemove.add(ri);
+            toRemove.add(rj);
+            toAdd.add(Region.merge(ri, rj));
+            break;
+          }
+        }
+      }
+
+      if (!toRemove.isEmpty()) {
+        final List<Region> regionsCopy = new ArrayList<>(result.regions());
+        regionsCopy.removeAll(toRemove);
+        regionsCopy.addAll(toAdd);
+        result = ImmutableConflictGraph.of(regionsCopy);
+      }
+    } while (!toRemove.isEmpty());
+
+    return result;
+  }
+
+  // regions are compared by their pairs only, because the order of pairs depends on merge order
+  static Set<Set<BpSeq.Entry>> pairSets(final Collection<Region> regions) {
+    return regions.stream()
+        .map(region -> new HashSet<>(region.entries()))
+        .collect(Collectors.toSet());
+  }
+
+  private static Map<Set<BpSeq.Entry>, Set<Set<BpSeq.Entry>>> conflictPairSets(
+      final ConflictGraph conflictGraph) {
+    return conflictGraph.regionsWithConflicts().stream()
+        .collect(
+            Collectors.toMap(
+                region -> new HashSet<>(region.entries()),
+                region -> ConflictGraphTest.pairSets(conflictGraph.conflictsWith(region))));
+  }
+
+  // a structure with many crossing stems, each of them interrupted by bulges
+  static List<Region> knottedRegions(final Random random, final int size) {
+    final int[] pairs = new int[size + 1];
+
+    for (int attempt = 0; attempt < size; attempt++) {
+      int i = random.nextInt(size) + 1;
+      int j = random.nextInt(size) + 1;
+      for (int segment = 0; segment < 3; segment++) {
+        final int length = random.nextInt(4) + 2;
+        if ((j - i <= 2 * length + 3) || (j > size)) {
+          break;
+        }
+
+        boolean free = true;
+        for (int k = 0; k < length; k++) {
+          free &= (pairs[i + k] == 0) && (pairs[j - k] == 0);
+        }
+        if (!free) {
+          break;
+        }
+
+        for (int k = 0; k < length; k++) {
+          pairs[i + k] = j - k;
+          pairs[j - k] = i + k;
+        }
+        // a single-nucleotide bulge on the 5' side
+        i += length + 1;
+        j -= length;
+      }
+    }
+
+    return Region.createRegions(
+        ImmutableBpSeq.of(
+            IntStream.rangeClosed(1, size)
+                .mapToObj(i -> ImmutableEntry.of(i, 'A', pairs[i]))
+                .collect(Collectors.toList())));
+  }
+
+  // the original implementation, which checks all pairs of regions
+  static Map<Region, Set<Region>> conflictsOriginal(final List<Region> regions) {
+    final Map<Region, Set<Region>> map = new HashMap<>();
+    for (int i = 0; i < regions.size(); i++) {
+      for (int j = i + 1; j < regions.size(); j++) {
+        if (ConflictGraph.isConflicting(regions.get(i), regions.get(j))) {
+          map.computeIfAbsent(regions.get(i), key -> new HashSet<>()).add(regions.get(j));
+          map.computeIfAbsent(regions.get(j), key -> new HashSet<>()).add(regions.get(i));
+        }
+      }
+    }
+    return map;
+  }
+
+  private static Region region(final int begin, final int end) {
+    return ImmutableRegion.of(List.of(ImmutableEntry.of(begin, 'A', end)));
+  }
+
+  static List<Region> loadRegions() throws Exception {
+    final List<Region> regions = new ArrayList<>();
+    regions.addAll(
+        Region.createRegions(
+            BpSeq.fromDotBracket(
+                DefaultDotBracket.fromString(
+                    ResourcesHelper.loadResource("4UG0-dotbracket.txt")))));
+    regions.addAll(
+        Region.createRegions(
+            BpSeq.fromCt(Ct.fromString(ResourcesHelper.loadResource("CRW_00528.ct")))));
+    return regions;
+  }
+
+  @Test
+  public final void testRandomRegions() {
+    final Random random = new Random(22);
+
+    for (int i = 0; i < 200; i++) {
+      // small coordinates to have many ties and degenerate regions
+      final List<Region> regions = new ArrayList<>();
+      for (int j = 0; j < 30; j++) {
+        regions.add(ConflictGraphTest.region(random.nextInt(20) + 1, random.nextInt(20) + 1));
+      }
+
+      final int[][] adjacency = ConflictGraph.conflictAdjacency(regions);
+      for (int j = 0; j < regions.size(); j++) {
+        final List<Integer> expected = new ArrayList<>();
+        for (int k = 0; k < regions.size(); k++) {
+          if (ConflictGraph.isConflicting(regions.get(j), regions.get(k))) {
+            expected.add(k);
+          }
+        }
+        assertThat(Arrays.stream(adjacency[j]).boxed().collect(Collectors.toList()), is(expected));
+      }
+    }
+  }
+
+  @Test
+  public final void testSameAsOriginal() throws Exception {
+    final List<Region> regions = ConflictGraphTest.loadRegions();
+    final ConflictGraph conflictGraph = ImmutableConflictGraph.of(regions);
+    assertThat(conflictGraph.conflicts(), is(ConflictGraphTest.conflictsOriginal(regions)));
+  }
+
+  @Test
+  public final void testSimplifiedAndCliquesSameAsOriginal() throws Exception {
+    final Random random = new Random(23);
+    final List<List<Region>> inputs = new ArrayList<>();
+    inputs.add(ConflictGraphTest.loadRegions());
+    for (int i = 0; i < 20; i++) {
+      inputs.add(ConflictGraphTest.knottedRegions(random, 300));
+    }
+
+    for (final List<Region> regions : inputs) {
+      final ConflictGraph conflictGraph = ImmutableConflictGraph.of(regions);
+      final ConflictGraph expected = ConflictGraphTest.simplifiedOriginal(conflictGraph);
+      final ConflictGraph actual = conflictGraph.simplified();
+      assertThat(
+          ConflictGraphTest.pairSets(actual.regions()),
+          is(ConflictGraphTest.pairSets(expected.regions())));
+      assertThat(
+          ConflictGraphTest.conflictPairSets(actual),
+          is(ConflictGraphTest.conflictPairSets(expected)));
+      assertThat(
+          conflictGraph.conflictCliques().stream()
+              .map(ConflictClique::regions)
+              .collect(Collectors.toList()),
+          is(ConflictGraphTest.conflictCliquesOriginal(conflictGraph)));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package pl.poznan.put.structure.pseudoknots.dp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DynamicProgrammingAllBenchmark {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(DynamicProgrammingAllBenchmark.class);
+
+  @Test
+  public final void benchmarkScoreTableVersusOriginal() {
+    final List<ConflictClique> cliques =
+        DynamicProgrammingAllTest.randomCliques(new Random(24), 300, 150);
+    final ConflictClique conflictClique = cliques.get(cliques.size() - 1);
+
+    long start = System.nanoTime();
+    final List<SubSolution> expected =
+        DynamicProgrammingAllTest.findOptimalSolutionsOriginal(conflictClique);
+    final long originalTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final List<SubSolution> actual =
+        ImmutableDynamicProgrammingAll.of().findOptimalSolutions(conflictClique);
+    final long newTime = System.nanoTime() - start;
+
+    assertThat(
+        DynamicProgrammingAllTest.regionSets(actual),
+        is(DynamicProgrammingAllTest.regionSets(expected)));
+    DynamicProgrammingAllBenchmark.LOGGER.info(
+        "Clique of {} regions with {} optimal solutions: original {} ms, score table {} ms",
+        conflictClique.size(),
+        actual.size(),
+        originalTime / 1_000_000L,
+        newTime / 1_000_000L);
+  }
+
+  @Test
+  public final void benchmarkLargeClique() {
+    final List<ConflictClique> cliques =
+        DynamicProgrammingAllTest.randomCliques(new Random(24), 10_000, 4_000);
+    final ConflictClique conflictClique = cliques.get(cliques.size() - 1);
+    final DynamicProgrammingAll dynamicProgramming =
+        ImmutableDynamicProgrammingAll.builder().maxSolutions(10).build();
+
+    final long start = System.nanoTime();
+    final List<SubSolution> solutions = dynamicProgramming.findOptimalSolutions(conflictClique);
+    final long time = System.nanoTime() - start;
+
+    assertThat(solutions.isEmpty(), is(false));
+    assertThat(solutions.size() <= 10, is(true));
+    DynamicProgrammingAllBenchmark.LOGGER.info(
+        "Clique of {} regions: {} optimal solutions (score {}) in {} ms",
+        conflictClique.size(),
+        solutions.size(),
+        solutions.get(0).score(),
+        time / 1_000_000L);
+  }
+}
@@ -0,0 +1,245 @@
+package pl.poznan.put.structure.pseudoknots.dp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import pl.poznan.put.structure.formats.BpSeq;
+import pl.poznan.put.structure.formats.ImmutableBpSeq;
+import pl.poznan.put.structure.formats.ImmutableEntry;
+import pl.poznan.put.structure.pseudoknots.ConflictGraph;
+import pl.poznan.put.structure.pseudoknots.ImmutableConflictGraph;
+import pl.poznan.put.structure.pseudoknots.Region;
+
+public class DynamicProgrammingAllTest {
+  // the original implementation, which keeps all co-optimal solutions in every cell
+  static List<SubSolution> findOptimalSolutionsOriginal(final ConflictClique conflictClique) {
+    final int size = conflictClique.endpointCount();
+    final SubSolution[][][] matrix = new SubSolution[size][size][0];
+
+    for (int j = 1; j < size; j++) {
+      for (int i = j - 1; i >= 0; i--) {
+        matrix[i][j] = DynamicProgrammingAllTest.solveSingleCase(matrix, conflictClique, i, j);
+      }
+    }
+
+    return Arrays.asList(matrix[0][size - 1]);
+  }
+
+  private static SubSolution[] solveSingleCase(
+      final SubSolution[][][] matrix,
+      final ConflictClique conflictClique,
+      final int i,
+      final int j) {
+    final Collection<SubSolution> candidates = new HashSet<>();
+
+    if (matrix[i][j - 1].length > 0) {
+      candidates.addAll(Arrays.asList(matrix[i][j - 1]));
+    }
+
+    if (matrix[i + 1][j].length > 0) {
+      candidates.addAll(Arrays.asList(matrix[i + 1][j]));
+    }
+
+    final Optional<Region> region =
+        conflictClique.findRegion(conflictClique.endpoint(i), conflictClique.endpoint(j));
+    if (region.isPresent()) {
+      final SubSolution current = ImmutableSubSolution.of(Collections.singletonList(region.get()));
+
+      if (matrix[i + 1][j - 1].length > 0) {
+        for (final SubSolution subSolution : matrix[i + 1][j - 1]) {
+          candidates.add(SubSolution.merge(subSolution, current));
+        }
+      } else {
+        candidates.add(current);
+      }
+    }
+
+    final SubSolution[] left = matrix[i][j - 1];
+    final SubSolution[] below = matrix[i + 1][j];
+    for (final SubSolution leftSub : left) {
+      final int highestEndpoint = leftSub.highestEndpoint();
+
+      for (final SubSolution belowSub : below) {
+        final int lowestEndpoint = belowSub.lowestEndpoint();
+
+        if (highestEndpoint < lowestEndpoint) {
+          candidates.add(SubSolution.merge(leftSub, belowSub));
+          continue;
+        }
+
+        final int begin = conflictClique.indexOfEndpoint(lowestEndpoint) - 1;
+        final int end = conflictClique.indexOfEndpoint(highestEndpoint) + 1;
+
+        for (int k = begin; k < end; k++) {
+          for (final SubSolution s1 : matrix[i][k]) {
+            for (final SubSolution s2 : matrix[k + 1][j]) {
+              candidates.add(SubSolution.merge(s1, s2));
+            }
+          }
+        }
+      }
+    }
+
+    if (candidates.isEmpty()) {
+      return new SubSolution[0];
+    }
+
+    final SortedMap<Integer, List<SubSolution>> map = new TreeMap<>();
+    for (final SubSolution candidate : candidates) {
+      map.computeIfAbsent(candidate.score(), key -> new ArrayList<>()).add(candidate);
+    }
+    return map.get(map.lastKey()).toArray(new SubSolution[0]);
+  }
+
+  // solutions are compared as sets of regions, because the order of regions is irrelevant
+  static Set<Set<Region>> regionSets(final Collection<SubSolution> solutions) {
+    return solutions.stream()
+        .map(solution -> new HashSet<>(solution.regions()))
+        .collect(Collectors.toSet());
+  }
+
+  // a random structure made of short stems, with many pseudoknots
+  private static BpSeq randomBpSeq(final Random random, final int size, final int stems) {
+    final int[] pairs = new int[size + 1];
+
+    for (int stem = 0; stem < stems; stem++) {
+      final int i = random.nextInt(size) + 1;
+      final int j = random.nextInt(size) + 1;
+      final int length = random.nextInt(3) + 1;
+      if (j - i <= 2 * length + 3) {
+        continue;
+      }
+
+      boolean free = true;
+      for (int k = 0; k < length; k++) {
+        free &= (pairs[i + k] == 0) && (pairs[j - k] == 0);
+      }
+      if (free) {
+        for (int k = 0; k < length; k++) {
+          pairs[i + k] = j - k;
+          pairs[j - k] = i + k;
+        }
+      }
+    }
+
+    return ImmutableBpSeq.of(
+        IntStream.rangeClosed(1, size)
+            .mapToObj(i -> ImmutableEntry.of(i, 'A', pairs[i]))
+            .collect(Collectors.toList()));
+  }
+
+  // conflict cliques of a random structure, ordered by size
+  static List<ConflictClique> randomCliques(final Random random, final int size, final int stems) {
+    final List<Region> regions =
+        Region.createRegions(DynamicProgrammingAllTest.randomBpSeq(random, size, stems));
+    final ConflictGraph conflictGraph = ImmutableConflictGraph.of(regions);
+    return conflictGraph.conflictCliques().stream()
+        .sorted(Comparator.comparingInt(ConflictClique::size))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public final void testSameAsOriginal() {
+    final Random random = new Random(24);
+    int compared = 0;
+
+    for (int i = 0; i < 200; i++) {
+      for (final ConflictClique conflictClique :
+          DynamicProgrammingAllTest.randomCliques(random, 60, random.nextInt(10) + 3)) {
+        if (conflictClique.size() > 12) {
+          continue;
+        }
+
+        final List<SubSolution> expected =
+            DynamicProgrammingAllTest.findOptimalSolutionsOriginal(conflictClique);
+        final List<SubSolution> actual =
+            ImmutableDynamicProgrammingAll.of().findOptimalSolutions(conflictClique);
+
+        assertThat(
+            DynamicProgrammingAllTest.regionSets(actual),
+            is(DynamicProgrammingAllTest.regionSets(expected)));
+        // every solution is reported once
+        assertThat(actual.size(), is(DynamicProgrammingAllTest.regionSets(actual).size()));
+        compared += 1;
+      }
+    }
+
+    assertThat(compared > 100, is(true));
+  }
+
+  @Test
+  public final void testMaxSolutions() {
+    final Random random = new Random(24);
+    final DynamicProgrammingAll all = ImmutableDynamicProgrammingAll.of();
+    final DynamicProgrammingAll limited =
+        ImmutableDynamicProgrammingAll.builder().maxSolutions(3).build();
+
+    for (int i = 0; i < 50; i++) {
+      for (final ConflictClique conflictClique :
+          DynamicProgrammingAllTest.randomCliques(random, 100, 20)) {
+        final List<SubSolution> expected = all.findOptimalSolutions(conflictClique);
+        final List<SubSolution> actual = limited.findOptimalSolutions(conflictClique);
+
+        assertThat(actual.size(), is(Math.min(3, expected.size())));
+        assertThat(expected.containsAll(actual), is(true));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public final void testMaxSolutionsMustBePositive() {
+    ImmutableDynamicProgrammingAll.builder().maxSolutions(0).build();
+  }
+
+  @Test
+  public final void testParallelSameAsSequential() {
+    final Random random = new Random(25);
+    final DynamicProgrammingAll sequential = ImmutableDynamicProgrammingAll.of();
+    final DynamicProgrammingAll parallel =
+        ImmutableDynamicProgrammingAll.builder().executor(ForkJoinPool.commonPool()).build();
+
+    for (int i = 0; i < 50; i++) {
+      final BpSeq bpSeq = DynamicProgrammingAllTest.randomBpSeq(random, 200, 40);
+      assertThat(parallel.findPseudoknots(bpSeq), is(sequential.findPseudoknots(bpSeq)));
+    }
+  }
+
+  @Test
+  public final void testMaxSolutionsLimitsProduct() {
+    final Random random = new Random(25);
+    final DynamicProgrammingAll all = ImmutableDynamicProgrammingAll.of();
+    final DynamicProgrammingAll limited =
+        ImmutableDynamicProgrammingAll.builder().maxSolutions(5).build();
+    int limitedCount = 0;
+
+    for (int i = 0; i < 50; i++) {
+      final BpSeq bpSeq = DynamicProgrammingAllTest.randomBpSeq(random, 200, 40);
+      final List<BpSeq> expected = all.findPseudoknots(bpSeq);
+      final List<BpSeq> actual = limited.findPseudoknots(bpSeq);
+
+      // the limited solutions are the first ones from the full product
+      assertThat(actual, is(expected.subList(0, Math.min(5, expected.size()))));
+      if (expected.size() > 5) {
+        limitedCount += 1;
+      }
+    }
+
+    assertThat(limitedCount > 0, is(true));
+  }
+}